@@ -0,0 +1,111 @@
+package com.example.flexdb.benchmark;
+
+import com.example.flexdb.enums.SupportedColumnType;
+
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.ResultSetMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Синтетические строки динамической таблицы: id и колонки всех поддерживаемых типов по кругу,
+ * в тех Java-типах, которые возвращает драйвер PostgreSQL.
+ */
+final class BenchmarkData {
+
+    private BenchmarkData() {
+    }
+
+    static String[] columnNames(int columnCount) {
+        String[] names = new String[columnCount];
+        names[0] = "id";
+        for (int i = 1; i < columnCount; i++) {
+            names[i] = "column_" + i;
+        }
+        return names;
+    }
+
+    static Object[] rowValues(int columnCount, int rowIndex) {
+        Object[] values = new Object[columnCount];
+        values[0] = (long) rowIndex + 1;
+        for (int i = 1; i < columnCount; i++) {
+            values[i] = switch (i % 6) {
+                case 1 -> "Значение " + rowIndex + "-" + i;
+                case 2 -> rowIndex * 31 + i;
+                case 3 -> BigDecimal.valueOf(rowIndex * 1000L + i, 2);
+                case 4 -> (rowIndex + i) % 2 == 0;
+                case 5 -> Date.valueOf(LocalDate.of(2024, 1, 1).plusDays(rowIndex));
+                default -> Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 0, 0).plusMinutes(rowIndex * 7L + i));
+            };
+        }
+        return values;
+    }
+
+    /**
+     * Типы колонок в том же порядке, что и значения {@link #rowValues}.
+     */
+    static Map<String, SupportedColumnType> columnTypes(int columnCount) {
+        String[] names = columnNames(columnCount);
+        Map<String, SupportedColumnType> types = new LinkedHashMap<>();
+        types.put(names[0], SupportedColumnType.BIGINT);
+        for (int i = 1; i < columnCount; i++) {
+            types.put(names[i], switch (i % 6) {
+                case 1 -> SupportedColumnType.TEXT;
+                case 2 -> SupportedColumnType.INTEGER;
+                case 3 -> SupportedColumnType.DECIMAL;
+                case 4 -> SupportedColumnType.BOOLEAN;
+                case 5 -> SupportedColumnType.DATE;
+                default -> SupportedColumnType.TIMESTAMP;
+            });
+        }
+        return types;
+    }
+
+    static Map<String, Object> row(int columnCount, int rowIndex) {
+        String[] names = columnNames(columnCount);
+        Object[] values = rowValues(columnCount, rowIndex);
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < columnCount; i++) {
+            row.put(names[i], values[i]);
+        }
+        return row;
+    }
+
+    /**
+     * Минимальный ResultSet поверх массива строк на динамических прокси.
+     * Поддерживает только методы, которые вызывают ColumnMapRowMapper и JdbcUtils.
+     */
+    static ResultSet resultSet(String[] names, Object[][] rows) {
+        ResultSetMetaData metaData = (ResultSetMetaData) Proxy.newProxyInstance(
+                BenchmarkData.class.getClassLoader(),
+                new Class<?>[]{ResultSetMetaData.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getColumnCount" -> names.length;
+                    case "getColumnLabel", "getColumnName" -> names[(int) args[0] - 1];
+                    case "getColumnClassName" -> Date.class.getName();
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+
+        int[] cursor = {-1};
+        return (ResultSet) Proxy.newProxyInstance(
+                BenchmarkData.class.getClassLoader(),
+                new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "getMetaData" -> metaData;
+                    case "next" -> ++cursor[0] < rows.length;
+                    case "absolute" -> {
+                        cursor[0] = (int) args[0] - 1;
+                        yield cursor[0] >= 0 && cursor[0] < rows.length;
+                    }
+                    case "getObject" -> rows[cursor[0]][(int) args[0] - 1];
+                    case "wasNull" -> false;
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
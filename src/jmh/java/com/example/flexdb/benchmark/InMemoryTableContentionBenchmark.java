@@ -0,0 +1,73 @@
+package com.example.flexdb.benchmark;
+
+import com.example.flexdb.entity.DynamicColumnDefinition;
+import com.example.flexdb.repository.InMemoryTable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Конкуренция за блокировку одной таблицы MEMORY (100 000 строк): чтения по id без писателей
+ * и вместе с инкрементами в соседних строках. Если чтение рядом с писателями заметно медленнее чтения
+ * в одиночку, одной блокировки на таблицу мало. Потоков в обеих группах по четыре: в mixed три читателя и писатель.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Group)
+public class InMemoryTableContentionBenchmark {
+
+    private static final int ROWS = 100_000;
+    private static final List<String> PROJECTION = List.of("id", "qty_count", "note_text");
+    private static final Map<String, Number> DELTA = Map.of("qty_count", 1);
+
+    private InMemoryTable table;
+
+    @Setup
+    public void setUp() {
+        table = new InMemoryTable(List.of(
+                column("id", "BIGINT", true),
+                column("qty_count", "INTEGER", false),
+                column("note_text", "TEXT", false)
+        ), ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            table.insert(Map.of("qty_count", 0, "note_text", "row " + i));
+        }
+    }
+
+    @Benchmark
+    @Group("readOnly")
+    @GroupThreads(4)
+    public Optional<Map<String, Object>> readAlone() {
+        return table.get(randomId(), PROJECTION);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(3)
+    public Optional<Map<String, Object>> read() {
+        return table.get(randomId(), PROJECTION);
+    }
+
+    @Benchmark
+    @Group("mixed")
+    @GroupThreads(1)
+    public Optional<Map<String, Object>> increment() {
+        return table.increment(randomId(), DELTA);
+    }
+
+    private static long randomId() {
+        return ThreadLocalRandom.current().nextLong(1, ROWS + 1);
+    }
+
+    private static DynamicColumnDefinition column(String name, String type, boolean primaryKey) {
+        DynamicColumnDefinition column = new DynamicColumnDefinition();
+        column.setColumnName(name);
+        column.setColumnType(type);
+        column.setPrimaryKeyInternal(primaryKey);
+        return column;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.flexdb.benchmark;
+
+import com.example.flexdb.dto.PageInfo;
+import com.example.flexdb.dto.PaginatedResponse;
+import com.example.flexdb.enums.SupportedColumnType;
+import com.example.flexdb.web.ArrowIpcWriter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация страницы PaginatedResponse (100 строк) в JSON и бинарные форматы CBOR/Smile,
+ * а также тех же строк в поток Arrow IPC по типам колонок.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class ResponseSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"json", "cbor", "smile", "arrow"})
+    public String format;
+
+    @Param({"5", "20", "60"})
+    public int columnCount;
+
+    private ObjectMapper objectMapper;
+    private Map<String, SupportedColumnType> columnTypes;
+    private PaginatedResponse response;
+
+    @Setup
+    public void setUp() {
+        Jackson2ObjectMapperBuilder builder = switch (format) {
+            case "json", "arrow" -> Jackson2ObjectMapperBuilder.json();
+            case "cbor" -> Jackson2ObjectMapperBuilder.cbor();
+            case "smile" -> Jackson2ObjectMapperBuilder.smile();
+            default -> throw new IllegalArgumentException(format);
+        };
+        objectMapper = builder.featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS).build();
+        columnTypes = BenchmarkData.columnTypes(columnCount);
+
+        List<Map<String, Object>> content = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            content.add(BenchmarkData.row(columnCount, i));
+        }
+        response = new PaginatedResponse(content, new PageInfo(0, PAGE_SIZE), 10, 1000, false, true);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        if (!"arrow".equals(format)) {
+            return objectMapper.writeValueAsBytes(response);
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowIpcWriter writer = new ArrowIpcWriter(out, columnTypes);
+        writer.writeSchema(Map.of("flexdb.totalElements", String.valueOf(response.getTotalElements())));
+        writer.writeBatch(response.getContent());
+        writer.writeEnd();
+        return out.toByteArray();
+    }
+}
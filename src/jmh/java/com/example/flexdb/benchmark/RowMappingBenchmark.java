@@ -0,0 +1,49 @@
+package com.example.flexdb.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Преобразование страницы результата (100 строк) в List&lt;Map&gt;, как в JdbcTemplate.queryForList.
+ * ResultSet — прокси без сети и драйвера, поэтому измеряется только маппинг.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class RowMappingBenchmark {
+
+    private static final int PAGE_SIZE = 100;
+
+    @Param({"5", "20", "60"})
+    public int columnCount;
+
+    private final ColumnMapRowMapper rowMapper = new ColumnMapRowMapper();
+    private ResultSet resultSet;
+
+    @Setup
+    public void setUp() {
+        Object[][] rows = new Object[PAGE_SIZE][];
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            rows[i] = BenchmarkData.rowValues(columnCount, i);
+        }
+        resultSet = BenchmarkData.resultSet(BenchmarkData.columnNames(columnCount), rows);
+    }
+
+    @Benchmark
+    public List<Map<String, Object>> mapPage() throws SQLException {
+        resultSet.absolute(0);
+        List<Map<String, Object>> result = new ArrayList<>(PAGE_SIZE);
+        int rowNum = 0;
+        while (resultSet.next()) {
+            result.add(rowMapper.mapRow(resultSet, rowNum++));
+        }
+        return result;
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.flexdb.benchmark;
+
+import com.example.flexdb.service.impl.DynamicSqlBuilder;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Построение INSERT/UPDATE в зависимости от ширины строки.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class SqlBuildBenchmark {
+
+    @Param({"5", "20", "60"})
+    public int columnCount;
+
+    private List<String> columnNames;
+
+    @Setup
+    public void setUp() {
+        columnNames = new ArrayList<>(columnCount);
+        for (int i = 0; i < columnCount; i++) {
+            columnNames.add("column_" + i);
+        }
+    }
+
+    @Benchmark
+    public String insertSql() {
+        return DynamicSqlBuilder.insertSql("bench_table", columnNames);
+    }
+
+    @Benchmark
+    public String updateSql() {
+        return DynamicSqlBuilder.updateSql("bench_table", columnNames);
+    }
+}
@@ -0,0 +1,76 @@
+package com.example.flexdb.benchmark;
+
+import com.example.flexdb.config.MetricsProperties;
+import com.example.flexdb.entity.DynamicColumnDefinition;
+import com.example.flexdb.metrics.DynamicTableMetrics;
+import com.example.flexdb.service.impl.DynamicRowValidator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Проверка значений по типам колонок: отдельное значение и строка из 20 колонок одного типа.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ValueValidationBenchmark {
+
+    private static final int ROW_WIDTH = 20;
+
+    @Param({"TEXT", "INTEGER", "BIGINT", "DECIMAL", "BOOLEAN", "DATE", "TIMESTAMP"})
+    public String columnType;
+
+    private Object value;
+    private DynamicRowValidator validator;
+    private List<DynamicColumnDefinition> columns;
+    private Map<String, Object> row;
+
+    @Setup
+    public void setUp() {
+        value = sampleValue(columnType);
+        validator = new DynamicRowValidator(new DynamicTableMetrics(new SimpleMeterRegistry(), new MetricsProperties()));
+
+        columns = new ArrayList<>();
+        row = new LinkedHashMap<>();
+        for (int i = 0; i < ROW_WIDTH; i++) {
+            DynamicColumnDefinition col = new DynamicColumnDefinition();
+            col.setColumnName("col_" + i);
+            col.setColumnType(columnType);
+            col.setNullable(false);
+            columns.add(col);
+            row.put(col.getColumnName(), value);
+        }
+    }
+
+    @Benchmark
+    public void validateValueType() {
+        DynamicRowValidator.validateValueType("col_value", columnType, value);
+    }
+
+    @Benchmark
+    public void validateRow() {
+        validator.validateRow(columns, row);
+    }
+
+    /**
+     * Значения в том виде, в каком их отдаёт Jackson при разборе JSON-тела запроса.
+     */
+    static Object sampleValue(String columnType) {
+        return switch (columnType) {
+            case "TEXT" -> "Тилекбекова";
+            case "INTEGER" -> 42;
+            case "BIGINT" -> 9_000_000_000L;
+            case "DECIMAL" -> 1234.56;
+            case "BOOLEAN" -> true;
+            case "DATE" -> "2024-05-01";
+            case "TIMESTAMP" -> "2024-05-01T10:15:30";
+            default -> throw new IllegalArgumentException(columnType);
+        };
+    }
+}
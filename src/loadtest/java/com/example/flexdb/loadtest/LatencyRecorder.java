@@ -0,0 +1,53 @@
+package com.example.flexdb.loadtest;
+
+import java.util.Arrays;
+
+/**
+ * Задержки одного типа запроса в одном потоке нагрузки. Объединяются после прогона.
+ */
+final class LatencyRecorder {
+
+    private long[] latenciesNanos = new long[1024];
+    private int size;
+    private long errors;
+
+    void record(long nanos, boolean success) {
+        if (!success) {
+            errors++;
+        }
+        if (size == latenciesNanos.length) {
+            latenciesNanos = Arrays.copyOf(latenciesNanos, size * 2);
+        }
+        latenciesNanos[size++] = nanos;
+    }
+
+    void merge(LatencyRecorder other) {
+        if (size + other.size > latenciesNanos.length) {
+            latenciesNanos = Arrays.copyOf(latenciesNanos, Math.max(size + other.size, latenciesNanos.length * 2));
+        }
+        System.arraycopy(other.latenciesNanos, 0, latenciesNanos, size, other.size);
+        size += other.size;
+        errors += other.errors;
+    }
+
+    int count() {
+        return size;
+    }
+
+    long errors() {
+        return errors;
+    }
+
+    /**
+     * Перцентиль задержки в миллисекундах (nearest-rank). Сортирует данные на месте.
+     */
+    double percentileMillis(double percentile) {
+        if (size == 0) {
+            return 0;
+        }
+        Arrays.sort(latenciesNanos, 0, size);
+        int rank = (int) Math.ceil(percentile / 100.0 * size);
+        int index = Math.min(Math.max(rank - 1, 0), size - 1);
+        return latenciesNanos[index] / 1_000_000.0;
+    }
+}
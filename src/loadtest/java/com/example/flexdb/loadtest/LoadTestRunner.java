@@ -0,0 +1,376 @@
+package com.example.flexdb.loadtest;
+
+import com.example.flexdb.FlexdbApplication;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.File;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+
+/**
+ * Нагрузочный тест FlexDB: поднимает приложение (или использует уже запущенное по loadtest.baseUrl),
+ * создаёт таблицу через DynamicTableController и гоняет смешанную нагрузку по DynamicDataController.
+ * <p>
+ * Параметры (системные свойства, значения по умолчанию):
+ * <pre>
+ * loadtest.baseUrl          — адрес запущенного приложения; если не задан, приложение стартует в этом процессе
+ * loadtest.db               — embedded (zonky embedded-postgres) | local (spring.datasource.* из конфигурации)
+ * loadtest.api              — jdbc (DynamicDataController) | reactive (R2DBC, профиль r2dbc; сборка с -Pr2dbc)
+ * loadtest.concurrency      — 16, число параллельных клиентов
+ * loadtest.warmupSeconds    — 10
+ * loadtest.durationSeconds  — 30
+ * loadtest.seedRows         — 1000, строк в таблице до начала замера
+ * loadtest.columns          — 8, пользовательских колонок в таблице
+ * loadtest.textSize         — 64, длина значений TEXT
+ * loadtest.pageSize         — 20
+ * loadtest.mix              — insert:30,get:40,list:15,update:10,delete:5
+ * loadtest.output           — target/loadtest-result.json
+ * </pre>
+ * Количество JDBC-выражений на запрос считается только при запуске приложения в этом процессе;
+ * в режиме reactive учитываются только JDBC-запросы метаданных, SQL по данным идёт через R2DBC.
+ */
+public final class LoadTestRunner {
+
+    private static final String[] OPERATIONS = {"insert", "get", "list", "update", "delete"};
+
+    /**
+     * DATE и TIMESTAMP не используются: строковые значения для них драйвер передаёт как varchar,
+     * и без stringtype=unspecified PostgreSQL отклоняет такие вставки.
+     */
+    private static final String[] COLUMN_TYPES = {"TEXT", "INTEGER", "BIGINT", "DECIMAL", "BOOLEAN"};
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final int concurrency = Integer.getInteger("loadtest.concurrency", 16);
+    private final int warmupSeconds = Integer.getInteger("loadtest.warmupSeconds", 10);
+    private final int durationSeconds = Integer.getInteger("loadtest.durationSeconds", 30);
+    private final int seedRows = Integer.getInteger("loadtest.seedRows", 1000);
+    private final int columnCount = Integer.getInteger("loadtest.columns", 8);
+    private final int textSize = Integer.getInteger("loadtest.textSize", 64);
+    private final int pageSize = Integer.getInteger("loadtest.pageSize", 20);
+    private final int[] mixWeights = parseMix(System.getProperty("loadtest.mix", "insert:30,get:40,list:15,update:10,delete:5"));
+    private final String output = System.getProperty("loadtest.output", "target/loadtest-result.json");
+    private final boolean reactive = "reactive".equals(System.getProperty("loadtest.api", "jdbc"));
+
+    private final List<Long> idPool = new ArrayList<>();
+    private String baseUrl;
+    private String tableName;
+
+    public static void main(String[] args) throws Exception {
+        new LoadTestRunner().run();
+    }
+
+    private void run() throws Exception {
+        EmbeddedPostgres embeddedPostgres = null;
+        ConfigurableApplicationContext context = null;
+        boolean inProcess = System.getProperty("loadtest.baseUrl") == null;
+
+        try {
+            if (inProcess) {
+                // Системные свойства, а не properties() билдера: у тех приоритет ниже application.properties
+                System.setProperty("server.port", "0");
+                System.setProperty("spring.jpa.show-sql", "false");
+                System.setProperty("logging.level.com.example.flexdb", "WARN");
+
+                if ("embedded".equals(System.getProperty("loadtest.db", "embedded"))) {
+                    embeddedPostgres = EmbeddedPostgres.builder().start();
+                    System.setProperty("spring.datasource.url", embeddedPostgres.getJdbcUrl("postgres", "postgres"));
+                    System.setProperty("spring.datasource.username", "postgres");
+                    System.setProperty("spring.datasource.password", "postgres");
+                    System.setProperty("flexdb.r2dbc.url", "r2dbc:postgresql://localhost:" + embeddedPostgres.getPort() + "/postgres");
+                    System.setProperty("flexdb.r2dbc.username", "postgres");
+                    System.setProperty("flexdb.r2dbc.password", "postgres");
+                }
+                if (reactive) {
+                    System.setProperty("spring.profiles.active", "r2dbc");
+                }
+
+                context = new SpringApplicationBuilder(FlexdbApplication.class, StatementCountingConfiguration.class)
+                        .run();
+                int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+                baseUrl = "http://localhost:" + port;
+            } else {
+                baseUrl = System.getProperty("loadtest.baseUrl");
+            }
+
+            tableName = "lt_" + System.currentTimeMillis();
+            createTable();
+            System.out.printf("Таблица %s создана, заполнение %d строк...%n", tableName, seedRows);
+            seed();
+
+            System.out.printf("Прогрев %d с...%n", warmupSeconds);
+            runPhase(warmupSeconds);
+
+            StatementCounters.reset();
+            System.out.printf("Замер %d с, %d клиентов...%n", durationSeconds, concurrency);
+            Map<String, LatencyRecorder> results = runPhase(durationSeconds);
+            Map<String, Long> statements = inProcess ? StatementCounters.snapshot() : Map.of();
+
+            report(results, statements);
+        } finally {
+            if (context != null) {
+                context.close();
+            }
+            if (embeddedPostgres != null) {
+                embeddedPostgres.close();
+            }
+        }
+    }
+
+    private void createTable() throws Exception {
+        List<Map<String, Object>> columns = new ArrayList<>();
+        for (int i = 0; i < columnCount; i++) {
+            columns.add(Map.of(
+                    "name", "col_" + i,
+                    "type", COLUMN_TYPES[i % COLUMN_TYPES.length],
+                    "isNullable", true
+            ));
+        }
+        Map<String, Object> request = Map.of(
+                "tableName", tableName,
+                "userFriendlyName", "Нагрузочный тест",
+                "columns", columns
+        );
+        HttpResponse<String> response = send("create", "POST", "/api/v1/dynamic-tables/schemas", request);
+        if (response.statusCode() != 201) {
+            throw new IllegalStateException("Не удалось создать таблицу: " + response.statusCode() + " " + response.body());
+        }
+    }
+
+    private void seed() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < seedRows; i++) {
+                futures.add(executor.submit(() -> {
+                    execute("insert", ThreadLocalRandom.current());
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    private Map<String, LatencyRecorder> runPhase(int seconds) throws Exception {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(seconds);
+        ExecutorService executor = Executors.newFixedThreadPool(concurrency);
+        List<Future<Map<String, LatencyRecorder>>> futures = new ArrayList<>();
+
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(executor.submit(() -> {
+                Map<String, LatencyRecorder> recorders = new HashMap<>();
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < deadline) {
+                    String operation = pickOperation(random);
+                    long start = System.nanoTime();
+                    boolean success = execute(operation, random);
+                    recorders.computeIfAbsent(operation, k -> new LatencyRecorder())
+                            .record(System.nanoTime() - start, success);
+                }
+                return recorders;
+            }));
+        }
+
+        Map<String, LatencyRecorder> merged = new TreeMap<>();
+        try {
+            for (Future<Map<String, LatencyRecorder>> future : futures) {
+                future.get().forEach((operation, recorder) ->
+                        merged.computeIfAbsent(operation, k -> new LatencyRecorder()).merge(recorder));
+            }
+        } finally {
+            executor.shutdown();
+        }
+        return merged;
+    }
+
+    private boolean execute(String operation, ThreadLocalRandom random) throws Exception {
+        String dataPath = (reactive ? "/api/v1/reactive/dynamic-tables/data/" : "/api/v1/dynamic-tables/data/") + tableName;
+        HttpResponse<String> response;
+
+        switch (operation) {
+            case "insert" -> {
+                response = send(operation, "POST", dataPath, randomRow(random));
+                if (response.statusCode() == 201) {
+                    Number id = (Number) objectMapper.readValue(response.body(), Map.class).get("id");
+                    synchronized (idPool) {
+                        idPool.add(id.longValue());
+                    }
+                }
+            }
+            case "get" -> {
+                Long id = randomId(random, false);
+                if (id == null) return true;
+                response = send(operation, "GET", dataPath + "/" + id, null);
+            }
+            case "list" -> {
+                int pages;
+                synchronized (idPool) {
+                    pages = Math.max(idPool.size() / pageSize, 1);
+                }
+                response = send(operation, "GET", dataPath + "?page=" + random.nextInt(pages) + "&size=" + pageSize, null);
+            }
+            case "update" -> {
+                Long id = randomId(random, false);
+                if (id == null) return true;
+                response = send(operation, "PUT", dataPath + "/" + id, randomRow(random));
+            }
+            case "delete" -> {
+                Long id = randomId(random, true);
+                if (id == null) return true;
+                response = send(operation, "DELETE", dataPath + "/" + id, null);
+            }
+            default -> throw new IllegalArgumentException(operation);
+        }
+
+        return response.statusCode() < 400;
+    }
+
+    private HttpResponse<String> send(String operation, String method, String path, Object body) throws Exception {
+        HttpRequest.BodyPublisher publisher = body != null
+                ? HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body))
+                : HttpRequest.BodyPublishers.noBody();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .header(StatementCounters.OPERATION_HEADER, operation)
+                .method(method, publisher)
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private Map<String, Object> randomRow(ThreadLocalRandom random) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (int i = 0; i < columnCount; i++) {
+            Object value = switch (COLUMN_TYPES[i % COLUMN_TYPES.length]) {
+                case "TEXT" -> randomText(random);
+                case "INTEGER" -> random.nextInt(1_000_000);
+                case "BIGINT" -> random.nextLong(1_000_000_000_000L);
+                case "DECIMAL" -> Math.round(random.nextDouble(100_000) * 100) / 100.0;
+                default -> random.nextBoolean();
+            };
+            row.put("col_" + i, value);
+        }
+        return row;
+    }
+
+    private String randomText(ThreadLocalRandom random) {
+        char[] chars = new char[textSize];
+        for (int i = 0; i < textSize; i++) {
+            chars[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(chars);
+    }
+
+    /**
+     * Случайный id из пула. Для delete id сразу убирается из пула, чтобы его не выбирали другие клиенты.
+     */
+    private Long randomId(ThreadLocalRandom random, boolean remove) {
+        synchronized (idPool) {
+            if (idPool.isEmpty()) {
+                return null;
+            }
+            int index = random.nextInt(idPool.size());
+            Long id = idPool.get(index);
+            if (remove) {
+                idPool.set(index, idPool.get(idPool.size() - 1));
+                idPool.remove(idPool.size() - 1);
+            }
+            return id;
+        }
+    }
+
+    private String pickOperation(ThreadLocalRandom random) {
+        int total = Arrays.stream(mixWeights).sum();
+        int roll = random.nextInt(total);
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            roll -= mixWeights[i];
+            if (roll < 0) {
+                return OPERATIONS[i];
+            }
+        }
+        return OPERATIONS[0];
+    }
+
+    private static int[] parseMix(String mix) {
+        int[] weights = new int[OPERATIONS.length];
+        for (String part : mix.split(",")) {
+            String[] kv = part.trim().split(":");
+            int index = Arrays.asList(OPERATIONS).indexOf(kv[0].trim());
+            if (index < 0 || kv.length != 2) {
+                throw new IllegalArgumentException("Некорректный loadtest.mix: " + mix);
+            }
+            weights[index] = Integer.parseInt(kv[1].trim());
+        }
+        if (Arrays.stream(weights).sum() <= 0) {
+            throw new IllegalArgumentException("Сумма весов loadtest.mix должна быть больше нуля");
+        }
+        return weights;
+    }
+
+    private void report(Map<String, LatencyRecorder> results, Map<String, Long> statements) throws Exception {
+        System.out.printf("%n%-8s %10s %8s %10s %9s %9s %9s %10s%n",
+                "op", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p999 ms", "stmt/req");
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("api", reactive ? "reactive" : "jdbc");
+        json.put("concurrency", concurrency);
+        json.put("durationSeconds", durationSeconds);
+        json.put("columns", columnCount);
+        json.put("textSize", textSize);
+        Map<String, Object> operations = new LinkedHashMap<>();
+
+        for (Map.Entry<String, LatencyRecorder> entry : results.entrySet()) {
+            String operation = entry.getKey();
+            LatencyRecorder recorder = entry.getValue();
+            double throughput = recorder.count() / (double) durationSeconds;
+            double p50 = recorder.percentileMillis(50);
+            double p99 = recorder.percentileMillis(99);
+            double p999 = recorder.percentileMillis(99.9);
+            Long statementCount = statements.get(operation);
+            Double perRequest = statementCount != null && recorder.count() > 0
+                    ? statementCount / (double) recorder.count()
+                    : null;
+
+            System.out.printf("%-8s %10d %8d %10.1f %9.2f %9.2f %9.2f %10s%n",
+                    operation, recorder.count(), recorder.errors(), throughput, p50, p99, p999,
+                    perRequest != null ? String.format("%.2f", perRequest) : "-");
+
+            Map<String, Object> op = new LinkedHashMap<>();
+            op.put("requests", recorder.count());
+            op.put("errors", recorder.errors());
+            op.put("throughputPerSecond", throughput);
+            op.put("p50Millis", p50);
+            op.put("p99Millis", p99);
+            op.put("p999Millis", p999);
+            op.put("statements", statementCount);
+            op.put("statementsPerRequest", perRequest);
+            operations.put(operation, op);
+        }
+        json.put("operations", operations);
+
+        File file = new File(output);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        objectMapper.writeValue(file, json);
+        System.out.println("\nРезультаты сохранены в " + file.getPath());
+    }
+}
@@ -0,0 +1,370 @@
+package com.example.flexdb.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.zonky.test.db.postgres.embedded.EmbeddedPostgres;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.jar.JarFile;
+
+/**
+ * Бенчмарк времени старта FlexDB: запускает приложение отдельным процессом в нескольких вариантах
+ * и замеряет время до готовности (readiness) и до ответа на первые запросы к данным.
+ * <p>
+ * Варианты (собираются профилем startup: ./mvnw -Pstartup,loadtest verify -Dloadtest.main=com.example.flexdb.loadtest.StartupBenchmark):
+ * <pre>
+ * jar        — исполняемый jar как есть
+ * extracted  — распакованное приложение из target/startup без CDS
+ * cds        — распакованное приложение с AppCDS-архивом target/startup/flexdb.jsa
+ * aot        — распакованное приложение с -Dspring.aot.enabled=true
+ * aot-cds    — AOT и AppCDS вместе
+ * </pre>
+ * Недоступные в текущей сборке варианты пропускаются.
+ * <p>
+ * Параметры (системные свойства, значения по умолчанию):
+ * <pre>
+ * startup.variants        — jar,cds,aot-cds
+ * startup.warmup          — false,true; каждый вариант запускается с flexdb.warmup.enabled из списка
+ * startup.runs            — 3, запусков на вариант
+ * startup.db              — embedded (zonky embedded-postgres) | local (spring.datasource.* из конфигурации приложения)
+ * startup.tables          — 20, таблиц с данными до замеров (для прогрева метаданных)
+ * startup.rows            — 100, строк в каждой таблице
+ * startup.timeoutSeconds  — 180, ожидание готовности одного запуска
+ * startup.appArgs         — дополнительные аргументы приложения через пробел
+ * startup.output          — target/startup-result.json
+ * </pre>
+ * Логи запусков — в target/startup-logs.
+ */
+public final class StartupBenchmark {
+
+    private static final String AOT_INITIALIZER = "com/example/flexdb/FlexdbApplication__ApplicationContextInitializer.class";
+    private static final String[] METRICS = {"readyMillis", "firstListMillis", "firstListLatencyMillis", "firstGetLatencyMillis"};
+
+    private final ObjectMapper objectMapper = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(2))
+            .build();
+
+    private final List<String> variants = split(System.getProperty("startup.variants", "jar,cds,aot-cds"));
+    private final List<String> warmupModes = split(System.getProperty("startup.warmup", "false,true"));
+    private final int runs = Integer.getInteger("startup.runs", 3);
+    private final int tableCount = Integer.getInteger("startup.tables", 20);
+    private final int rowsPerTable = Integer.getInteger("startup.rows", 100);
+    private final int timeoutSeconds = Integer.getInteger("startup.timeoutSeconds", 180);
+    private final List<String> appArgs = split(System.getProperty("startup.appArgs", ""), " ");
+    private final String output = System.getProperty("startup.output", "target/startup-result.json");
+
+    private final File target = new File("target");
+    private final File startupDirectory = new File(target, "startup");
+    private final File logDirectory = new File(target, "startup-logs");
+    private final List<String> databaseArgs = new ArrayList<>();
+    private String probeTable;
+    private long probeId;
+
+    public static void main(String[] args) throws Exception {
+        new StartupBenchmark().run();
+    }
+
+    private void run() throws Exception {
+        EmbeddedPostgres embeddedPostgres = null;
+        try {
+            if ("embedded".equals(System.getProperty("startup.db", "embedded"))) {
+                embeddedPostgres = EmbeddedPostgres.builder().start();
+                databaseArgs.add("--spring.datasource.url=" + embeddedPostgres.getJdbcUrl("postgres", "postgres"));
+                databaseArgs.add("--spring.datasource.username=postgres");
+                databaseArgs.add("--spring.datasource.password=postgres");
+            }
+            logDirectory.mkdirs();
+
+            // Подготовительный запуск: миграции Flyway и тестовые таблицы, чтобы замеры не включали создание схемы
+            System.out.printf("Подготовка: %d таблиц по %d строк...%n", tableCount, rowsPerTable);
+            try (Instance instance = start("prepare", command("jar", false))) {
+                instance.awaitReady();
+                prepareData(instance.baseUrl);
+            }
+
+            Map<String, Object> results = new LinkedHashMap<>();
+            for (String variant : variants) {
+                List<String> unavailable = unavailable(variant);
+                if (!unavailable.isEmpty()) {
+                    System.out.printf("Вариант %s пропущен: нет %s%n", variant, String.join(", ", unavailable));
+                    continue;
+                }
+                for (String warmup : warmupModes) {
+                    String name = variant + (Boolean.parseBoolean(warmup) ? "+warmup" : "");
+                    results.put(name, measure(name, command(variant, Boolean.parseBoolean(warmup))));
+                }
+            }
+
+            report(results);
+        } finally {
+            if (embeddedPostgres != null) {
+                embeddedPostgres.close();
+            }
+        }
+    }
+
+    private Map<String, Object> measure(String name, List<String> command) throws Exception {
+        Map<String, List<Double>> samples = new LinkedHashMap<>();
+        for (String metric : METRICS) {
+            samples.put(metric, new ArrayList<>());
+        }
+
+        for (int run = 1; run <= runs; run++) {
+            try (Instance instance = start(name + "-" + run, command)) {
+                instance.awaitReady();
+                samples.get("readyMillis").add(instance.elapsedMillis());
+
+                long start = System.nanoTime();
+                expectOk(get(instance.baseUrl, "/api/v1/dynamic-tables/data/" + probeTable + "?page=0&size=20"));
+                samples.get("firstListLatencyMillis").add((System.nanoTime() - start) / 1e6);
+                samples.get("firstListMillis").add(instance.elapsedMillis());
+
+                start = System.nanoTime();
+                expectOk(get(instance.baseUrl, "/api/v1/dynamic-tables/data/" + probeTable + "/" + probeId));
+                samples.get("firstGetLatencyMillis").add((System.nanoTime() - start) / 1e6);
+            }
+            System.out.printf("%-16s запуск %d: готов за %.0f мс, первый список за %.0f мс%n", name, run,
+                    last(samples.get("readyMillis")), last(samples.get("firstListMillis")));
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("command", String.join(" ", command));
+        samples.forEach((metric, values) -> result.put(metric, summary(values)));
+        return result;
+    }
+
+    private List<String> command(String variant, boolean warmup) {
+        List<String> command = new ArrayList<>();
+        command.add(new File(System.getProperty("java.home"), "bin/java").getPath());
+        if (variant.contains("cds")) {
+            command.add("-XX:SharedArchiveFile=" + new File(startupDirectory, "flexdb.jsa").getPath());
+        }
+        if (variant.startsWith("aot")) {
+            command.add("-Dspring.aot.enabled=true");
+        }
+        command.add("-jar");
+        command.add("jar".equals(variant) ? executableJar().getPath() : new File(startupDirectory, executableJar().getName()).getPath());
+        command.add("--spring.jpa.show-sql=false");
+        command.add("--logging.level.com.example.flexdb=WARN");
+        command.add("--flexdb.warmup.enabled=" + warmup);
+        command.addAll(databaseArgs);
+        command.addAll(appArgs);
+        return command;
+    }
+
+    private List<String> unavailable(String variant) throws IOException {
+        List<String> missing = new ArrayList<>();
+        File extracted = new File(startupDirectory, executableJar().getName());
+        if (!"jar".equals(variant) && !extracted.isFile()) {
+            missing.add(extracted.getPath() + " (./mvnw -Pstartup package)");
+        }
+        if (variant.contains("cds") && !new File(startupDirectory, "flexdb.jsa").isFile()) {
+            missing.add("AppCDS-архива");
+        }
+        if (variant.startsWith("aot") && extracted.isFile()) {
+            try (JarFile jar = new JarFile(extracted)) {
+                if (jar.getEntry(AOT_INITIALIZER) == null) {
+                    missing.add("AOT-классов в " + extracted.getPath());
+                }
+            }
+        }
+        return missing;
+    }
+
+    private File executableJar() {
+        File[] jars = target.listFiles((dir, name) -> name.startsWith("flexdb-") && name.endsWith(".jar"));
+        if (jars == null || jars.length == 0) {
+            throw new IllegalStateException("Не найден исполняемый jar в target: сначала ./mvnw package");
+        }
+        return jars[0];
+    }
+
+    private void prepareData(String baseUrl) throws Exception {
+        long suffix = System.currentTimeMillis();
+        for (int t = 0; t < tableCount; t++) {
+            String tableName = "sb_" + suffix + "_" + t;
+            Map<String, Object> request = Map.of(
+                    "tableName", tableName,
+                    "userFriendlyName", "Бенчмарк старта",
+                    "columns", List.of(
+                            Map.of("name", "full_name", "type", "TEXT", "isNullable", true),
+                            Map.of("name", "amount_value", "type", "BIGINT", "isNullable", true)
+                    )
+            );
+            expectStatus(send(baseUrl, "POST", "/api/v1/dynamic-tables/schemas", request), 201);
+
+            for (int i = 0; i < rowsPerTable; i++) {
+                HttpResponse<String> response = send(baseUrl, "POST", "/api/v1/dynamic-tables/data/" + tableName,
+                        Map.of("full_name", "row " + i, "amount_value", i));
+                expectStatus(response, 201);
+                if (t == 0 && i == 0) {
+                    probeId = ((Number) objectMapper.readValue(response.body(), Map.class).get("id")).longValue();
+                }
+            }
+        }
+        probeTable = "sb_" + suffix + "_0";
+    }
+
+    private Instance start(String name, List<String> command) throws IOException {
+        int port = freePort();
+        List<String> withPort = new ArrayList<>(command);
+        withPort.add("--server.port=" + port);
+
+        File log = new File(logDirectory, name + ".log");
+        long startNanos = System.nanoTime();
+        Process process = new ProcessBuilder(withPort)
+                .redirectErrorStream(true)
+                .redirectOutput(log)
+                .start();
+        return new Instance(process, "http://localhost:" + port, log, startNanos);
+    }
+
+    private HttpResponse<String> get(String baseUrl, String path) throws Exception {
+        return send(baseUrl, "GET", path, null);
+    }
+
+    private HttpResponse<String> send(String baseUrl, String method, String path, Object body) throws Exception {
+        HttpRequest.BodyPublisher publisher = body != null
+                ? HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body))
+                : HttpRequest.BodyPublishers.noBody();
+        HttpRequest request = HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .method(method, publisher)
+                .build();
+        return httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static void expectOk(HttpResponse<String> response) {
+        expectStatus(response, 200);
+    }
+
+    private static void expectStatus(HttpResponse<String> response, int status) {
+        if (response.statusCode() != status) {
+            throw new IllegalStateException("Неожиданный ответ " + response.statusCode() + " на "
+                    + response.request().uri() + ": " + response.body());
+        }
+    }
+
+    private void report(Map<String, Object> results) throws Exception {
+        System.out.printf("%n%-16s %12s %16s %14s %13s%n", "variant", "ready ms", "first list ms", "list lat ms", "get lat ms");
+        results.forEach((name, value) -> {
+            Map<?, ?> result = (Map<?, ?>) value;
+            System.out.printf("%-16s %12.0f %16.0f %14.1f %13.1f%n", name,
+                    median(result, "readyMillis"), median(result, "firstListMillis"),
+                    median(result, "firstListLatencyMillis"), median(result, "firstGetLatencyMillis"));
+        });
+
+        Map<String, Object> json = new LinkedHashMap<>();
+        json.put("runs", runs);
+        json.put("tables", tableCount);
+        json.put("rowsPerTable", rowsPerTable);
+        json.put("javaVersion", System.getProperty("java.version"));
+        json.put("variants", results);
+
+        File file = new File(output);
+        if (file.getParentFile() != null) {
+            file.getParentFile().mkdirs();
+        }
+        objectMapper.writeValue(file, json);
+        System.out.println("\nРезультаты сохранены в " + file.getPath());
+    }
+
+    private static Map<String, Object> summary(List<Double> values) {
+        List<Double> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("median", sorted.get(sorted.size() / 2));
+        summary.put("min", sorted.get(0));
+        summary.put("max", sorted.get(sorted.size() - 1));
+        summary.put("samples", values);
+        return summary;
+    }
+
+    private static double median(Map<?, ?> result, String metric) {
+        return ((Number) ((Map<?, ?>) result.get(metric)).get("median")).doubleValue();
+    }
+
+    private static double last(List<Double> values) {
+        return values.get(values.size() - 1);
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    private static List<String> split(String value) {
+        return split(value, ",");
+    }
+
+    private static List<String> split(String value, String separator) {
+        return Arrays.stream(value.split(separator))
+                .map(String::trim)
+                .filter(part -> !part.isEmpty())
+                .toList();
+    }
+
+    /**
+     * Запущенный процесс приложения; close() останавливает его (SIGTERM, затем принудительно).
+     */
+    private final class Instance implements AutoCloseable {
+
+        private final Process process;
+        private final String baseUrl;
+        private final File log;
+        private final long startNanos;
+
+        private Instance(Process process, String baseUrl, File log, long startNanos) {
+            this.process = process;
+            this.baseUrl = baseUrl;
+            this.log = log;
+            this.startNanos = startNanos;
+        }
+
+        /**
+         * Ждёт, пока /actuator/health/readiness ответит 200: при включённом прогреве — после его окончания.
+         */
+        void awaitReady() throws Exception {
+            long deadline = startNanos + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+            while (System.nanoTime() < deadline) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Приложение завершилось с кодом " + process.exitValue() + ", лог: " + log);
+                }
+                try {
+                    if (get(baseUrl, "/actuator/health/readiness").statusCode() == 200) {
+                        return;
+                    }
+                } catch (IOException e) {
+                    // Порт ещё не открыт
+                }
+                Thread.sleep(20);
+            }
+            throw new IllegalStateException("Приложение не стало готовым за " + timeoutSeconds + " с, лог: " + log);
+        }
+
+        double elapsedMillis() {
+            return (System.nanoTime() - startNanos) / 1e6;
+        }
+
+        @Override
+        public void close() throws InterruptedException {
+            process.destroy();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                process.destroyForcibly().waitFor();
+            }
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.flexdb.loadtest;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Счётчики JDBC-выражений по типу запроса нагрузочного теста.
+ * Тип запроса выставляется фильтром из заголовка {@link #OPERATION_HEADER} в ThreadLocal.
+ */
+final class StatementCounters {
+
+    static final String OPERATION_HEADER = "X-Loadtest-Op";
+    static final String UNLABELED = "unlabeled";
+
+    private static final ThreadLocal<String> CURRENT_OPERATION = new ThreadLocal<>();
+    private static final Map<String, LongAdder> COUNTERS = new ConcurrentHashMap<>();
+
+    private StatementCounters() {
+    }
+
+    static void setOperation(String operation) {
+        CURRENT_OPERATION.set(operation);
+    }
+
+    static void clearOperation() {
+        CURRENT_OPERATION.remove();
+    }
+
+    static void increment() {
+        String operation = CURRENT_OPERATION.get();
+        COUNTERS.computeIfAbsent(operation != null ? operation : UNLABELED, k -> new LongAdder()).increment();
+    }
+
+    static void reset() {
+        COUNTERS.clear();
+    }
+
+    static Map<String, Long> snapshot() {
+        Map<String, Long> result = new TreeMap<>();
+        COUNTERS.forEach((operation, counter) -> result.put(operation, counter.sum()));
+        return result;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.flexdb.loadtest;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Подсчёт JDBC-выражений на сервере при запуске приложения внутри нагрузочного теста.
+ * Класс без @Configuration, чтобы не попадать в component scan — регистрируется явно в {@link LoadTestRunner}.
+ */
+class StatementCountingConfiguration {
+
+    @Bean
+    static BeanPostProcessor statementCountingDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof CountingDataSource)) {
+                    return new CountingDataSource(dataSource);
+                }
+                return bean;
+            }
+        };
+    }
+
+    @Bean
+    FilterRegistrationBean<Filter> loadTestOperationFilter() {
+        Filter filter = (request, response, chain) -> {
+            String operation = ((HttpServletRequest) request).getHeader(StatementCounters.OPERATION_HEADER);
+            StatementCounters.setOperation(operation);
+            try {
+                chain.doFilter(request, response);
+            } finally {
+                StatementCounters.clearOperation();
+            }
+        };
+        FilterRegistrationBean<Filter> registration = new FilterRegistrationBean<>(filter);
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE);
+        return registration;
+    }
+
+    /**
+     * DataSource, который оборачивает соединения и считает вызовы execute* у Statement/PreparedStatement.
+     * DelegatingDataSource корректно отдаёт исходный HikariDataSource через unwrap (нужно метрикам пула).
+     */
+    static class CountingDataSource extends DelegatingDataSource {
+
+        CountingDataSource(DataSource target) {
+            super(target);
+        }
+
+        @Override
+        public Connection getConnection() throws SQLException {
+            return wrapConnection(super.getConnection());
+        }
+
+        @Override
+        public Connection getConnection(String username, String password) throws SQLException {
+            return wrapConnection(super.getConnection(username, password));
+        }
+
+        private static Connection wrapConnection(Connection connection) {
+            return (Connection) Proxy.newProxyInstance(
+                    CountingDataSource.class.getClassLoader(),
+                    new Class<?>[]{Connection.class},
+                    (proxy, method, args) -> {
+                        Object result = invoke(connection, method, args);
+                        if (result instanceof Statement statement) {
+                            return wrapStatement(statement);
+                        }
+                        return result;
+                    });
+        }
+
+        private static Statement wrapStatement(Statement statement) {
+            return (Statement) Proxy.newProxyInstance(
+                    CountingDataSource.class.getClassLoader(),
+                    statementInterfaces(statement),
+                    (proxy, method, args) -> {
+                        if (method.getName().startsWith("execute")) {
+                            StatementCounters.increment();
+                        }
+                        return invoke(statement, method, args);
+                    });
+        }
+
+        private static Class<?>[] statementInterfaces(Statement statement) {
+            if (statement instanceof CallableStatement) {
+                return new Class<?>[]{CallableStatement.class};
+            }
+            if (statement instanceof PreparedStatement) {
+                return new Class<?>[]{PreparedStatement.class};
+            }
+            return new Class<?>[]{Statement.class};
+        }
+
+        private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
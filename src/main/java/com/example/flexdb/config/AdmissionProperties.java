@@ -0,0 +1,67 @@
+package com.example.flexdb.config;
+
+import com.example.flexdb.enums.OperationClass;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@ConfigurationProperties(prefix = "flexdb.admission")
+public class AdmissionProperties {
+
+    /**
+     * Включает ограничение частоты и параллельности запросов по таблицам.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Лимиты каждой таблицы по классам операций (point, bulk), если для таблицы не задано своих.
+     */
+    private Map<OperationClass, Limit> defaults = new EnumMap<>(OperationClass.class);
+
+    /**
+     * Лимиты отдельных таблиц: flexdb.admission.tables.{table}.{point|bulk}.rate и т.д.
+     */
+    private Map<String, Map<OperationClass, Limit>> tables = new HashMap<>();
+
+    /**
+     * Сколько запросов (всех таблиц) может выполняться одновременно, прежде чем BULK-запросы начнут отклоняться;
+     * POINT-запросы при этом продолжают проходить. 0 — не сбрасывать нагрузку.
+     */
+    private int shedBulkAboveInFlight = 0;
+
+    /**
+     * Сколько таблиц получают собственные счётчики; запросы к остальным делят общий лимит.
+     * Таблицы с собственными лимитами ({@code tables} или админ-эндпоинт) отслеживаются всегда и сверх этого числа.
+     */
+    private int maxTrackedTables = 1000;
+
+    /**
+     * Через сколько простоя счётчик таблицы удаляется (и как часто это проверяется); освобождает место
+     * для других таблиц в пределах maxTrackedTables.
+     */
+    private Duration idleEvictAfter = Duration.ofMinutes(10);
+
+    @Data
+    public static class Limit {
+
+        /**
+         * Запросов в секунду (скорость пополнения корзины токенов); 0 — без ограничения.
+         */
+        private double rate;
+
+        /**
+         * Ёмкость корзины — допустимый всплеск; 0 — равна rate (не меньше 1).
+         */
+        private int burst;
+
+        /**
+         * Одновременно выполняемых запросов; 0 — без ограничения.
+         */
+        private int maxInFlight;
+    }
+}
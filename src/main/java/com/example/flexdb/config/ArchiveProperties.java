@@ -0,0 +1,41 @@
+package com.example.flexdb.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "flexdb.archive")
+public class ArchiveProperties {
+
+    /**
+     * Включает фоновый перенос старых строк в архив.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Каталог сегментов архива.
+     */
+    private String directory = "data/archive";
+
+    /**
+     * Пауза между проходами архивации.
+     */
+    private Duration interval = Duration.ofMinutes(5);
+
+    /**
+     * Строк в одном сегменте; сегмент пишется и удаляется из таблицы в одной транзакции.
+     */
+    private int segmentRows = 10_000;
+
+    /**
+     * Максимум сегментов на таблицу за один проход.
+     */
+    private int maxSegmentsPerRun = 10;
+
+    /**
+     * Сколько открытых (отображённых в память) сегментов держать с распакованными колонками.
+     */
+    private int cachedSegments = 8;
+}
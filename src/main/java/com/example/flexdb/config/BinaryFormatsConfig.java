@@ -0,0 +1,39 @@
+package com.example.flexdb.config;
+
+import com.example.flexdb.web.ArrowHttpMessageConverter;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+
+/**
+ * Компактные бинарные форматы ответа (CBOR, Smile и Arrow) в дополнение к JSON.
+ * Формат выбирается клиентом через заголовок Accept:
+ * application/cbor, application/x-jackson-smile или application/vnd.apache.arrow.stream.
+ * <p>
+ * Конвертеры CBOR и Smile строятся на общем Jackson2ObjectMapperBuilder,
+ * поэтому модули и настройки сериализации совпадают с JSON.
+ * Arrow пишет только типизированные строки ({@link com.example.flexdb.dto.TypedRows}): схема потока
+ * строится по типам колонок таблицы, а не по значениям.
+ */
+@Configuration
+public class BinaryFormatsConfig {
+
+    @Bean
+    public MappingJackson2CborHttpMessageConverter cborHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2CborHttpMessageConverter(builder.factory(new CBORFactory()).build());
+    }
+
+    @Bean
+    public MappingJackson2SmileHttpMessageConverter smileHttpMessageConverter(Jackson2ObjectMapperBuilder builder) {
+        return new MappingJackson2SmileHttpMessageConverter(builder.factory(new SmileFactory()).build());
+    }
+
+    @Bean
+    public ArrowHttpMessageConverter arrowHttpMessageConverter() {
+        return new ArrowHttpMessageConverter();
+    }
+}
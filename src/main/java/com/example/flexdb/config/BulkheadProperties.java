@@ -0,0 +1,31 @@
+package com.example.flexdb.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "flexdb.bulkhead")
+public class BulkheadProperties {
+
+    /**
+     * Включает ограничение параллельных операций по классам (POINT/BULK).
+     */
+    private boolean enabled = false;
+
+    /**
+     * Доля пула Hikari, доступная точечным операциям.
+     */
+    private double pointShare = 1.0;
+
+    /**
+     * Доля пула Hikari, доступная спискам, пакетам и DDL. Меньше 1, чтобы они не занимали весь пул.
+     */
+    private double bulkShare = 0.4;
+
+    /**
+     * Сколько запрос может ждать разрешения, прежде чем получить 503.
+     */
+    private Duration maxWait = Duration.ofMillis(500);
+}
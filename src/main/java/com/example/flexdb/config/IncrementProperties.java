@@ -0,0 +1,31 @@
+package com.example.flexdb.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "flexdb.increment")
+public class IncrementProperties {
+
+    /**
+     * Объединять одновременные инкременты одной строки в памяти и записывать их одним UPDATE.
+     */
+    private boolean coalesce = false;
+
+    /**
+     * Окно накопления инкрементов одной строки перед записью.
+     */
+    private Duration window = Duration.ofMillis(5);
+
+    /**
+     * Потоки, выполняющие накопленные UPDATE.
+     */
+    private int flushThreads = 2;
+
+    /**
+     * Сколько запрос ждёт записи своего инкремента.
+     */
+    private Duration maxWait = Duration.ofSeconds(5);
+}
@@ -0,0 +1,31 @@
+package com.example.flexdb.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "flexdb.memory")
+public class MemoryTableProperties {
+
+    /**
+     * Максимум строк в одной таблице в памяти; вставка сверх лимита отклоняется.
+     */
+    private int maxRowsPerTable = 1_000_000;
+
+    /**
+     * Сохранять таблицы в памяти на диск (периодически и при остановке) и поднимать их при первом обращении.
+     */
+    private boolean snapshotEnabled = false;
+
+    /**
+     * Каталог снимков таблиц в памяти.
+     */
+    private String snapshotDirectory = "data/memory";
+
+    /**
+     * Пауза между снимками изменившихся таблиц.
+     */
+    private Duration snapshotInterval = Duration.ofMinutes(1);
+}
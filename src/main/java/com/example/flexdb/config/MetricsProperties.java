@@ -0,0 +1,15 @@
+package com.example.flexdb.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "flexdb.metrics")
+public class MetricsProperties {
+
+    /**
+     * Сколько разных таблиц получают собственный тег table.
+     * Остальные таблицы попадают в общий тег, чтобы число метрик оставалось ограниченным.
+     */
+    private int maxTableTags = 50;
+}
@@ -0,0 +1,27 @@
+package com.example.flexdb.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "flexdb.page-cache")
+public class PageCacheProperties {
+
+    /**
+     * Кэшировать страницы списка записей.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Оценочный объём кэша; при превышении вытесняются редко используемые страницы.
+     */
+    private DataSize maxSize = DataSize.ofMegabytes(64);
+
+    /**
+     * Страница живёт не дольше этого времени — на случай записи в таблицу в обход приложения.
+     */
+    private Duration expireAfterWrite = Duration.ofMinutes(10);
+}
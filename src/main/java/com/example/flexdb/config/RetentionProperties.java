@@ -0,0 +1,41 @@
+package com.example.flexdb.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "flexdb.retention")
+public class RetentionProperties {
+
+    /**
+     * Включает фоновую очистку просроченных строк.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Пауза между проходами очистки.
+     */
+    private Duration interval = Duration.ofMinutes(1);
+
+    /**
+     * Сколько строк удаляется одним DELETE. Небольшие порции держат блокировки и WAL под контролем.
+     */
+    private int chunkSize = 1000;
+
+    /**
+     * Пауза между порциями, чтобы очистка не вытесняла рабочую нагрузку.
+     */
+    private Duration chunkPause = Duration.ofMillis(50);
+
+    /**
+     * Максимум порций на таблицу за один проход; остаток удаляется в следующих проходах.
+     */
+    private int maxChunksPerRun = 100;
+
+    /**
+     * Верхняя граница подсчёта оставшихся просроченных строк.
+     */
+    private int backlogCountLimit = 100_000;
+}
@@ -0,0 +1,27 @@
+package com.example.flexdb.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+
+    /**
+     * Очистка по политикам хранения, архивация и снимки таблиц в памяти идут в отдельных потоках:
+     * долгий проход одной задачи не задерживает остальные. Планировщик по умолчанию однопоточный.
+     */
+    private static final int SCHEDULED_JOBS = 3;
+
+    @Bean
+    public ThreadPoolTaskScheduler taskScheduler() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setPoolSize(SCHEDULED_JOBS);
+        scheduler.setThreadNamePrefix("flexdb-scheduled-");
+        scheduler.setWaitForTasksToCompleteOnShutdown(true);
+        scheduler.setAwaitTerminationSeconds(30);
+        return scheduler;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.flexdb.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@Data
+@ConfigurationProperties(prefix = "flexdb.slow-query")
+public class SlowQueryProperties {
+
+    /**
+     * Включает учёт SQL-запросов к динамическим таблицам.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Запросы дольше порога попадают в журнал медленных запросов.
+     */
+    private Duration threshold = Duration.ofMillis(200);
+
+    /**
+     * Размер кольцевого буфера последних медленных запросов.
+     */
+    private int bufferSize = 200;
+
+    /**
+     * Сколько разных форм SQL агрегируется. Новые формы сверх лимита не учитываются.
+     */
+    private int maxStatements = 500;
+
+    /**
+     * Снимать план медленного запроса в фоне: EXPLAIN (ANALYZE, BUFFERS) для SELECT, EXPLAIN для DML.
+     */
+    private boolean explain = false;
+
+    /**
+     * План одной формы SQL снимается не чаще, чем раз в этот интервал.
+     */
+    private Duration explainInterval = Duration.ofMinutes(5);
+
+    /**
+     * Ограничение времени выполнения EXPLAIN.
+     */
+    private Duration explainTimeout = Duration.ofSeconds(10);
+
+    /**
+     * Очередь ожидающих EXPLAIN; при переполнении новые задачи отбрасываются.
+     */
+    private int explainQueueCapacity = 16;
+}
@@ -0,0 +1,25 @@
+package com.example.flexdb.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Data
+@ConfigurationProperties(prefix = "flexdb.warmup")
+public class WarmupProperties {
+
+    /**
+     * Прогрев при старте: до готовности (readiness) загрузить определения таблиц и выполнить типовые запросы.
+     */
+    private boolean enabled = false;
+
+    /**
+     * Сколько первых (по порядку создания) таблиц прогревать первыми запросами.
+     * Остальные таблицы при старте не читаются.
+     */
+    private int maxTables = 200;
+
+    /**
+     * Размер прогреваемой первой страницы списка.
+     */
+    private int pageSize = 20;
+}
@@ -0,0 +1,34 @@
+package com.example.flexdb.config;
+
+import com.example.flexdb.web.AdmissionControl;
+import com.example.flexdb.web.AdmissionInterceptor;
+import com.example.flexdb.web.BulkheadInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+@Configuration
+@RequiredArgsConstructor
+public class WebConfig implements WebMvcConfigurer {
+
+    private final BulkheadProperties bulkheadProperties;
+    private final DataSource dataSource;
+    private final MeterRegistry meterRegistry;
+    private final AdmissionProperties admissionProperties;
+    private final AdmissionControl admissionControl;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        // Допуск раньше bulkhead: отклонённый запрос не ждёт семафор соединений
+        if (admissionProperties.isEnabled()) {
+            registry.addInterceptor(new AdmissionInterceptor(admissionControl));
+        }
+        if (bulkheadProperties.isEnabled()) {
+            registry.addInterceptor(new BulkheadInterceptor(bulkheadProperties, dataSource, meterRegistry));
+        }
+    }
+}
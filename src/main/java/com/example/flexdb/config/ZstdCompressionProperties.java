@@ -0,0 +1,39 @@
+package com.example.flexdb.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import java.util.List;
+
+@Data
+@ConfigurationProperties(prefix = "flexdb.compression.zstd")
+public class ZstdCompressionProperties {
+
+    /**
+     * Сжимать ответы zstd, если клиент указал zstd в Accept-Encoding; остальным ответы сжимает gzip контейнера.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Уровень сжатия zstd (1–19); 3 — уровень zstd по умолчанию.
+     */
+    private int level = 3;
+
+    /**
+     * Типы содержимого, которые сжимаются.
+     */
+    private List<String> mimeTypes = List.of(
+            "application/json",
+            "application/x-ndjson",
+            "application/cbor",
+            "application/cbor-seq",
+            "application/x-jackson-smile",
+            "application/vnd.apache.arrow.stream"
+    );
+
+    /**
+     * Ответы с известной длиной меньше порога не сжимаются; потоковая выгрузка длины не знает и сжимается всегда.
+     */
+    private DataSize minResponseSize = DataSize.ofKilobytes(2);
+}
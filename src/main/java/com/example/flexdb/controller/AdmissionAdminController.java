@@ -0,0 +1,43 @@
+package com.example.flexdb.controller;
+
+import com.example.flexdb.dto.AdmissionLimitsRequest;
+import com.example.flexdb.dto.AdmissionReport;
+import com.example.flexdb.web.AdmissionControl;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/admin/admission")
+@RequiredArgsConstructor
+public class AdmissionAdminController {
+
+    private final AdmissionControl admissionControl;
+
+    @GetMapping
+    public ResponseEntity<AdmissionReport> getAdmission() {
+        return ResponseEntity.ok(admissionControl.report());
+    }
+
+    @PutMapping("/defaults")
+    public ResponseEntity<AdmissionReport> updateDefaults(@Valid @RequestBody AdmissionLimitsRequest request) {
+        admissionControl.updateDefaults(request);
+        return ResponseEntity.ok(admissionControl.report());
+    }
+
+    @PutMapping("/tables/{tableName}")
+    public ResponseEntity<AdmissionReport> updateTableLimits(
+            @PathVariable String tableName,
+            @Valid @RequestBody AdmissionLimitsRequest request
+    ) {
+        admissionControl.updateTableLimits(tableName, request);
+        return ResponseEntity.ok(admissionControl.report());
+    }
+
+    @DeleteMapping("/tables/{tableName}")
+    public ResponseEntity<Void> resetTableLimits(@PathVariable String tableName) {
+        admissionControl.resetTableLimits(tableName);
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.flexdb.controller;
+
+import com.example.flexdb.dto.ArchivePolicyDto;
+import com.example.flexdb.dto.ArchivePolicyRequest;
+import com.example.flexdb.enums.OperationClass;
+import com.example.flexdb.service.ArchiveService;
+import com.example.flexdb.web.OperationClassification;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/dynamic-tables/{tableName}/archive")
+@RequiredArgsConstructor
+public class ArchiveController {
+
+    private final ArchiveService archiveService;
+
+    @PutMapping
+    @OperationClassification(OperationClass.BULK)
+    public ResponseEntity<ArchivePolicyDto> setPolicy(@PathVariable String tableName,
+                                                      @Valid @RequestBody ArchivePolicyRequest request) {
+        return ResponseEntity.ok(archiveService.setPolicy(tableName, request));
+    }
+
+    @GetMapping
+    @OperationClassification(OperationClass.POINT)
+    public ResponseEntity<ArchivePolicyDto> getPolicy(@PathVariable String tableName) {
+        return ResponseEntity.ok(archiveService.getPolicy(tableName));
+    }
+
+    @DeleteMapping
+    @OperationClassification(OperationClass.BULK)
+    public ResponseEntity<Void> deletePolicy(@PathVariable String tableName) {
+        archiveService.deletePolicy(tableName);
+        return ResponseEntity.noContent().build();
+    }
+
+    @PostMapping("/_run")
+    @OperationClassification(OperationClass.BULK)
+    public ResponseEntity<ArchivePolicyDto> archiveNow(@PathVariable String tableName) {
+        return ResponseEntity.ok(archiveService.archiveNow(tableName));
+    }
+}
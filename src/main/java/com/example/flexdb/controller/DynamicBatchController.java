@@ -0,0 +1,25 @@
+package com.example.flexdb.controller;
+
+import com.example.flexdb.dto.BatchRequest;
+import com.example.flexdb.dto.BatchResponse;
+import com.example.flexdb.enums.OperationClass;
+import com.example.flexdb.service.DynamicBatchService;
+import com.example.flexdb.web.OperationClassification;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/dynamic-tables")
+@RequiredArgsConstructor
+public class DynamicBatchController {
+
+    private final DynamicBatchService dynamicBatchService;
+
+    @PostMapping("/_batch")
+    @OperationClassification(OperationClass.BULK)
+    public ResponseEntity<BatchResponse> executeBatch(@Valid @RequestBody BatchRequest request) {
+        return ResponseEntity.ok(dynamicBatchService.executeBatch(request));
+    }
+}
@@ -2,49 +2,242 @@ package com.example.flexdb.controller;
 
 
 import com.example.flexdb.dto.PaginatedResponse;
+import com.example.flexdb.dto.TypedRows;
+import com.example.flexdb.enums.OperationClass;
+import com.example.flexdb.enums.SupportedColumnType;
 import com.example.flexdb.service.DynamicDataService;
+import com.example.flexdb.web.ArrowIpcWriter;
+import com.example.flexdb.web.OperationClassification;
+import com.example.flexdb.web.ResponseFormat;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.cbor.MappingJackson2CborHttpMessageConverter;
+import org.springframework.http.converter.smile.MappingJackson2SmileHttpMessageConverter;
+import org.springframework.web.HttpMediaTypeNotAcceptableException;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
 @RequestMapping("/api/v1/dynamic-tables/data")
 @RequiredArgsConstructor
+@Slf4j
 public class DynamicDataController {
 
+    private static final int ARROW_BATCH_ROWS = 1000;
+    private static final String EXPORT_ABORTED = "Выгрузка прервана: внутренняя ошибка сервера";
+
     private final DynamicDataService dynamicDataService;
+    private final ObjectMapper objectMapper;
+    private final MappingJackson2CborHttpMessageConverter cborConverter;
+    private final MappingJackson2SmileHttpMessageConverter smileConverter;
 
     @PostMapping("/{tableName}")
+    @OperationClassification(OperationClass.POINT)
     public ResponseEntity<Map<String, Object>> insertRow(@PathVariable String tableName,
                                                          @RequestBody Map<String, Object> rowData) {
         Map<String, Object> createdRow = dynamicDataService.insertRow(tableName, rowData);
         return ResponseEntity.status(HttpStatus.CREATED).body(createdRow);
     }
 
+    /**
+     * Страница строк. В Arrow (Accept: application/vnd.apache.arrow.stream) схема строится по типам колонок,
+     * а сведения о странице передаются в метаданных схемы с префиксом flexdb.
+     */
     @GetMapping("/{tableName}")
-    public ResponseEntity<PaginatedResponse> getTableData(
+    @OperationClassification(OperationClass.BULK)
+    public ResponseEntity<?> getTableData(
             @PathVariable String tableName,
             @RequestParam(defaultValue = "0") int page,
-            @RequestParam(defaultValue = "20") int size
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) List<String> fields,
+            @RequestParam(defaultValue = "false") boolean includeArchived,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept
     ) {
-        PaginatedResponse response = dynamicDataService.getPaginatedData(tableName, page, size);
-        return ResponseEntity.ok(response);
+        PaginatedResponse response = dynamicDataService.getPaginatedData(tableName, page, size, fields, includeArchived);
+        if (ResponseFormat.negotiate(accept) != ResponseFormat.ARROW) {
+            return ResponseEntity.ok(response);
+        }
+
+        Map<String, String> metadata = new LinkedHashMap<>();
+        metadata.put("flexdb.pageNumber", String.valueOf(response.getPageable().getPageNumber()));
+        metadata.put("flexdb.pageSize", String.valueOf(response.getPageable().getPageSize()));
+        metadata.put("flexdb.totalPages", String.valueOf(response.getTotalPages()));
+        metadata.put("flexdb.totalElements", String.valueOf(response.getTotalElements()));
+        metadata.put("flexdb.first", String.valueOf(response.isFirst()));
+        metadata.put("flexdb.last", String.valueOf(response.isLast()));
+        TypedRows rows = new TypedRows(dynamicDataService.describeColumns(tableName, fields), response.getContent(), metadata);
+        return ResponseEntity.ok().contentType(ArrowIpcWriter.ARROW_STREAM).body(rows);
+    }
+
+
+    /**
+     * Выгрузка всех строк потоком; строки пишутся в ответ по мере чтения курсора.
+     * Формат по Accept: NDJSON (по умолчанию), последовательность CBOR, Smile или Arrow IPC пачками по 1000 строк.
+     */
+    @GetMapping("/{tableName}/export")
+    @OperationClassification(OperationClass.BULK)
+    public void exportRows(
+            @PathVariable String tableName,
+            @RequestParam(required = false) List<String> fields,
+            @RequestParam(defaultValue = "true") boolean includeArchived,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+            HttpServletResponse response
+    ) throws IOException, HttpMediaTypeNotAcceptableException {
+        ResponseFormat format = ResponseFormat.negotiate(accept);
+        if (format == null) {
+            throw new HttpMediaTypeNotAcceptableException(ResponseFormat.streamContentTypes());
+        }
+        if (format == ResponseFormat.ARROW) {
+            exportArrow(tableName, fields, includeArchived, response);
+            return;
+        }
+
+        ObjectMapper mapper = switch (format) {
+            case CBOR -> cborConverter.getObjectMapper();
+            case SMILE -> smileConverter.getObjectMapper();
+            default -> objectMapper;
+        };
+        boolean ndjson = format == ResponseFormat.JSON;
+        String contentType = format.streamContentType().toString();
+
+        // Тип ответа ставится с первой строкой, а writer не закрывается при ошибке:
+        // 404/400 до начала выгрузки уходит обычной ошибкой через GlobalExceptionHandler
+        ServletOutputStream out = response.getOutputStream();
+        SequenceWriter writer = mapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .withRootValueSeparator(ndjson ? "\n" : null)
+                .writeValues(out);
+        boolean[] clientGone = {false};
+        try {
+            dynamicDataService.exportRows(tableName, fields, includeArchived, row -> {
+                try {
+                    if (response.getContentType() == null) {
+                        response.setContentType(contentType);
+                    }
+                    writer.write(row);
+                } catch (IOException e) {
+                    clientGone[0] = true;
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (RuntimeException e) {
+            if (!response.isCommitted()) {
+                // Строки ещё в буфере — клиент получит обычную ошибку вместо неполной выгрузки
+                response.reset();
+                throw e;
+            }
+            if (clientGone[0]) {
+                log.warn("Выгрузка таблицы '{}' прервана: клиент отключился", tableName);
+                return;
+            }
+            abortExport(tableName, writer, out, ndjson, e);
+            return;
+        }
+        response.setContentType(contentType);
+        writer.flush();
+        if (ndjson) {
+            out.write('\n');
+        }
+        writer.close();
+    }
+
+    /**
+     * Ошибка после отправки начала ответа: статус 200 уже ушёл клиенту, поэтому выгрузка завершается
+     * записью {@code {"error": ...}}. Имя без подчёркивания не может быть колонкой, так что клиент отличает
+     * её от строки данных; выгрузка без такой записи в конце — полная.
+     */
+    private void abortExport(String tableName, SequenceWriter writer, ServletOutputStream out, boolean ndjson,
+                             RuntimeException cause) throws IOException {
+        log.error("❌ Выгрузка таблицы '{}' прервана после начала ответа", tableName, cause);
+        writer.write(Map.of("error", EXPORT_ABORTED));
+        writer.flush();
+        if (ndjson) {
+            out.write('\n');
+        }
+        writer.close();
+    }
+
+    /**
+     * Выгрузка в Arrow IPC: схема по типам колонок (404/400 — до начала ответа), затем пачки строк.
+     * Ошибка после начала ответа — пустая пачка с сообщением в метаданных {@value ArrowIpcWriter#ERROR_METADATA_KEY}.
+     */
+    private void exportArrow(String tableName, List<String> fields, boolean includeArchived,
+                             HttpServletResponse response) throws IOException {
+        Map<String, SupportedColumnType> columns = dynamicDataService.describeColumns(tableName, fields);
+
+        response.setContentType(ArrowIpcWriter.ARROW_STREAM.toString());
+        ServletOutputStream out = response.getOutputStream();
+        ArrowIpcWriter writer = new ArrowIpcWriter(out, columns);
+        writer.writeSchema(Map.of());
+
+        List<Map<String, Object>> batch = new ArrayList<>(ARROW_BATCH_ROWS);
+        boolean[] clientGone = {false};
+        try {
+            dynamicDataService.exportRows(tableName, fields, includeArchived, row -> {
+                batch.add(row);
+                if (batch.size() == ARROW_BATCH_ROWS) {
+                    try {
+                        writer.writeBatch(batch);
+                    } catch (IOException e) {
+                        clientGone[0] = true;
+                        throw new UncheckedIOException(e);
+                    }
+                    batch.clear();
+                }
+            });
+            if (!batch.isEmpty()) {
+                writer.writeBatch(batch);
+            }
+        } catch (RuntimeException e) {
+            if (!response.isCommitted()) {
+                response.reset();
+                throw e;
+            }
+            if (clientGone[0]) {
+                log.warn("Выгрузка таблицы '{}' прервана: клиент отключился", tableName);
+                return;
+            }
+            log.error("❌ Выгрузка таблицы '{}' прервана после начала ответа", tableName, e);
+            writer.writeError(EXPORT_ABORTED);
+        }
+        writer.writeEnd();
+        out.flush();
     }
 
 
     @GetMapping("/{tableName}/{id}")
-    public ResponseEntity<Map<String, Object>> getRow(
+    @OperationClassification(OperationClass.POINT)
+    public ResponseEntity<?> getRow(
             @PathVariable String tableName,
-            @PathVariable Long id
+            @PathVariable Long id,
+            @RequestParam(required = false) List<String> fields,
+            @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept
     ) {
-        return ResponseEntity.ok(dynamicDataService.getRowById(tableName, id));
+        Map<String, Object> row = dynamicDataService.getRowById(tableName, id, fields);
+        if (ResponseFormat.negotiate(accept) != ResponseFormat.ARROW) {
+            return ResponseEntity.ok(row);
+        }
+        TypedRows rows = new TypedRows(dynamicDataService.describeColumns(tableName, fields), List.of(row), Map.of());
+        return ResponseEntity.ok().contentType(ArrowIpcWriter.ARROW_STREAM).body(rows);
     }
 
 
     @PutMapping("/{tableName}/{id}")
+    @OperationClassification(OperationClass.POINT)
     public ResponseEntity<Map<String, Object>> updateRow(
             @PathVariable String tableName,
             @PathVariable Long id,
@@ -54,7 +247,19 @@ public class DynamicDataController {
     }
 
 
+    @PostMapping("/{tableName}/{id}/increment")
+    @OperationClassification(OperationClass.POINT)
+    public ResponseEntity<Map<String, Object>> incrementRow(
+            @PathVariable String tableName,
+            @PathVariable Long id,
+            @RequestBody Map<String, Object> deltas
+    ) {
+        return ResponseEntity.ok(dynamicDataService.incrementRow(tableName, id, deltas));
+    }
+
+
     @DeleteMapping("/{tableName}/{id}")
+    @OperationClassification(OperationClass.POINT)
     public ResponseEntity<Void> deleteRow(
             @PathVariable String tableName,
             @PathVariable Long id
@@ -2,16 +2,16 @@ package com.example.flexdb.controller;
 
 import com.example.flexdb.dto.CreateTableRequest;
 import com.example.flexdb.dto.CreatedTableResponse;
-import com.example.flexdb.dto.TableSummaryDto;
+import com.example.flexdb.dto.TableSummaryPage;
+import com.example.flexdb.enums.OperationClass;
 import com.example.flexdb.service.DynamicTableService;
+import com.example.flexdb.web.OperationClassification;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
-
 @RestController
 @RequestMapping("/api/v1/dynamic-tables")
 @RequiredArgsConstructor
@@ -20,6 +20,7 @@ public class DynamicTableController {
     private final DynamicTableService dynamicTableService;
 
     @PostMapping("/schemas")
+    @OperationClassification(OperationClass.BULK)
     public ResponseEntity<CreatedTableResponse> createTable(@Valid @RequestBody CreateTableRequest request) {
         CreatedTableResponse response = dynamicTableService.createDynamicTable(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
@@ -27,6 +28,7 @@ public class DynamicTableController {
 
 
     @GetMapping("/{tableName}")
+    @OperationClassification(OperationClass.POINT)
     public ResponseEntity<CreatedTableResponse> getTableSchema(@PathVariable String tableName) {
         CreatedTableResponse response = dynamicTableService.getTableSchema(tableName);
         return ResponseEntity.ok(response);
@@ -34,8 +36,14 @@ public class DynamicTableController {
 
 
     @GetMapping
-    public ResponseEntity<List<TableSummaryDto>> getAllTableSchemas() {
-        List<TableSummaryDto> tables = dynamicTableService.getAllTableSummaries();
+    @OperationClassification(OperationClass.BULK)
+    public ResponseEntity<TableSummaryPage> getAllTableSchemas(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "50") int size,
+            @RequestParam(required = false) String prefix,
+            @RequestParam(defaultValue = "false") boolean includeStats
+    ) {
+        TableSummaryPage tables = dynamicTableService.getTableSummaries(page, size, prefix, includeStats);
         return ResponseEntity.ok(tables);
     }
 }
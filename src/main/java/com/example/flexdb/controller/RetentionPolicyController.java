@@ -0,0 +1,39 @@
+package com.example.flexdb.controller;
+
+import com.example.flexdb.dto.RetentionPolicyDto;
+import com.example.flexdb.dto.RetentionPolicyRequest;
+import com.example.flexdb.enums.OperationClass;
+import com.example.flexdb.service.RetentionService;
+import com.example.flexdb.web.OperationClassification;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/dynamic-tables/{tableName}/retention")
+@RequiredArgsConstructor
+public class RetentionPolicyController {
+
+    private final RetentionService retentionService;
+
+    @PutMapping
+    @OperationClassification(OperationClass.BULK)
+    public ResponseEntity<RetentionPolicyDto> setPolicy(@PathVariable String tableName,
+                                                        @Valid @RequestBody RetentionPolicyRequest request) {
+        return ResponseEntity.ok(retentionService.setPolicy(tableName, request));
+    }
+
+    @GetMapping
+    @OperationClassification(OperationClass.POINT)
+    public ResponseEntity<RetentionPolicyDto> getPolicy(@PathVariable String tableName) {
+        return ResponseEntity.ok(retentionService.getPolicy(tableName));
+    }
+
+    @DeleteMapping
+    @OperationClassification(OperationClass.BULK)
+    public ResponseEntity<Void> deletePolicy(@PathVariable String tableName) {
+        retentionService.deletePolicy(tableName);
+        return ResponseEntity.noContent().build();
+    }
+}
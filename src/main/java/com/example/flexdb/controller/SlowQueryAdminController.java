@@ -0,0 +1,26 @@
+package com.example.flexdb.controller;
+
+import com.example.flexdb.dto.SlowQueryReport;
+import com.example.flexdb.metrics.SlowQueryLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/v1/admin/slow-queries")
+@RequiredArgsConstructor
+public class SlowQueryAdminController {
+
+    private final SlowQueryLog slowQueryLog;
+
+    @GetMapping
+    public ResponseEntity<SlowQueryReport> getSlowQueries(@RequestParam(defaultValue = "20") int limit) {
+        return ResponseEntity.ok(slowQueryLog.report(limit));
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> resetSlowQueries() {
+        slowQueryLog.reset();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,30 @@
+package com.example.flexdb.dto;
+
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdmissionLimitDto {
+
+    /**
+     * Запросов в секунду; 0 — без ограничения.
+     */
+    @PositiveOrZero(message = "Частота не может быть отрицательной")
+    private double rate;
+
+    /**
+     * Допустимый всплеск; 0 — равен rate.
+     */
+    @PositiveOrZero(message = "Всплеск не может быть отрицательным")
+    private int burst;
+
+    /**
+     * Одновременных запросов; 0 — без ограничения.
+     */
+    @PositiveOrZero(message = "Число одновременных запросов не может быть отрицательным")
+    private int maxInFlight;
+}
@@ -0,0 +1,18 @@
+package com.example.flexdb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+@Data
+@AllArgsConstructor
+public class AdmissionLimiterDto {
+    private String tableName;
+    private String operationClass;
+    private AdmissionLimitDto limit;
+    private int inFlight;
+
+    /**
+     * Токенов в корзине сейчас; null — частота не ограничена.
+     */
+    private Double availableTokens;
+}
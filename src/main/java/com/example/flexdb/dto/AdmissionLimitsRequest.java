@@ -0,0 +1,24 @@
+package com.example.flexdb.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.Data;
+
+/**
+ * Новые лимиты по классам операций. Не указанный класс не меняется.
+ */
+@Data
+public class AdmissionLimitsRequest {
+
+    @Valid
+    private AdmissionLimitDto point;
+
+    @Valid
+    private AdmissionLimitDto bulk;
+
+    /**
+     * Порог сброса BULK-нагрузки; только для лимитов по умолчанию.
+     */
+    @PositiveOrZero(message = "Порог сброса нагрузки не может быть отрицательным")
+    private Integer shedBulkAboveInFlight;
+}
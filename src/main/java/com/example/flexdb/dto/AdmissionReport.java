@@ -0,0 +1,31 @@
+package com.example.flexdb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class AdmissionReport {
+    private boolean enabled;
+    private int inFlight;
+    private int shedBulkAboveInFlight;
+    private Map<String, AdmissionLimitDto> defaults;
+
+    /**
+     * Собственные лимиты таблиц поверх значений по умолчанию.
+     */
+    private Map<String, Map<String, AdmissionLimitDto>> tables;
+
+    /**
+     * Счётчики таблиц, к которым уже были запросы.
+     */
+    private List<AdmissionLimiterDto> limiters;
+
+    /**
+     * Почему заданные лимиты (частично) не действуют, например контроль допуска выключен.
+     */
+    private List<String> warnings;
+}
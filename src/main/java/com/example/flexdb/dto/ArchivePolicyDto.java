@@ -0,0 +1,15 @@
+package com.example.flexdb.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class ArchivePolicyDto {
+    private String tableName;
+    private String column;
+    private Integer days;
+    private long archivedRows;
+    private long archivedBytes;
+    private List<ArchiveSegmentDto> segments;
+}
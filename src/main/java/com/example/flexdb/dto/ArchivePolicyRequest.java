@@ -0,0 +1,17 @@
+package com.example.flexdb.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class ArchivePolicyRequest {
+
+    @NotBlank(message = "Колонка для архивации обязательна")
+    private String column;
+
+    @NotNull(message = "Срок до архивации обязателен")
+    @Min(value = 1, message = "Срок до архивации должен быть не меньше одного дня")
+    private Integer days;
+}
@@ -0,0 +1,23 @@
+package com.example.flexdb.dto;
+
+import com.example.flexdb.repository.ColumnarSegmentFile;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+@Data
+public class ArchiveSegmentDto {
+    private Long id;
+    private String fileName;
+    private int rowCount;
+    private long minId;
+    private long maxId;
+    private long sizeBytes;
+    private LocalDateTime createdAt;
+
+    /**
+     * min/max и число NULL по каждой колонке из app_archive_segments.column_stats.
+     */
+    private Map<String, ColumnarSegmentFile.ColumnStats> columns;
+}
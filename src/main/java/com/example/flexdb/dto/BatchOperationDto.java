@@ -0,0 +1,28 @@
+package com.example.flexdb.dto;
+
+
+import jakarta.validation.constraints.NotBlank;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Одна операция пакетного запроса.
+ * id и значения в data могут ссылаться на результат предыдущей операции: {"$ref": 0}.
+ */
+@Data
+public class BatchOperationDto {
+
+    @NotBlank(message = "Тип операции не должен быть пустым")
+    private String op;
+
+    @NotBlank(message = "Имя таблицы не должно быть пустым")
+    private String table;
+
+    private Object id;
+
+    private Map<String, Object> data;
+
+    private List<String> fields;
+}
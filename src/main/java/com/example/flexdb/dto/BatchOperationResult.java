@@ -0,0 +1,15 @@
+package com.example.flexdb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.Map;
+
+@Data
+@AllArgsConstructor
+public class BatchOperationResult {
+    private int index;
+    private String op;
+    private String table;
+    private Map<String, Object> result;
+}
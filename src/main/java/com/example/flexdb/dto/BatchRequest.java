@@ -0,0 +1,17 @@
+package com.example.flexdb.dto;
+
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+public class BatchRequest {
+
+    @NotNull(message = "Список операций обязателен")
+    @Size(min = 1, max = 100, message = "Пакет должен содержать от 1 до 100 операций")
+    private List<@Valid BatchOperationDto> operations;
+}
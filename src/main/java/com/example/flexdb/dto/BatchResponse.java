@@ -0,0 +1,12 @@
+package com.example.flexdb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class BatchResponse {
+    private List<BatchOperationResult> results;
+}
@@ -18,6 +18,12 @@ public class CreateTableRequest {
     @Size(max = 255, message = "Описание таблицы должно быть не длиннее 255 символов")
     private String userFriendlyName;
 
+    /**
+     * POSTGRES (по умолчанию) или MEMORY — строки в памяти процесса, без записи в PostgreSQL.
+     */
+    @Pattern(regexp = "(?i)^(POSTGRES|MEMORY)$", message = "Движок хранения должен быть POSTGRES или MEMORY")
+    private String storageEngine;
+
     @NotNull(message = "Список колонок обязателен")
     @Size(min = 1, message = "Список колонок не может быть пустым")
     private List<@Valid ColumnDefinitionDto> columns;
@@ -8,6 +8,7 @@ import java.util.List;
 public class CreatedTableResponse {
     private String tableName;
     private String userFriendlyName;
+    private String storageEngine;
     private List<CreatedColumnDto> columns;
 }
 
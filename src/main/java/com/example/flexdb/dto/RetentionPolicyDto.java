@@ -0,0 +1,25 @@
+package com.example.flexdb.dto;
+
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+public class RetentionPolicyDto {
+    private String tableName;
+    private String column;
+    private Integer days;
+    private boolean partitioned;
+
+    /**
+     * Результат последнего прохода очистки; null, если очистка ещё не запускалась.
+     */
+    private Instant lastRunAt;
+    private Long lastPurgedRows;
+    private Integer lastDroppedPartitions;
+
+    /**
+     * Оценка числа просроченных строк после последнего прохода (ограничена flexdb.retention.backlog-count-limit).
+     */
+    private Long backlog;
+}
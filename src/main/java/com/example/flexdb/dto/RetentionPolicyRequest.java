@@ -0,0 +1,17 @@
+package com.example.flexdb.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import lombok.Data;
+
+@Data
+public class RetentionPolicyRequest {
+
+    @NotBlank(message = "Колонка для политики хранения обязательна")
+    private String column;
+
+    @NotNull(message = "Срок хранения обязателен")
+    @Min(value = 1, message = "Срок хранения должен быть не меньше одного дня")
+    private Integer days;
+}
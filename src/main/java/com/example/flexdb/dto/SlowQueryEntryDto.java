@@ -0,0 +1,17 @@
+package com.example.flexdb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class SlowQueryEntryDto {
+    private Instant timestamp;
+    private String table;
+    private String operation;
+    private String sql;
+    private double durationMs;
+    private long rows;
+}
@@ -0,0 +1,23 @@
+package com.example.flexdb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class SlowQueryReport {
+    private long thresholdMs;
+    private boolean explainEnabled;
+
+    /**
+     * Формы SQL с наибольшим суммарным временем.
+     */
+    private List<SlowQueryStatsDto> statements;
+
+    /**
+     * Последние медленные запросы, новые первыми.
+     */
+    private List<SlowQueryEntryDto> recent;
+}
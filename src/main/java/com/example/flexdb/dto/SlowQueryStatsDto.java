@@ -0,0 +1,26 @@
+package com.example.flexdb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.time.Instant;
+
+@Data
+@AllArgsConstructor
+public class SlowQueryStatsDto {
+    private String table;
+    private String operation;
+    private String sql;
+    private long calls;
+    private long slowCalls;
+    private double totalTimeMs;
+    private double meanTimeMs;
+    private double maxTimeMs;
+    private long rows;
+
+    /**
+     * Последний снятый план (EXPLAIN) или null.
+     */
+    private String lastPlan;
+    private Instant lastPlanAt;
+}
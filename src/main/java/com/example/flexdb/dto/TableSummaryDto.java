@@ -17,5 +17,15 @@ public class TableSummaryDto {
 
 
     private int columnCount;
+
+    /**
+     * Оценка числа строк по статистике PostgreSQL (pg_class.reltuples); null, если не запрошено или таблица не анализировалась.
+     */
+    private Long estimatedRowCount;
+
+    /**
+     * Размер таблицы с индексами и TOAST в байтах; null, если не запрошено.
+     */
+    private Long totalSizeBytes;
 }
 
@@ -0,0 +1,17 @@
+package com.example.flexdb.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+public class TableSummaryPage {
+    private List<TableSummaryDto> content;
+    private PageInfo pageable;
+    private int totalPages;
+    private int totalElements;
+    private boolean last;
+    private boolean first;
+}
@@ -0,0 +1,20 @@
+package com.example.flexdb.dto;
+
+import com.example.flexdb.enums.SupportedColumnType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Строки вместе с типами колонок проекции — тело ответа в колоночном формате (Arrow),
+ * где схема пишется до первой строки.
+ */
+@Data
+@AllArgsConstructor
+public class TypedRows {
+    private Map<String, SupportedColumnType> columns;
+    private List<Map<String, Object>> rows;
+    private Map<String, String> metadata;
+}
@@ -0,0 +1,61 @@
+package com.example.flexdb.entity;
+
+import com.example.flexdb.repository.ColumnarSegmentFile;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * Сегмент архива: файл с порцией строк динамической таблицы, упорядоченных по id.
+ */
+@Entity
+@Table(name = "app_archive_segments")
+@Getter
+@Setter
+@NoArgsConstructor
+public class ArchiveSegment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "table_definition_id", nullable = false)
+    private DynamicTableDefinition tableDefinition;
+
+    /**
+     * Путь к файлу относительно flexdb.archive.directory.
+     */
+    @Column(name = "file_name", nullable = false, unique = true)
+    private String fileName;
+
+    @Column(name = "row_count", nullable = false)
+    private int rowCount;
+
+    @Column(name = "min_id", nullable = false)
+    private long minId;
+
+    @Column(name = "max_id", nullable = false)
+    private long maxId;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    /**
+     * Статистика колонок из футера файла; null у сегментов, созданных до её появления.
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "column_stats")
+    private Map<String, ColumnarSegmentFile.ColumnStats> columnStats;
+
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt = LocalDateTime.now();
+}
@@ -1,5 +1,6 @@
 package com.example.flexdb.entity;
 
+import com.example.flexdb.enums.StorageEngine;
 import jakarta.persistence.*;
 import lombok.Data;
 import lombok.Getter;
@@ -27,6 +28,13 @@ public class DynamicTableDefinition {
 
     @Column(name = "user_friendly_name")
     private String userFriendlyName;
+
+    /**
+     * Где хранятся строки: таблица PostgreSQL или память процесса. Задаётся при создании и не меняется.
+     */
+    @Enumerated(EnumType.STRING)
+    @Column(name = "storage_engine", nullable = false, length = 16)
+    private StorageEngine storageEngine = StorageEngine.POSTGRES;
     /**
      * CreationTimestamp
      * Дата и время создания записи.
@@ -37,6 +45,30 @@ public class DynamicTableDefinition {
     @Column(name = "created_at", nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
 
+    /**
+     * Колонка TIMESTAMP/DATE, по которой действует политика хранения (null — политики нет).
+     */
+    @Column(name = "retention_column")
+    private String retentionColumn;
+
+    /**
+     * Сколько дней хранить строки по retentionColumn.
+     */
+    @Column(name = "retention_days")
+    private Integer retentionDays;
+
+    /**
+     * Колонка TIMESTAMP/DATE, по которой строки переносятся в архив (null — архивации нет).
+     */
+    @Column(name = "archive_column")
+    private String archiveColumn;
+
+    /**
+     * Через сколько дней по archiveColumn строка переносится в архив.
+     */
+    @Column(name = "archive_after_days")
+    private Integer archiveAfterDays;
+
     @OneToMany(mappedBy = "tableDefinition", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<DynamicColumnDefinition> columns = new ArrayList<>();
 }
@@ -0,0 +1,17 @@
+package com.example.flexdb.enums;
+
+public enum BatchOperationType {
+    INSERT,
+    UPDATE,
+    DELETE,
+    GET;
+
+    public static BatchOperationType fromString(String value) {
+        for (BatchOperationType type : values()) {
+            if (type.name().equalsIgnoreCase(value)) {
+                return type;
+            }
+        }
+        throw new IllegalArgumentException("Неподдерживаемый тип операции: " + value);
+    }
+}
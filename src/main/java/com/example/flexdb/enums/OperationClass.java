@@ -0,0 +1,10 @@
+package com.example.flexdb.enums;
+
+/**
+ * Класс операции для изоляции ресурсов БД.
+ * POINT — точечные операции по одной строке, BULK — списки, пакеты и DDL.
+ */
+public enum OperationClass {
+    POINT,
+    BULK
+}
@@ -0,0 +1,22 @@
+package com.example.flexdb.enums;
+
+/**
+ * Где хранятся строки динамической таблицы.
+ * POSTGRES — обычная таблица в БД, MEMORY — колоночное хранилище в памяти процесса (без durability PostgreSQL).
+ */
+public enum StorageEngine {
+    POSTGRES,
+    MEMORY;
+
+    public static StorageEngine fromString(String value) {
+        if (value == null || value.isBlank()) {
+            return POSTGRES;
+        }
+        for (StorageEngine engine : values()) {
+            if (engine.name().equalsIgnoreCase(value)) {
+                return engine;
+            }
+        }
+        throw new IllegalArgumentException("Неподдерживаемый движок хранения: " + value);
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.flexdb.exception;
+
+import lombok.Getter;
+
+/**
+ * Объединённый инкремент не записан за {@code flexdb.increment.max-wait}.
+ * <p>
+ * Если приращение успели убрать из ещё не записанной пачки ({@link #isWithdrawn()}), оно точно не применено
+ * и запрос можно повторить (503). Иначе UPDATE с ним уже выполняется и результат неизвестен (504):
+ * повтор может применить приращение дважды.
+ */
+@Getter
+public class IncrementTimeoutException extends RuntimeException {
+
+    private final boolean withdrawn;
+
+    public IncrementTimeoutException(String message, boolean withdrawn) {
+        super(message);
+        this.withdrawn = withdrawn;
+    }
+}
@@ -0,0 +1,200 @@
+package com.example.flexdb.metrics;
+
+import com.example.flexdb.config.MetricsProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Метрики операций над динамическими таблицами.
+ * <p>
+ * Тег table ограничен: собственный тег получают только первые {@code flexdb.metrics.max-table-tags}
+ * существующих таблиц, остальные учитываются под тегом {@link #OTHER_TABLE}.
+ */
+@Component
+@RequiredArgsConstructor
+public class DynamicTableMetrics {
+
+    public static final String OTHER_TABLE = "_other";
+    public static final String NO_TABLE = "none";
+
+    private final MeterRegistry registry;
+    private final MetricsProperties properties;
+
+    private final Set<String> taggedTables = ConcurrentHashMap.newKeySet();
+    private final Map<String, AtomicLong> retentionBacklog = new ConcurrentHashMap<>();
+
+    /**
+     * Значение тега table для имени таблицы.
+     * Незарегистрированные таблицы (в том числе несуществующие) попадают в общий тег.
+     */
+    public String tableTag(String tableName) {
+        if (tableName == null) {
+            return NO_TABLE;
+        }
+        return taggedTables.contains(tableName) ? tableName : OTHER_TABLE;
+    }
+
+    /**
+     * Замеряет поиск метаданных таблицы. Найденная таблица регистрируется для тега table.
+     */
+    public <T> Optional<T> recordMetadataLookup(String tableName, String operation, Supplier<Optional<T>> lookup) {
+        long start = System.nanoTime();
+        Optional<T> result = lookup.get();
+        long elapsed = System.nanoTime() - start;
+
+        if (result.isPresent()) {
+            registerTable(tableName);
+        }
+        phaseTimer(tableName, operation, "metadata").record(elapsed, TimeUnit.NANOSECONDS);
+        return result;
+    }
+
+    public void recordSql(String tableName, String operation, long elapsedNanos) {
+        phaseTimer(tableName, operation, "sql").record(elapsedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void rowsRead(String tableName, long rows) {
+        rowsCounter(tableName, "read").increment(rows);
+    }
+
+    public void rowsWritten(String tableName, long rows) {
+        rowsCounter(tableName, "written").increment(rows);
+    }
+
+    public void slowStatement(String tableName, String operation) {
+        Counter.builder("flexdb.data.slow.statements")
+                .description("SQL-запросы дольше порога flexdb.slow-query.threshold")
+                .tag("table", tableTag(tableName))
+                .tag("operation", operation)
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Сколько запросов инкремента вошло в один UPDATE при объединении.
+     */
+    public void incrementBatch(String tableName, int requests) {
+        DistributionSummary.builder("flexdb.increment.batch")
+                .description("Число инкрементов, объединённых в один UPDATE")
+                .tag("table", tableTag(tableName))
+                .register(registry)
+                .record(requests);
+    }
+
+    /**
+     * Удалённые политикой хранения строки или партиции.
+     *
+     * @param unit rows или partitions
+     */
+    public void retentionPurged(String tableName, String unit, long count) {
+        Counter.builder("flexdb.retention.purged")
+                .description("Строки и партиции, удалённые политикой хранения")
+                .tag("table", tableTag(tableName))
+                .tag("unit", unit)
+                .register(registry)
+                .increment(count);
+    }
+
+    /**
+     * Оценка оставшихся просроченных строк после прохода очистки.
+     */
+    public void retentionBacklog(String tableName, long rows) {
+        retentionBacklog.computeIfAbsent(tableTag(tableName), tag -> {
+            AtomicLong value = new AtomicLong();
+            Gauge.builder("flexdb.retention.backlog", value, AtomicLong::get)
+                    .description("Просроченные строки, ожидающие удаления")
+                    .tag("table", tag)
+                    .register(registry);
+            return value;
+        }).set(rows);
+    }
+
+    /**
+     * Строки, перенесённые в архив или прочитанные из него.
+     *
+     * @param direction archived или read
+     */
+    public void archiveRows(String tableName, String direction, long count) {
+        Counter.builder("flexdb.archive.rows")
+                .description("Строки, перенесённые в архив и прочитанные из архива")
+                .tag("table", tableTag(tableName))
+                .tag("direction", direction)
+                .register(registry)
+                .increment(count);
+    }
+
+    /**
+     * Обращение к кэшу страниц списка.
+     *
+     * @param hit страница взята из кэша
+     */
+    public void pageCacheLookup(String tableName, boolean hit) {
+        Counter.builder("flexdb.page.cache.requests")
+                .description("Обращения к кэшу страниц списка записей")
+                .tag("table", tableTag(tableName))
+                .tag("result", hit ? "hit" : "miss")
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Ошибка валидации значения.
+     *
+     * @param columnType логический тип колонки (или UNKNOWN для неизвестной колонки)
+     * @param reason     причина: type, required, unknown_column
+     */
+    public void validationFailure(String columnType, String reason) {
+        Counter.builder("flexdb.data.validation.failures")
+                .description("Ошибки валидации данных по типу колонки")
+                .tag("column_type", columnType != null ? columnType.toUpperCase() : "UNKNOWN")
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+    }
+
+    public void responseBytes(String uri, String contentType, long bytes) {
+        DistributionSummary.builder("flexdb.http.response.bytes")
+                .description("Размер сериализованного тела ответа")
+                .baseUnit("bytes")
+                .tag("uri", uri)
+                .tag("content_type", contentType)
+                .register(registry)
+                .record(bytes);
+    }
+
+    private void registerTable(String tableName) {
+        if (taggedTables.size() < properties.getMaxTableTags()) {
+            taggedTables.add(tableName);
+        }
+    }
+
+    private Timer phaseTimer(String tableName, String operation, String phase) {
+        return Timer.builder("flexdb.data.phase")
+                .description("Время этапов операции: поиск метаданных и выполнение SQL")
+                .tag("table", tableTag(tableName))
+                .tag("operation", operation)
+                .tag("phase", phase)
+                .register(registry);
+    }
+
+    private Counter rowsCounter(String tableName, String direction) {
+        return Counter.builder("flexdb.data.rows")
+                .description("Количество прочитанных и записанных строк")
+                .tag("table", tableTag(tableName))
+                .tag("direction", direction)
+                .register(registry);
+    }
+}
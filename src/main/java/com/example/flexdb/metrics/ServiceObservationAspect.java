@@ -0,0 +1,74 @@
+package com.example.flexdb.metrics;
+
+import com.example.flexdb.entity.DynamicTableDefinition;
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationRegistry;
+import lombok.RequiredArgsConstructor;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.stereotype.Component;
+
+/**
+ * Оборачивает публичные методы сервисов в Observation "flexdb.service".
+ * Из неё получаются таймер (гистограмма задержек по service/operation/table) и span для трассировки.
+ * <p>
+ * Таблица берётся из параметра с именем {@code tableName}, а если его нет — из аргумента-определения таблицы
+ * ({@link DynamicTableDefinition}). У остальных методов (например, getTableSummaries с префиксом имени) тега
+ * таблицы нет: строковый аргумент не обязательно имя таблицы. Тег вычисляется после выполнения,
+ * когда таблица уже найдена и зарегистрирована в {@link DynamicTableMetrics}.
+ * Реактивные сервисы не оборачиваются: их методы лишь собирают Mono/Flux и возвращаются сразу,
+ * а время SQL для них пишет ReactiveSqlExecutor.
+ */
+@Aspect
+@Component
+@RequiredArgsConstructor
+public class ServiceObservationAspect {
+
+    private static final String TABLE_NAME_PARAMETER = "tableName";
+
+    private final ObservationRegistry observationRegistry;
+    private final DynamicTableMetrics metrics;
+
+    @Around("execution(public * com.example.flexdb.service.impl.*ServiceImpl.*(..))"
+            + " && !within(com.example.flexdb.service.impl.Reactive*)")
+    public Object observe(ProceedingJoinPoint joinPoint) throws Throwable {
+        String service = joinPoint.getSignature().getDeclaringType().getSimpleName();
+        String operation = joinPoint.getSignature().getName();
+        String tableName = findTableName((MethodSignature) joinPoint.getSignature(), joinPoint.getArgs());
+
+        Observation observation = Observation.createNotStarted("flexdb.service", observationRegistry)
+                .contextualName(service + "." + operation)
+                .lowCardinalityKeyValue("service", service)
+                .lowCardinalityKeyValue("operation", operation)
+                .start();
+
+        try (Observation.Scope ignored = observation.openScope()) {
+            return joinPoint.proceed();
+        } catch (Throwable e) {
+            observation.error(e);
+            throw e;
+        } finally {
+            observation.lowCardinalityKeyValue("table", metrics.tableTag(tableName));
+            observation.stop();
+        }
+    }
+
+    static String findTableName(MethodSignature signature, Object[] args) {
+        String[] names = signature.getParameterNames();
+        if (names != null) {
+            for (int i = 0; i < names.length; i++) {
+                if (TABLE_NAME_PARAMETER.equals(names[i]) && args[i] instanceof String name) {
+                    return name;
+                }
+            }
+        }
+        for (Object arg : args) {
+            if (arg instanceof DynamicTableDefinition table) {
+                return table.getTableName();
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.flexdb.metrics;
+
+import com.example.flexdb.config.SlowQueryProperties;
+import com.example.flexdb.dto.SlowQueryEntryDto;
+import com.example.flexdb.dto.SlowQueryReport;
+import com.example.flexdb.dto.SlowQueryStatsDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Журнал SQL-запросов к динамическим таблицам.
+ * <p>
+ * Каждая форма SQL (текст с плейсхолдерами, без значений) агрегируется: число вызовов, суммарное
+ * и максимальное время, число строк. Запросы дольше {@code flexdb.slow-query.threshold} дополнительно
+ * попадают в кольцевой буфер и, если включено, получают план через EXPLAIN в отдельном потоке.
+ * <p>
+ * EXPLAIN ANALYZE выполняет запрос повторно, поэтому ANALYZE используется только для SELECT, ограниченных
+ * WHERE или LIMIT. Для SELECT без них (выгрузка, COUNT(*) по всей таблице), блокирующих SELECT ... FOR UPDATE
+ * (повтор взял бы блокировки строк ещё раз) и для INSERT/UPDATE/DELETE снимается план без выполнения.
+ */
+@Component
+@Slf4j
+public class SlowQueryLog implements DisposableBean {
+
+    private static final Pattern QUOTED_IDENTIFIER = Pattern.compile("\"[^\"]*\"");
+    private static final Pattern LOCKING_CLAUSE = Pattern.compile("\\bFOR\\s+(UPDATE|NO\\s+KEY\\s+UPDATE|SHARE|KEY\\s+SHARE)\\b");
+    private static final Pattern BOUNDING_CLAUSE = Pattern.compile("\\b(WHERE|LIMIT)\\b");
+
+    private final SlowQueryProperties properties;
+    private final DynamicTableMetrics metrics;
+    private final JdbcTemplate explainTemplate;
+    private final ThreadPoolExecutor explainExecutor;
+
+    private final ConcurrentHashMap<String, StatementStats> statements = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<SlowQueryEntryDto> recent;
+    private final AtomicLong recentCursor = new AtomicLong();
+
+    public SlowQueryLog(SlowQueryProperties properties, DynamicTableMetrics metrics, DataSource dataSource) {
+        this.properties = properties;
+        this.metrics = metrics;
+        this.recent = new AtomicReferenceArray<>(Math.max(1, properties.getBufferSize()));
+
+        this.explainTemplate = new JdbcTemplate(dataSource);
+        this.explainTemplate.setQueryTimeout((int) Math.max(1, properties.getExplainTimeout().toSeconds()));
+
+        // Один поток: EXPLAIN ANALYZE не должен занимать больше одного соединения пула
+        this.explainExecutor = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getExplainQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "flexdb-explain");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.DiscardPolicy());
+    }
+
+    /**
+     * Учитывает выполненный запрос.
+     *
+     * @param args значения параметров; используются только для EXPLAIN и не сохраняются
+     * @param rows число прочитанных или изменённых строк
+     */
+    public void record(String tableName, String operation, String sql, Object[] args, long elapsedNanos, long rows) {
+        if (!properties.isEnabled()) {
+            return;
+        }
+
+        StatementStats stats = statements.size() < properties.getMaxStatements()
+                ? statements.computeIfAbsent(sql, key -> new StatementStats(tableName, operation, key))
+                : statements.get(sql);
+        boolean slow = elapsedNanos >= properties.getThreshold().toNanos();
+        if (stats != null) {
+            stats.record(elapsedNanos, rows, slow);
+        }
+        if (!slow) {
+            return;
+        }
+
+        metrics.slowStatement(tableName, operation);
+        int slot = (int) (recentCursor.getAndIncrement() % recent.length());
+        recent.set(slot, new SlowQueryEntryDto(Instant.now(), tableName, operation, sql, toMillis(elapsedNanos), rows));
+        log.warn("🐢 Медленный запрос ({} мс) к таблице '{}', операция {}: {}", Math.round(toMillis(elapsedNanos)), tableName, operation, sql);
+
+        if (properties.isExplain() && stats != null && stats.claimExplain(properties.getExplainInterval().toNanos())) {
+            explainExecutor.execute(() -> explain(stats, sql, args));
+        }
+    }
+
+    /**
+     * Формы SQL с наибольшим суммарным временем и последние медленные запросы.
+     */
+    public SlowQueryReport report(int limit) {
+        int safeLimit = Math.max(1, limit);
+
+        List<SlowQueryStatsDto> top = statements.values().stream()
+                .sorted(Comparator.comparingLong(StatementStats::totalNanos).reversed())
+                .limit(safeLimit)
+                .map(StatementStats::toDto)
+                .toList();
+
+        List<SlowQueryEntryDto> latest = new ArrayList<>();
+        long cursor = recentCursor.get();
+        for (long i = cursor - 1; i >= 0 && i >= cursor - recent.length() && latest.size() < safeLimit; i--) {
+            SlowQueryEntryDto entry = recent.get((int) (i % recent.length()));
+            if (entry != null) {
+                latest.add(entry);
+            }
+        }
+
+        return new SlowQueryReport(properties.getThreshold().toMillis(), properties.isExplain(), top, latest);
+    }
+
+    public void reset() {
+        statements.clear();
+        for (int i = 0; i < recent.length(); i++) {
+            recent.set(i, null);
+        }
+        log.info("Журнал медленных запросов очищен");
+    }
+
+    @Override
+    public void destroy() {
+        explainExecutor.shutdownNow();
+    }
+
+    private void explain(StatementStats stats, String sql, Object[] args) {
+        String explainSql = explainStatement(sql);
+        if (explainSql == null) {
+            return;
+        }
+
+        try {
+            List<String> lines = explainTemplate.queryForList(explainSql, String.class, args);
+            stats.plan(String.join("\n", lines));
+        } catch (Exception e) {
+            log.warn("Не удалось получить план запроса к таблице '{}': {}", stats.tableName, e.getMessage());
+        }
+    }
+
+    /**
+     * Запрос EXPLAIN для формы SQL или null, если план для неё не снимается.
+     */
+    static String explainStatement(String sql) {
+        // Имена колонок в кавычках не должны приниматься за ключевые слова
+        String normalized = QUOTED_IDENTIFIER.matcher(sql.strip().toUpperCase(Locale.ROOT)).replaceAll("\"\"");
+        if (normalized.startsWith("SELECT")) {
+            boolean analyze = !LOCKING_CLAUSE.matcher(normalized).find() && BOUNDING_CLAUSE.matcher(normalized).find();
+            return (analyze ? "EXPLAIN (ANALYZE, BUFFERS) " : "EXPLAIN ") + sql;
+        }
+        if (normalized.startsWith("INSERT") || normalized.startsWith("UPDATE") || normalized.startsWith("DELETE") || normalized.startsWith("WITH")) {
+            return "EXPLAIN " + sql;
+        }
+        return null;
+    }
+
+    private static double toMillis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+
+    private static final class StatementStats {
+        private final String tableName;
+        private final String operation;
+        private final String sql;
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder slowCalls = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder rows = new LongAdder();
+        private final AtomicLong lastExplainNanos = new AtomicLong(Long.MIN_VALUE);
+        private volatile String lastPlan;
+        private volatile Instant lastPlanAt;
+
+        private StatementStats(String tableName, String operation, String sql) {
+            this.tableName = tableName;
+            this.operation = operation;
+            this.sql = sql;
+        }
+
+        private void record(long elapsedNanos, long rowCount, boolean slow) {
+            calls.increment();
+            totalNanos.add(elapsedNanos);
+            maxNanos.accumulate(elapsedNanos);
+            rows.add(rowCount);
+            if (slow) {
+                slowCalls.increment();
+            }
+        }
+
+        /**
+         * true, если с прошлого EXPLAIN этой формы прошло больше интервала; одновременно занимает слот.
+         */
+        private boolean claimExplain(long intervalNanos) {
+            long now = System.nanoTime();
+            long last = lastExplainNanos.get();
+            return (last == Long.MIN_VALUE || now - last >= intervalNanos) && lastExplainNanos.compareAndSet(last, now);
+        }
+
+        private void plan(String plan) {
+            this.lastPlan = plan;
+            this.lastPlanAt = Instant.now();
+        }
+
+        private long totalNanos() {
+            return totalNanos.sum();
+        }
+
+        private SlowQueryStatsDto toDto() {
+            long count = calls.sum();
+            long total = totalNanos.sum();
+            return new SlowQueryStatsDto(
+                    tableName,
+                    operation,
+                    sql,
+                    count,
+                    slowCalls.sum(),
+                    toMillis(total),
+                    count > 0 ? toMillis(total / count) : 0,
+                    toMillis(maxNanos.get()),
+                    rows.sum(),
+                    lastPlan,
+                    lastPlanAt
+            );
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.flexdb.repository;
+
+import com.example.flexdb.entity.ArchiveSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ArchiveSegmentRepository extends JpaRepository<ArchiveSegment, Long> {
+
+    List<ArchiveSegment> findByTableDefinitionIdOrderByMinIdAsc(Long tableDefinitionId);
+
+    /**
+     * Сегменты, диапазон id которых содержит данный id.
+     */
+    @Query("select s from ArchiveSegment s where s.tableDefinition.id = :tableDefinitionId and s.minId <= :id and s.maxId >= :id")
+    List<ArchiveSegment> findCovering(Long tableDefinitionId, long id);
+
+    @Query("select coalesce(sum(s.rowCount), 0) from ArchiveSegment s where s.tableDefinition.id = :tableDefinitionId")
+    long sumRowCount(Long tableDefinitionId);
+}
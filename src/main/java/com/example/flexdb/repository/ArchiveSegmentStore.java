@@ -0,0 +1,162 @@
+package com.example.flexdb.repository;
+
+import com.example.flexdb.config.ArchiveProperties;
+import com.example.flexdb.entity.DynamicColumnDefinition;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Файлы сегментов архива в каталоге {@code flexdb.archive.directory}.
+ * Недавно прочитанные сегменты остаются открытыми вместе с распакованными колонками (LRU).
+ * <p>
+ * Сегмент читается через {@link Lease}: пока он не закрыт, отображение файла не освобождается.
+ * Вытесненный из LRU или удалённый сегмент закрывается сразу, если его никто не читает, иначе — последним читателем.
+ */
+@Repository
+@Slf4j
+public class ArchiveSegmentStore {
+
+    private final Path root;
+    private final Map<String, OpenSegment> openSegments;
+
+    public ArchiveSegmentStore(ArchiveProperties properties) {
+        this.root = Paths.get(properties.getDirectory()).toAbsolutePath();
+        int capacity = Math.max(1, properties.getCachedSegments());
+        this.openSegments = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, OpenSegment> eldest) {
+                if (size() <= capacity) {
+                    return false;
+                }
+                eldest.getValue().evict();
+                return true;
+            }
+        };
+    }
+
+    /**
+     * Записывает сегмент и возвращает его размер и статистику колонок.
+     *
+     * @param fileName путь относительно каталога архива
+     */
+    public ColumnarSegmentFile.WriteResult write(String fileName, List<DynamicColumnDefinition> columns, List<Map<String, Object>> rows) {
+        Path target = root.resolve(fileName);
+        try {
+            Files.createDirectories(target.getParent());
+            return ColumnarSegmentFile.write(target, columns, rows);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось записать сегмент архива " + target, e);
+        }
+    }
+
+    /**
+     * Открывает сегмент для чтения; Lease нужно закрыть, когда чтение закончено.
+     */
+    public Lease open(String fileName) {
+        synchronized (openSegments) {
+            OpenSegment segment = openSegments.get(fileName);
+            if (segment != null) {
+                return segment.acquire();
+            }
+        }
+        try {
+            ColumnarSegmentFile file = ColumnarSegmentFile.open(root.resolve(fileName));
+            synchronized (openSegments) {
+                OpenSegment segment = openSegments.get(fileName);
+                if (segment != null) {
+                    // Пока файл открывался, его открыл другой поток — своё отображение не нужно
+                    file.close();
+                } else {
+                    segment = new OpenSegment(file);
+                    openSegments.put(fileName, segment);
+                }
+                return segment.acquire();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось открыть сегмент архива " + fileName, e);
+        }
+    }
+
+    public void delete(String fileName) {
+        synchronized (openSegments) {
+            OpenSegment segment = openSegments.remove(fileName);
+            if (segment != null) {
+                segment.evict();
+            }
+        }
+        try {
+            Files.deleteIfExists(root.resolve(fileName));
+        } catch (IOException e) {
+            log.warn("Не удалось удалить файл сегмента архива {}: {}", fileName, e.getMessage());
+        }
+    }
+
+    /**
+     * Открытый для чтения сегмент. close() не закрывает файл, а отпускает его: файл остаётся в LRU.
+     */
+    public final class Lease implements AutoCloseable {
+
+        private final OpenSegment segment;
+        private boolean released;
+
+        private Lease(OpenSegment segment) {
+            this.segment = segment;
+        }
+
+        public ColumnarSegmentFile file() {
+            return segment.file;
+        }
+
+        @Override
+        public void close() {
+            synchronized (openSegments) {
+                if (!released) {
+                    released = true;
+                    segment.release();
+                }
+            }
+        }
+    }
+
+    /**
+     * Сегмент в LRU и число незакрытых Lease. Все поля меняются под монитором openSegments.
+     */
+    private final class OpenSegment {
+
+        private final ColumnarSegmentFile file;
+        private int readers;
+        private boolean evicted;
+
+        private OpenSegment(ColumnarSegmentFile file) {
+            this.file = file;
+        }
+
+        private Lease acquire() {
+            readers++;
+            return new Lease(this);
+        }
+
+        private void release() {
+            readers--;
+            if (evicted && readers == 0) {
+                file.close();
+            }
+        }
+
+        private void evict() {
+            evicted = true;
+            if (readers == 0) {
+                file.close();
+            }
+        }
+    }
+}
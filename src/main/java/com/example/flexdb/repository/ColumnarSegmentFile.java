@@ -0,0 +1,431 @@
+package com.example.flexdb.repository;
+
+import com.example.flexdb.entity.DynamicColumnDefinition;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.Inflater;
+
+/**
+ * Колоночный сегмент архива: строки одной порции, разложенные по колонкам.
+ * <p>
+ * Формат файла:
+ * <pre>
+ * [MAGIC int][VERSION int]
+ * [блок колонки 1] ... [блок колонки N]   — каждый блок сжат Deflate
+ * [футер][длина футера int][MAGIC int]
+ * </pre>
+ * Блок колонки — последовательность значений: байт-признак NULL и значение в двоичном виде
+ * (INTEGER — int, BIGINT — long, DATE — epochDay, TIMESTAMP — секунды и наносекунды UTC,
+ * DECIMAL — строка, TEXT — длина и UTF-8, BOOLEAN — байт). Футер хранит число строк и для каждой колонки
+ * имя, тип, смещение и длины блока, число NULL и min/max.
+ * <p>
+ * Строки в сегменте упорядочены по id. Файл читается через отображение в память; колонка распаковывается
+ * только при первом обращении к ней, поэтому чтение части колонок не трогает остальные блоки.
+ * <p>
+ * {@link #close()} сразу освобождает отображение, не дожидаясь сборки мусора; после него сегмент читать нельзя.
+ */
+public final class ColumnarSegmentFile implements AutoCloseable {
+
+    private static final int MAGIC = 0x46585347; // FXSG
+    private static final int VERSION = 1;
+    private static final int MAX_TEXT_STAT_LENGTH = 256;
+    private static final sun.misc.Unsafe UNSAFE = loadUnsafe();
+
+    /**
+     * Статистика колонки сегмента. min/max — null, если в колонке только NULL или значения слишком длинные.
+     */
+    public record ColumnStats(String type, int nullCount, String min, String max) {
+    }
+
+    /**
+     * Итог записи сегмента: размер файла и статистика колонок, та же, что в футере.
+     */
+    public record WriteResult(long sizeBytes, Map<String, ColumnStats> columns) {
+    }
+
+    private record ColumnBlock(String name, String type, long offset, int compressedLength, int uncompressedLength,
+                               ColumnStats stats) {
+    }
+
+    private final ByteBuffer buffer;
+    private final int rowCount;
+    private final Map<String, ColumnBlock> blocks;
+    private final Map<String, Object[]> decoded = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    private ColumnarSegmentFile(ByteBuffer buffer, int rowCount, Map<String, ColumnBlock> blocks) {
+        this.buffer = buffer;
+        this.rowCount = rowCount;
+        this.blocks = blocks;
+    }
+
+    /**
+     * Записывает строки в новый сегмент. Файл сначала пишется во временный и затем атомарно переименовывается.
+     *
+     * @param rows строки, упорядоченные по id
+     */
+    public static WriteResult write(Path target, List<DynamicColumnDefinition> columns, List<Map<String, Object>> rows) throws IOException {
+        Path tmp = target.resolveSibling(target.getFileName() + ".tmp");
+        ByteArrayOutputStream footerBytes = new ByteArrayOutputStream();
+        DataOutputStream footer = new DataOutputStream(footerBytes);
+        footer.writeInt(rows.size());
+        footer.writeInt(columns.size());
+        Map<String, ColumnStats> written = new LinkedHashMap<>();
+
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.allocate(8).putInt(MAGIC).putInt(VERSION).flip());
+            long offset = 8;
+
+            for (DynamicColumnDefinition column : columns) {
+                String type = column.getColumnType().toUpperCase();
+                ByteArrayOutputStream raw = new ByteArrayOutputStream();
+                DataOutputStream out = new DataOutputStream(raw);
+                StatsCollector stats = new StatsCollector(type);
+
+                for (Map<String, Object> row : rows) {
+                    Object value = toStoredValue(type, row.get(column.getColumnName()));
+                    stats.accept(value);
+                    if (value == null) {
+                        out.writeBoolean(false);
+                        continue;
+                    }
+                    out.writeBoolean(true);
+                    writeValue(out, type, value);
+                }
+                out.flush();
+
+                byte[] compressed = deflate(raw.toByteArray());
+                channel.write(ByteBuffer.wrap(compressed));
+
+                writeString(footer, column.getColumnName());
+                writeString(footer, type);
+                footer.writeLong(offset);
+                footer.writeInt(compressed.length);
+                footer.writeInt(raw.size());
+                ColumnStats columnStats = stats.result();
+                written.put(column.getColumnName(), columnStats);
+                footer.writeInt(columnStats.nullCount());
+                footer.writeBoolean(columnStats.min() != null);
+                if (columnStats.min() != null) {
+                    writeString(footer, columnStats.min());
+                    writeString(footer, columnStats.max());
+                }
+                offset += compressed.length;
+            }
+
+            footer.flush();
+            channel.write(ByteBuffer.wrap(footerBytes.toByteArray()));
+            channel.write(ByteBuffer.allocate(8).putInt(footerBytes.size()).putInt(MAGIC).flip());
+            channel.force(true);
+        }
+
+        Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return new WriteResult(Files.size(target), written);
+    }
+
+    /**
+     * Открывает сегмент через отображение файла в память и читает футер.
+     */
+    public static ColumnarSegmentFile open(Path path) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        int size = buffer.capacity();
+        if (size < 16 || buffer.getInt(0) != MAGIC || buffer.getInt(size - 4) != MAGIC) {
+            throw new IOException("Файл не является сегментом архива: " + path);
+        }
+        if (buffer.getInt(4) != VERSION) {
+            throw new IOException("Неподдерживаемая версия сегмента архива: " + path);
+        }
+
+        int footerLength = buffer.getInt(size - 8);
+        ByteBuffer footer = buffer.slice(size - 8 - footerLength, footerLength);
+        int rowCount = footer.getInt();
+        int columnCount = footer.getInt();
+
+        Map<String, ColumnBlock> blocks = new LinkedHashMap<>();
+        for (int i = 0; i < columnCount; i++) {
+            String name = readString(footer);
+            String type = readString(footer);
+            long offset = footer.getLong();
+            int compressedLength = footer.getInt();
+            int uncompressedLength = footer.getInt();
+            int nullCount = footer.getInt();
+            String min = null;
+            String max = null;
+            if (footer.get() != 0) {
+                min = readString(footer);
+                max = readString(footer);
+            }
+            blocks.put(name, new ColumnBlock(name, type, offset, compressedLength, uncompressedLength,
+                    new ColumnStats(type, nullCount, min, max)));
+        }
+        return new ColumnarSegmentFile(buffer, rowCount, blocks);
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public Map<String, ColumnStats> stats() {
+        Map<String, ColumnStats> result = new LinkedHashMap<>();
+        blocks.forEach((name, block) -> result.put(name, block.stats()));
+        return result;
+    }
+
+    /**
+     * Позиция строки с данным id или -1. Ищется двоичным поиском по колонке id.
+     */
+    public int indexOfId(long id) {
+        int index = firstIndexAfter(id - 1);
+        return index < rowCount && idAt(index) == id ? index : -1;
+    }
+
+    /**
+     * Позиция первой строки с id больше данного; rowCount, если таких нет.
+     */
+    public int firstIndexAfter(long id) {
+        Object[] ids = column("id");
+        int low = 0;
+        int high = ids.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if ((Long) ids[mid] <= id) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    public long idAt(int index) {
+        return (Long) column("id")[index];
+    }
+
+    /**
+     * Строки [from, to) с выбранными колонками в порядке columnNames (null или пустой — все колонки сегмента).
+     * Колонки, которых нет в сегменте, возвращаются как null.
+     */
+    public List<Map<String, Object>> rows(int from, int to, List<String> columnNames) {
+        List<String> names = columnNames == null || columnNames.isEmpty() ? new ArrayList<>(blocks.keySet()) : columnNames;
+        List<Object[]> values = new ArrayList<>(names.size());
+        for (String name : names) {
+            values.add(blocks.containsKey(name) ? column(name) : null);
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>(Math.max(0, to - from));
+        for (int row = from; row < to; row++) {
+            Map<String, Object> map = new LinkedHashMap<>();
+            for (int i = 0; i < names.size(); i++) {
+                Object[] column = values.get(i);
+                map.put(names.get(i), column != null ? column[row] : null);
+            }
+            result.add(map);
+        }
+        return result;
+    }
+
+    /**
+     * Освобождает отображение файла. Вызывающий гарантирует, что сегмент больше никто не читает:
+     * обращение к освобождённому отображению роняет JVM, поэтому {@link ArchiveSegmentStore} считает читателей.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        decoded.clear();
+        if (UNSAFE != null && buffer.isDirect()) {
+            UNSAFE.invokeCleaner(buffer);
+        }
+    }
+
+    private Object[] column(String name) {
+        if (closed) {
+            throw new IllegalStateException("Сегмент архива уже закрыт");
+        }
+        return decoded.computeIfAbsent(name, key -> decode(blocks.get(key)));
+    }
+
+    private Object[] decode(ColumnBlock block) {
+        if (block == null) {
+            throw new IllegalStateException("В сегменте архива нет запрошенной колонки");
+        }
+        ByteBuffer data = ByteBuffer.wrap(inflate(block));
+        Object[] values = new Object[rowCount];
+        for (int i = 0; i < rowCount; i++) {
+            values[i] = data.get() != 0 ? readValue(data, block.type()) : null;
+        }
+        return values;
+    }
+
+    private byte[] inflate(ColumnBlock block) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(buffer.slice((int) block.offset(), block.compressedLength()));
+            byte[] out = new byte[block.uncompressedLength()];
+            int read = 0;
+            while (read < out.length && !inflater.finished()) {
+                read += inflater.inflate(out, read, out.length - read);
+            }
+            return out;
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Повреждён блок колонки '" + block.name() + "' в сегменте архива", e);
+        } finally {
+            inflater.end();
+        }
+    }
+
+    /**
+     * Значение из JDBC в форму для записи: Integer, Long, BigDecimal, Boolean, String, LocalDate, LocalDateTime.
+     */
+    private static Object toStoredValue(String type, Object value) {
+        if (value == null) {
+            return null;
+        }
+        return switch (type) {
+            case "INTEGER" -> ((Number) value).intValue();
+            case "BIGINT" -> ((Number) value).longValue();
+            case "DECIMAL" -> value instanceof BigDecimal decimal ? decimal : new BigDecimal(value.toString());
+            case "BOOLEAN" -> (Boolean) value;
+            case "DATE" -> value instanceof java.sql.Date date ? date.toLocalDate() : LocalDate.parse(value.toString());
+            case "TIMESTAMP" -> value instanceof java.sql.Timestamp timestamp ? timestamp.toLocalDateTime() : LocalDateTime.parse(value.toString());
+            default -> value.toString();
+        };
+    }
+
+    private static void writeValue(DataOutputStream out, String type, Object value) throws IOException {
+        switch (type) {
+            case "INTEGER" -> out.writeInt((Integer) value);
+            case "BIGINT" -> out.writeLong((Long) value);
+            case "DECIMAL" -> writeString(out, ((BigDecimal) value).toPlainString());
+            case "BOOLEAN" -> out.writeBoolean((Boolean) value);
+            case "DATE" -> out.writeLong(((LocalDate) value).toEpochDay());
+            case "TIMESTAMP" -> {
+                LocalDateTime dateTime = (LocalDateTime) value;
+                out.writeLong(dateTime.toEpochSecond(ZoneOffset.UTC));
+                out.writeInt(dateTime.getNano());
+            }
+            default -> writeString(out, (String) value);
+        }
+    }
+
+    /**
+     * Значение в тех же Java-типах, что возвращает JDBC для горячей таблицы, чтобы JSON не отличался.
+     */
+    private static Object readValue(ByteBuffer data, String type) {
+        return switch (type) {
+            case "INTEGER" -> data.getInt();
+            case "BIGINT" -> data.getLong();
+            case "DECIMAL" -> new BigDecimal(readString(data));
+            case "BOOLEAN" -> data.get() != 0;
+            case "DATE" -> java.sql.Date.valueOf(LocalDate.ofEpochDay(data.getLong()));
+            case "TIMESTAMP" -> {
+                long seconds = data.getLong();
+                int nanos = data.getInt();
+                yield java.sql.Timestamp.valueOf(LocalDateTime.ofEpochSecond(seconds, nanos, ZoneOffset.UTC));
+            }
+            default -> readString(data);
+        };
+    }
+
+    /**
+     * Unsafe.invokeCleaner — единственный способ освободить MappedByteBuffer до сборки мусора.
+     * Без него (null) отображение освобождается, как раньше, сборщиком.
+     */
+    private static sun.misc.Unsafe loadUnsafe() {
+        try {
+            java.lang.reflect.Field field = sun.misc.Unsafe.class.getDeclaredField("theUnsafe");
+            field.setAccessible(true);
+            return (sun.misc.Unsafe) field.get(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(Math.max(64, raw.length / 4));
+        try (DeflaterOutputStream out = new DeflaterOutputStream(compressed, new Deflater(Deflater.BEST_SPEED))) {
+            out.write(raw);
+        }
+        return compressed.toByteArray();
+    }
+
+    /**
+     * Строка: длина в байтах (int) и UTF-8.
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static final class StatsCollector {
+        private final String type;
+        private int nullCount;
+        private Comparable<Object> min;
+        private Comparable<Object> max;
+        private boolean tooLong;
+
+        private StatsCollector(String type) {
+            this.type = type;
+        }
+
+        @SuppressWarnings("unchecked")
+        private void accept(Object value) {
+            if (value == null) {
+                nullCount++;
+                return;
+            }
+            if (type.equals("BOOLEAN")) {
+                return;
+            }
+            if (value instanceof String text && text.length() > MAX_TEXT_STAT_LENGTH) {
+                tooLong = true;
+                return;
+            }
+            Comparable<Object> comparable = (Comparable<Object>) value;
+            if (min == null || comparable.compareTo(min) < 0) {
+                min = comparable;
+            }
+            if (max == null || comparable.compareTo(max) > 0) {
+                max = comparable;
+            }
+        }
+
+        private ColumnStats result() {
+            if (min == null || tooLong) {
+                return new ColumnStats(type, nullCount, null, null);
+            }
+            return new ColumnStats(type, nullCount, min.toString(), max.toString());
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package com.example.flexdb.repository;
+
+import com.example.flexdb.metrics.DynamicTableMetrics;
+import com.example.flexdb.metrics.SlowQueryLog;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ArgumentPreparedStatementSetter;
+import org.springframework.jdbc.core.ColumnMapRowMapper;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Выполняет сгенерированный SQL над динамическими таблицами через JdbcTemplate
+ * и замеряет время SQL-этапа и количество прочитанных/изменённых строк.
+ * Каждый запрос также учитывается в {@link SlowQueryLog}.
+ */
+@Repository
+@RequiredArgsConstructor
+public class DynamicSqlExecutor {
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DynamicTableMetrics metrics;
+    private final SlowQueryLog slowQueryLog;
+
+    public List<Map<String, Object>> queryForList(String tableName, String operation, String sql, Object... args) {
+        List<Map<String, Object>> rows = timed(tableName, operation, sql, args, () -> jdbcTemplate.queryForList(sql, args), List::size);
+        metrics.rowsRead(tableName, rows.size());
+        return rows;
+    }
+
+    public <T> List<T> queryForRows(String tableName, String operation, String sql, RowMapper<T> rowMapper, Object... args) {
+        List<T> rows = timed(tableName, operation, sql, args, () -> jdbcTemplate.query(sql, rowMapper, args), List::size);
+        metrics.rowsRead(tableName, rows.size());
+        return rows;
+    }
+
+    /**
+     * Построчное чтение курсором по fetchSize строк, без загрузки результата в память.
+     * Курсор PostgreSQL работает только внутри транзакции.
+     * <p>
+     * Время SQL-этапа — от начала выполнения до первой строки (выполнение и первая порция курсора).
+     * Дальнейшее чтение идёт в темпе consumer (например, записи ответа клиенту), и считать его временем
+     * запроса значило бы записывать в медленные любую большую выгрузку.
+     *
+     * @return число прочитанных строк
+     */
+    public long queryForEach(String tableName, String operation, String sql, int fetchSize,
+                             Consumer<Map<String, Object>> consumer, Object... args) {
+        ColumnMapRowMapper rowMapper = new ColumnMapRowMapper();
+        long[] count = {0};
+        long start = System.nanoTime();
+        long[] firstRow = {0};
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql);
+                ps.setFetchSize(fetchSize);
+                new ArgumentPreparedStatementSetter(args).setValues(ps);
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                if (count[0] == 0) {
+                    firstRow[0] = System.nanoTime();
+                }
+                consumer.accept(rowMapper.mapRow(rs, (int) count[0]++));
+            });
+        } finally {
+            record(tableName, operation, sql, args, (count[0] > 0 ? firstRow[0] : System.nanoTime()) - start, count[0]);
+        }
+        metrics.rowsRead(tableName, count[0]);
+        return count[0];
+    }
+
+    public <T> T queryForObject(String tableName, String operation, String sql, Class<T> requiredType, Object... args) {
+        return timed(tableName, operation, sql, args, () -> jdbcTemplate.queryForObject(sql, requiredType, args), result -> 1);
+    }
+
+    public <T> T query(String tableName, String operation, String sql, Object[] args, ResultSetExtractor<T> extractor) {
+        return timed(tableName, operation, sql, args, () -> jdbcTemplate.query(sql, args, extractor), result -> 1);
+    }
+
+    public int update(String tableName, String operation, String sql, Object... args) {
+        int rows = timed(tableName, operation, sql, args, () -> jdbcTemplate.update(sql, args), Integer::longValue);
+        metrics.rowsWritten(tableName, rows);
+        return rows;
+    }
+
+    /**
+     * UPDATE ... RETURNING: изменённые строки учитываются как записанные.
+     */
+    public List<Map<String, Object>> updateReturning(String tableName, String operation, String sql, Object... args) {
+        List<Map<String, Object>> rows = timed(tableName, operation, sql, args, () -> jdbcTemplate.queryForList(sql, args), List::size);
+        metrics.rowsWritten(tableName, rows.size());
+        return rows;
+    }
+
+    public void execute(String tableName, String operation, String sql) {
+        timed(tableName, operation, sql, NO_ARGS, () -> {
+            jdbcTemplate.execute(sql);
+            return null;
+        }, result -> 0);
+    }
+
+    private <T> T timed(String tableName, String operation, String sql, Object[] args,
+                        Supplier<T> call, ToLongFunction<T> rowCount) {
+        long start = System.nanoTime();
+        T result = null;
+        try {
+            result = call.get();
+            return result;
+        } finally {
+            record(tableName, operation, sql, args, System.nanoTime() - start, result != null ? rowCount.applyAsLong(result) : 0);
+        }
+    }
+
+    private void record(String tableName, String operation, String sql, Object[] args, long elapsedNanos, long rows) {
+        metrics.recordSql(tableName, operation, elapsedNanos);
+        slowQueryLog.record(tableName, operation, sql, args, elapsedNanos, rows);
+    }
+}
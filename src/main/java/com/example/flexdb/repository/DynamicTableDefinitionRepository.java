@@ -1,12 +1,34 @@
 package com.example.flexdb.repository;
 
 import com.example.flexdb.entity.DynamicTableDefinition;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.List;
 import java.util.Optional;
 @Repository
 public interface DynamicTableDefinitionRepository extends JpaRepository<DynamicTableDefinition, Long> {
     Optional<DynamicTableDefinition> findByTableName(String tableName);
     boolean existsByTableName(String tableName);
+
+    /**
+     * Таблица вместе с колонками одним запросом — для использования вне транзакции JPA.
+     */
+    @EntityGraph(attributePaths = "columns")
+    Optional<DynamicTableDefinition> findWithColumnsByTableName(String tableName);
+
+    /**
+     * Имена таблиц в порядке создания — для прогрева при старте первых таблиц.
+     */
+    @Query("SELECT t.tableName FROM DynamicTableDefinition t ORDER BY t.id")
+    List<String> findTableNames(Pageable pageable);
+
+    @EntityGraph(attributePaths = "columns")
+    List<DynamicTableDefinition> findByRetentionColumnIsNotNull();
+
+    @EntityGraph(attributePaths = "columns")
+    List<DynamicTableDefinition> findByArchiveColumnIsNotNull();
 }
\ No newline at end of file
@@ -0,0 +1,633 @@
+package com.example.flexdb.repository;
+
+import com.example.flexdb.entity.DynamicColumnDefinition;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Динамическая таблица в памяти процесса (движок MEMORY).
+ * <p>
+ * Значения каждой колонки лежат в отдельном массиве: int[] для INTEGER, long[] для BIGINT,
+ * DATE (epochDay) и TIMESTAMP (микросекунды UTC), boolean[] для BOOLEAN, Object[] для TEXT и DECIMAL;
+ * NULL отмечаются в BitSet колонки. Строки добавляются в конец с растущим id, поэтому порядок слотов
+ * совпадает с порядком id: страница — это диапазон слотов, а не сортировка. Индекс id → слот — хеш-таблица.
+ * Удалённые слоты помечаются и вычищаются компакцией, когда их становится больше живых.
+ * <p>
+ * Чтения выполняются параллельно под блокировкой чтения, изменения — под блокировкой записи этой таблицы;
+ * разные таблицы друг друга не блокируют. Блокировка одна на таблицу, а не на группу строк: соседние строки
+ * делят слова BitSet'ов NULL и удалённых слотов, а рост массивов и компакция переносят все строки сразу,
+ * поэтому раздельные блокировки по диапазонам всё равно пришлось бы брать все вместе. Под блокировкой
+ * выполняется только копирование значений (приведение типов — до неё, выгрузка — порциями), так что
+ * она держится микросекунды. Значения возвращаются в тех же Java-типах, что JDBC для таблицы PostgreSQL.
+ */
+public final class InMemoryTable {
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int MIN_DELETED_FOR_COMPACTION = 1024;
+    private static final int EXPORT_CHUNK_ROWS = 1000;
+
+    private final List<DynamicColumnDefinition> definitions;
+    private final Map<String, Column> columns = new LinkedHashMap<>();
+    private final List<String> allColumnNames;
+    private final int maxRows;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> index = new HashMap<>();
+    private final BitSet deleted = new BitSet();
+    private long[] ids = new long[INITIAL_CAPACITY];
+    private int size;
+    private int deletedCount;
+    private long nextId = 1;
+    private long version;
+
+    public InMemoryTable(List<DynamicColumnDefinition> definitions, int maxRows) {
+        this.definitions = List.copyOf(definitions);
+        this.maxRows = maxRows;
+
+        List<String> names = new ArrayList<>();
+        names.add("id");
+        for (DynamicColumnDefinition definition : this.definitions) {
+            if (definition.isPrimaryKeyInternal()) continue;
+            columns.put(definition.getColumnName(), Column.of(definition.getColumnName(), definition.getColumnType()));
+            names.add(definition.getColumnName());
+        }
+        this.allColumnNames = List.copyOf(names);
+    }
+
+    public List<DynamicColumnDefinition> definitions() {
+        return definitions;
+    }
+
+    /**
+     * Счётчик изменений: по нему снимок пишется только для изменившихся таблиц.
+     */
+    public long version() {
+        lock.readLock().lock();
+        try {
+            return version;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int count() {
+        lock.readLock().lock();
+        try {
+            return size - deletedCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Добавляет строку и возвращает её id. Значения приводятся к типам колонок до захвата блокировки.
+     */
+    public long insert(Map<String, Object> data) {
+        Map<String, Object> encoded = encode(data);
+
+        lock.writeLock().lock();
+        try {
+            if (size - deletedCount >= maxRows) {
+                throw new IllegalArgumentException("Таблица в памяти заполнена: не больше " + maxRows + " строк");
+            }
+            long id = nextId++;
+            append(id, encoded);
+            return id;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Восстанавливает строки из снимка с их id; следующий id — после наибольшего восстановленного.
+     */
+    public void restore(List<Map<String, Object>> rows) {
+        lock.writeLock().lock();
+        try {
+            for (Map<String, Object> row : rows) {
+                long id = ((Number) row.get("id")).longValue();
+                append(id, encode(row));
+                nextId = Math.max(nextId, id + 1);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Optional<Map<String, Object>> get(long id, List<String> columnNames) {
+        lock.readLock().lock();
+        try {
+            Integer slot = index.get(id);
+            return slot == null ? Optional.empty() : Optional.of(row(slot, names(columnNames)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Изменяет переданные колонки строки.
+     *
+     * @return false, если строки нет
+     */
+    public boolean update(long id, Map<String, Object> data) {
+        Map<String, Object> encoded = encode(data);
+
+        lock.writeLock().lock();
+        try {
+            Integer slot = index.get(id);
+            if (slot == null) {
+                return false;
+            }
+            encoded.forEach((name, value) -> columns.get(name).put(slot, value));
+            version++;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Прибавляет приращения к числовым колонкам (NULL считается нулём) и возвращает строку после изменения.
+     * Все новые значения вычисляются до записи, поэтому при переполнении строка не меняется.
+     */
+    public Optional<Map<String, Object>> increment(long id, Map<String, Number> deltas) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = index.get(id);
+            if (slot == null) {
+                return Optional.empty();
+            }
+
+            Map<String, Object> updated = new LinkedHashMap<>();
+            deltas.forEach((name, delta) -> updated.put(name, columns.get(name).plus(slot, delta)));
+            updated.forEach((name, value) -> columns.get(name).put(slot, value));
+            version++;
+            return Optional.of(row(slot, allColumnNames));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return false, если строки нет
+     */
+    public boolean delete(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer slot = index.remove(id);
+            if (slot == null) {
+                return false;
+            }
+            deleted.set(slot);
+            deletedCount++;
+            columns.values().forEach(column -> column.put(slot, null));
+            version++;
+
+            if (deletedCount >= MIN_DELETED_FOR_COMPACTION && deletedCount > size - deletedCount) {
+                compact();
+            }
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Страница строк в порядке id. Без удалённых строк смещение — это сразу номер слота.
+     */
+    public List<Map<String, Object>> page(int offset, int limit, List<String> columnNames) {
+        List<String> names = names(columnNames);
+
+        lock.readLock().lock();
+        try {
+            List<Map<String, Object>> result = new ArrayList<>(Math.min(limit, Math.max(0, size - offset)));
+            int slot = deletedCount == 0 ? offset : skipLive(offset);
+            for (; slot < size && result.size() < limit; slot = deleted.nextClearBit(slot + 1)) {
+                if (!deleted.get(slot)) {
+                    result.add(row(slot, names));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Передаёт все строки в consumer порциями; блокировка держится только на время копирования порции,
+     * поэтому медленный получатель не задерживает запись в таблицу.
+     */
+    public void forEach(List<String> columnNames, Consumer<Map<String, Object>> consumer) {
+        List<String> names = names(columnNames);
+        // id нужен, чтобы продолжить выгрузку со следующей порции, даже если его нет в проекции
+        boolean stripId = !names.contains("id");
+        List<String> withId = stripId ? prepend("id", names) : names;
+        long afterId = 0;
+        while (true) {
+            List<Map<String, Object>> chunk = rowsAfter(afterId, EXPORT_CHUNK_ROWS, withId);
+            if (chunk.isEmpty()) {
+                return;
+            }
+            afterId = ((Number) chunk.get(chunk.size() - 1).get("id")).longValue();
+            for (Map<String, Object> row : chunk) {
+                if (stripId) {
+                    row.remove("id");
+                }
+                consumer.accept(row);
+            }
+            if (chunk.size() < EXPORT_CHUNK_ROWS) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Все строки со всеми колонками — для снимка на диск.
+     */
+    public List<Map<String, Object>> snapshotRows() {
+        return rowsAfter(0, Integer.MAX_VALUE, allColumnNames);
+    }
+
+    private List<Map<String, Object>> rowsAfter(long afterId, int limit, List<String> names) {
+        lock.readLock().lock();
+        try {
+            List<Map<String, Object>> result = new ArrayList<>(Math.min(limit, size));
+            for (int slot = firstSlotAfter(afterId); slot < size && result.size() < limit; slot++) {
+                if (!deleted.get(slot)) {
+                    result.add(row(slot, names));
+                }
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Первый слот с id больше afterId: id в слотах возрастают, поэтому двоичный поиск.
+     */
+    private int firstSlotAfter(long afterId) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (ids[mid] <= afterId) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int skipLive(int offset) {
+        int slot = deleted.nextClearBit(0);
+        for (int skipped = 0; skipped < offset && slot < size; skipped++) {
+            slot = deleted.nextClearBit(slot + 1);
+        }
+        return slot;
+    }
+
+    private void append(long id, Map<String, Object> encoded) {
+        if (index.containsKey(id)) {
+            throw new IllegalStateException("Повторяющийся id " + id + " в таблице в памяти");
+        }
+        if (size == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            columns.values().forEach(column -> column.grow(capacity));
+        }
+        int slot = size++;
+        ids[slot] = id;
+        for (Map.Entry<String, Column> entry : columns.entrySet()) {
+            entry.getValue().put(slot, encoded.get(entry.getKey()));
+        }
+        index.put(id, slot);
+        version++;
+    }
+
+    /**
+     * Сдвигает живые строки к началу массивов и перестраивает индекс.
+     */
+    private void compact() {
+        int target = 0;
+        for (int slot = 0; slot < size; slot++) {
+            if (deleted.get(slot)) continue;
+            if (target != slot) {
+                ids[target] = ids[slot];
+                for (Column column : columns.values()) {
+                    column.move(slot, target);
+                }
+                index.put(ids[target], target);
+            }
+            target++;
+        }
+        for (int slot = target; slot < size; slot++) {
+            for (Column column : columns.values()) {
+                column.put(slot, null);
+            }
+        }
+        size = target;
+        deleted.clear();
+        deletedCount = 0;
+    }
+
+    private Map<String, Object> row(int slot, List<String> names) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        for (String name : names) {
+            row.put(name, name.equals("id") ? (Object) ids[slot] : columns.get(name).get(slot));
+        }
+        return row;
+    }
+
+    private List<String> names(List<String> columnNames) {
+        return columnNames == null || columnNames.isEmpty() ? allColumnNames : columnNames;
+    }
+
+    private Map<String, Object> encode(Map<String, Object> data) {
+        Map<String, Object> encoded = new HashMap<>();
+        data.forEach((name, value) -> {
+            Column column = columns.get(name);
+            if (column != null) {
+                encoded.put(name, value == null ? null : column.encode(value));
+            }
+        });
+        return encoded;
+    }
+
+    private static List<String> prepend(String first, List<String> rest) {
+        List<String> result = new ArrayList<>(rest.size() + 1);
+        result.add(first);
+        result.addAll(rest);
+        return result;
+    }
+
+    /**
+     * Массив значений одной колонки. Значения хранятся в «закодированном» виде (Integer, Long, Boolean, String,
+     * BigDecimal), get возвращает их в JDBC-типах колонки.
+     */
+    private abstract static class Column {
+        final String name;
+        final BitSet nulls = new BitSet();
+
+        Column(String name) {
+            this.name = name;
+        }
+
+        static Column of(String name, String type) {
+            return switch (type.toUpperCase()) {
+                case "INTEGER" -> new IntColumn(name);
+                case "BIGINT", "DATE", "TIMESTAMP" -> new LongColumn(name, type.toUpperCase());
+                case "BOOLEAN" -> new BooleanColumn(name);
+                case "DECIMAL" -> new ObjectColumn(name, true);
+                default -> new ObjectColumn(name, false);
+            };
+        }
+
+        void put(int slot, Object encoded) {
+            if (encoded == null) {
+                nulls.set(slot);
+                clear(slot);
+            } else {
+                nulls.clear(slot);
+                set(slot, encoded);
+            }
+        }
+
+        Object get(int slot) {
+            return nulls.get(slot) ? null : decode(slot);
+        }
+
+        void move(int from, int to) {
+            nulls.set(to, nulls.get(from));
+            copy(from, to);
+        }
+
+        Object plus(int slot, Number delta) {
+            throw new IllegalArgumentException("Колонка '" + name + "' не числовая");
+        }
+
+        abstract Object encode(Object value);
+
+        abstract void set(int slot, Object encoded);
+
+        abstract Object decode(int slot);
+
+        abstract void copy(int from, int to);
+
+        abstract void grow(int capacity);
+
+        void clear(int slot) {
+        }
+    }
+
+    private static final class IntColumn extends Column {
+        private int[] values = new int[INITIAL_CAPACITY];
+
+        IntColumn(String name) {
+            super(name);
+        }
+
+        @Override
+        Object encode(Object value) {
+            return ((Number) value).intValue();
+        }
+
+        @Override
+        void set(int slot, Object encoded) {
+            values[slot] = (Integer) encoded;
+        }
+
+        @Override
+        Object decode(int slot) {
+            return values[slot];
+        }
+
+        @Override
+        Object plus(int slot, Number delta) {
+            long current = nulls.get(slot) ? 0 : values[slot];
+            try {
+                return Math.toIntExact(Math.addExact(current, delta.longValue()));
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Переполнение INTEGER в колонке '" + name + "'");
+            }
+        }
+
+        @Override
+        void copy(int from, int to) {
+            values[to] = values[from];
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    /**
+     * BIGINT как есть, DATE — epochDay, TIMESTAMP — микросекунды от эпохи (время без зоны считается UTC).
+     */
+    private static final class LongColumn extends Column {
+        private final String type;
+        private long[] values = new long[INITIAL_CAPACITY];
+
+        LongColumn(String name, String type) {
+            super(name);
+            this.type = type;
+        }
+
+        @Override
+        Object encode(Object value) {
+            try {
+                return switch (type) {
+                    case "DATE" -> value instanceof java.sql.Date date
+                            ? date.toLocalDate().toEpochDay()
+                            : LocalDate.parse(value.toString()).toEpochDay();
+                    case "TIMESTAMP" -> {
+                        LocalDateTime dateTime = value instanceof java.sql.Timestamp timestamp
+                                ? timestamp.toLocalDateTime()
+                                : LocalDateTime.parse(value.toString().replace(' ', 'T'));
+                        yield dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000;
+                    }
+                    default -> ((Number) value).longValue();
+                };
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Колонка '" + name + "' ожидает " + type + " в формате ISO-8601, но получено: '" + value + "'");
+            }
+        }
+
+        @Override
+        void set(int slot, Object encoded) {
+            values[slot] = (Long) encoded;
+        }
+
+        @Override
+        Object decode(int slot) {
+            long value = values[slot];
+            return switch (type) {
+                case "DATE" -> java.sql.Date.valueOf(LocalDate.ofEpochDay(value));
+                case "TIMESTAMP" -> java.sql.Timestamp.valueOf(LocalDateTime.ofEpochSecond(
+                        Math.floorDiv(value, 1_000_000), (int) Math.floorMod(value, 1_000_000) * 1_000, ZoneOffset.UTC));
+                default -> value;
+            };
+        }
+
+        @Override
+        Object plus(int slot, Number delta) {
+            if (!type.equals("BIGINT")) {
+                return super.plus(slot, delta);
+            }
+            long current = nulls.get(slot) ? 0 : values[slot];
+            try {
+                return Math.addExact(current, delta.longValue());
+            } catch (ArithmeticException e) {
+                throw new IllegalArgumentException("Переполнение BIGINT в колонке '" + name + "'");
+            }
+        }
+
+        @Override
+        void copy(int from, int to) {
+            values[to] = values[from];
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static final class BooleanColumn extends Column {
+        private boolean[] values = new boolean[INITIAL_CAPACITY];
+
+        BooleanColumn(String name) {
+            super(name);
+        }
+
+        @Override
+        Object encode(Object value) {
+            return (Boolean) value;
+        }
+
+        @Override
+        void set(int slot, Object encoded) {
+            values[slot] = (Boolean) encoded;
+        }
+
+        @Override
+        Object decode(int slot) {
+            return values[slot];
+        }
+
+        @Override
+        void copy(int from, int to) {
+            values[to] = values[from];
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    /**
+     * TEXT (String) и DECIMAL (BigDecimal). Освобождённые слоты обнуляются, чтобы не держать значения в памяти.
+     */
+    private static final class ObjectColumn extends Column {
+        private final boolean decimal;
+        private Object[] values = new Object[INITIAL_CAPACITY];
+
+        ObjectColumn(String name, boolean decimal) {
+            super(name);
+            this.decimal = decimal;
+        }
+
+        @Override
+        Object encode(Object value) {
+            if (!decimal) {
+                return value.toString();
+            }
+            return value instanceof BigDecimal number ? number : new BigDecimal(value.toString());
+        }
+
+        @Override
+        void set(int slot, Object encoded) {
+            values[slot] = encoded;
+        }
+
+        @Override
+        Object decode(int slot) {
+            return values[slot];
+        }
+
+        @Override
+        Object plus(int slot, Number delta) {
+            if (!decimal) {
+                return super.plus(slot, delta);
+            }
+            BigDecimal current = nulls.get(slot) ? BigDecimal.ZERO : (BigDecimal) values[slot];
+            return current.add(delta instanceof BigDecimal number ? number : BigDecimal.valueOf(delta.longValue()));
+        }
+
+        @Override
+        void clear(int slot) {
+            values[slot] = null;
+        }
+
+        @Override
+        void copy(int from, int to) {
+            values[to] = values[from];
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+}
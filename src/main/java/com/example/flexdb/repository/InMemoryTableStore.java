@@ -0,0 +1,125 @@
+package com.example.flexdb.repository;
+
+import com.example.flexdb.config.MemoryTableProperties;
+import com.example.flexdb.entity.DynamicTableDefinition;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Таблицы движка MEMORY по имени.
+ * <p>
+ * При {@code flexdb.memory.snapshot-enabled} изменившиеся таблицы периодически и при остановке сохраняются
+ * в {@code flexdb.memory.snapshot-directory} в формате {@link ColumnarSegmentFile}, а после рестарта
+ * поднимаются из снимка при первом обращении. Изменения после последнего снимка теряются; следующий id
+ * после восстановления — за наибольшим сохранённым.
+ */
+@Repository
+@Slf4j
+public class InMemoryTableStore implements DisposableBean {
+
+    private static final String SNAPSHOT_SUFFIX = ".fxseg";
+
+    private final MemoryTableProperties properties;
+    private final Path root;
+    private final Map<String, InMemoryTable> tables = new ConcurrentHashMap<>();
+    private final Map<String, Long> snapshotVersions = new ConcurrentHashMap<>();
+
+    public InMemoryTableStore(MemoryTableProperties properties) {
+        this.properties = properties;
+        this.root = Paths.get(properties.getSnapshotDirectory()).toAbsolutePath();
+    }
+
+    /**
+     * Удаляет старый снимок с именем создаваемой таблицы. Вызывается до фиксации транзакции создания:
+     * после неё таблицу уже могут запросить, и она не должна подняться из чужого снимка.
+     */
+    public void discardSnapshot(String tableName) {
+        snapshotVersions.remove(tableName);
+        try {
+            Files.deleteIfExists(snapshotPath(tableName));
+        } catch (IOException e) {
+            log.warn("Не удалось удалить старый снимок таблицы '{}': {}", tableName, e.getMessage());
+        }
+    }
+
+    /**
+     * Регистрирует пустую таблицу для определения, создание которого зафиксировано. Если между фиксацией
+     * и регистрацией таблицу уже запросили, остаётся та, что создана запросом, — вместе с её строками.
+     */
+    public InMemoryTable register(DynamicTableDefinition definition) {
+        return tables.computeIfAbsent(definition.getTableName(),
+                name -> new InMemoryTable(definition.getColumns(), properties.getMaxRowsPerTable()));
+    }
+
+    /**
+     * Таблица по определению; после рестарта загружается из снимка (если снимки включены) или создаётся пустой.
+     */
+    public InMemoryTable table(DynamicTableDefinition definition) {
+        return tables.computeIfAbsent(definition.getTableName(), name -> load(definition));
+    }
+
+    /**
+     * Уже зарегистрированная таблица: без определения и без обращения к БД. После рестарта пусто,
+     * пока таблицу не запросят через {@link #table}.
+     */
+    public Optional<InMemoryTable> find(String tableName) {
+        return Optional.ofNullable(tables.get(tableName));
+    }
+
+    /**
+     * Сохраняет таблицы, изменившиеся с прошлого снимка.
+     */
+    public void snapshotChanged() {
+        tables.forEach((name, table) -> {
+            long version = table.version();
+            if (snapshotVersions.getOrDefault(name, -1L) == version) {
+                return;
+            }
+            try {
+                Files.createDirectories(root);
+                ColumnarSegmentFile.write(snapshotPath(name), table.definitions(), table.snapshotRows());
+                snapshotVersions.put(name, version);
+            } catch (IOException | RuntimeException e) {
+                log.warn("❌ Не удалось сохранить снимок таблицы '{}': {}", name, e.getMessage());
+            }
+        });
+    }
+
+    @Override
+    public void destroy() {
+        if (properties.isSnapshotEnabled()) {
+            snapshotChanged();
+        }
+    }
+
+    private InMemoryTable load(DynamicTableDefinition definition) {
+        InMemoryTable table = new InMemoryTable(definition.getColumns(), properties.getMaxRowsPerTable());
+        Path snapshot = snapshotPath(definition.getTableName());
+        if (!properties.isSnapshotEnabled() || !Files.exists(snapshot)) {
+            return table;
+        }
+
+        try (ColumnarSegmentFile file = ColumnarSegmentFile.open(snapshot)) {
+            table.restore(file.rows(0, file.rowCount(), null));
+            snapshotVersions.put(definition.getTableName(), table.version());
+            log.info("Таблица в памяти '{}' восстановлена из снимка: {} строк", definition.getTableName(), file.rowCount());
+            return table;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Не удалось прочитать снимок таблицы " + definition.getTableName(), e);
+        }
+    }
+
+    private Path snapshotPath(String tableName) {
+        return root.resolve(tableName + SNAPSHOT_SUFFIX);
+    }
+}
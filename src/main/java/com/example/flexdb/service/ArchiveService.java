@@ -0,0 +1,40 @@
+package com.example.flexdb.service;
+
+import com.example.flexdb.dto.ArchivePolicyDto;
+import com.example.flexdb.dto.ArchivePolicyRequest;
+import com.example.flexdb.entity.ArchiveSegment;
+import com.example.flexdb.entity.DynamicTableDefinition;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+public interface ArchiveService {
+
+    ArchivePolicyDto setPolicy(String tableName, ArchivePolicyRequest request);
+
+    ArchivePolicyDto getPolicy(String tableName);
+
+    void deletePolicy(String tableName);
+
+    /**
+     * Немедленный проход архивации одной таблицы.
+     */
+    ArchivePolicyDto archiveNow(String tableName);
+
+    void archiveExpiredRows();
+
+    Optional<Map<String, Object>> findArchivedRow(DynamicTableDefinition table, Long id, List<String> columns);
+
+    /**
+     * Сегменты архива таблицы по min id. В транзакции REPEATABLE READ список согласован со строками таблицы,
+     * прочитанными в ней же: порция архивации регистрирует сегмент и удаляет строки одной транзакцией.
+     */
+    List<ArchiveSegment> findSegments(DynamicTableDefinition table);
+
+    /**
+     * Строки сегментов с id больше afterId в порядке id, не больше limit.
+     * Диапазоны id сегментов могут пересекаться, поэтому строки сливаются по id, а не по порядку сегментов.
+     */
+    List<Map<String, Object>> readArchivedRows(String tableName, List<ArchiveSegment> segments, long afterId, int limit, List<String> columns);
+}
@@ -0,0 +1,9 @@
+package com.example.flexdb.service;
+
+import com.example.flexdb.dto.BatchRequest;
+import com.example.flexdb.dto.BatchResponse;
+
+public interface DynamicBatchService {
+
+    BatchResponse executeBatch(BatchRequest request);
+}
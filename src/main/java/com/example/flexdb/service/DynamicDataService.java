@@ -1,18 +1,34 @@
 package com.example.flexdb.service;
 
 import com.example.flexdb.dto.PaginatedResponse;
+import com.example.flexdb.enums.SupportedColumnType;
 
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 public interface DynamicDataService {
 
     Map<String, Object> insertRow(String tableName, Map<String, Object> data);
 
-    PaginatedResponse getPaginatedData(String tableName, int page, int size);
+    PaginatedResponse getPaginatedData(String tableName, int page, int size, List<String> fields, boolean includeArchived);
 
-    Map<String, Object> getRowById(String tableName, Long id);
+    Map<String, Object> getRowById(String tableName, Long id, List<String> fields);
 
     Map<String, Object> updateRow(String tableName, Long id, Map<String, Object> data);
 
+    Map<String, Object> incrementRow(String tableName, Long id, Map<String, Object> deltas);
+
     void deleteById(String tableName, Long id);
+
+    /**
+     * Передаёт все строки таблицы в consumer по одной (горячие, затем архивные при includeArchived).
+     */
+    void exportRows(String tableName, List<String> fields, boolean includeArchived, Consumer<Map<String, Object>> consumer);
+
+    /**
+     * Типы колонок проекции fields в порядке колонок выборки (id первым); пустой fields — все колонки.
+     * Нужны форматам, которые пишут схему до первой строки.
+     */
+    Map<String, SupportedColumnType> describeColumns(String tableName, List<String> fields);
 }
@@ -3,15 +3,13 @@ package com.example.flexdb.service;
 
 import com.example.flexdb.dto.CreateTableRequest;
 import com.example.flexdb.dto.CreatedTableResponse;
-import com.example.flexdb.dto.TableSummaryDto;
-
-import java.util.List;
+import com.example.flexdb.dto.TableSummaryPage;
 
 public interface DynamicTableService {
     CreatedTableResponse createDynamicTable(CreateTableRequest request);
 
     CreatedTableResponse getTableSchema(String tableName);
 
-    List<TableSummaryDto> getAllTableSummaries();
+    TableSummaryPage getTableSummaries(int page, int size, String namePrefix, boolean includeStats);
 }
 
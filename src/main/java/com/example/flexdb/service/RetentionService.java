@@ -0,0 +1,15 @@
+package com.example.flexdb.service;
+
+import com.example.flexdb.dto.RetentionPolicyDto;
+import com.example.flexdb.dto.RetentionPolicyRequest;
+
+public interface RetentionService {
+
+    RetentionPolicyDto setPolicy(String tableName, RetentionPolicyRequest request);
+
+    RetentionPolicyDto getPolicy(String tableName);
+
+    void deletePolicy(String tableName);
+
+    void purgeExpiredRows();
+}
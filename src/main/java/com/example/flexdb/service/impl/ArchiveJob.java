@@ -0,0 +1,25 @@
+package com.example.flexdb.service.impl;
+
+import com.example.flexdb.config.ArchiveProperties;
+import com.example.flexdb.service.ArchiveService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Периодический перенос старых строк в архив.
+ */
+@Component
+@RequiredArgsConstructor
+public class ArchiveJob {
+
+    private final ArchiveService archiveService;
+    private final ArchiveProperties properties;
+
+    @Scheduled(initialDelayString = "${flexdb.archive.interval:5m}", fixedDelayString = "${flexdb.archive.interval:5m}")
+    public void archiveExpiredRows() {
+        if (properties.isEnabled()) {
+            archiveService.archiveExpiredRows();
+        }
+    }
+}
@@ -0,0 +1,355 @@
+package com.example.flexdb.service.impl;
+
+import com.example.flexdb.config.ArchiveProperties;
+import com.example.flexdb.dto.ArchivePolicyDto;
+import com.example.flexdb.dto.ArchivePolicyRequest;
+import com.example.flexdb.dto.ArchiveSegmentDto;
+import com.example.flexdb.entity.ArchiveSegment;
+import com.example.flexdb.entity.DynamicColumnDefinition;
+import com.example.flexdb.entity.DynamicTableDefinition;
+import com.example.flexdb.enums.StorageEngine;
+import com.example.flexdb.exception.ResourceNotFoundException;
+import com.example.flexdb.metrics.DynamicTableMetrics;
+import com.example.flexdb.repository.ArchiveSegmentRepository;
+import com.example.flexdb.repository.ArchiveSegmentStore;
+import com.example.flexdb.repository.ColumnarSegmentFile;
+import com.example.flexdb.repository.DynamicSqlExecutor;
+import com.example.flexdb.repository.DynamicTableDefinitionRepository;
+import com.example.flexdb.service.ArchiveService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Перенос старых строк динамических таблиц в колоночные сегменты на диске ({@link ColumnarSegmentFile})
+ * и чтение архивных строк для getRowById, списка и экспорта. Статистика колонок сегмента хранится
+ * в app_archive_segments, поэтому описание политики не открывает файлы.
+ * <p>
+ * Одна порция архивации — одна транзакция: строки выбираются с FOR UPDATE SKIP LOCKED, записываются в файл,
+ * сегмент регистрируется в app_archive_segments, строки удаляются из таблицы. При откате транзакции файл удаляется,
+ * так что строка всегда находится либо в таблице, либо в зарегистрированном сегменте.
+ * <p>
+ * Архив только для чтения: updateRow, deleteById и инкремент работают лишь с горячей таблицей.
+ * <p>
+ * Порции отбираются по колонке политики, поэтому по ней строится индекс, как для политики хранения;
+ * методы изменения политики не транзакционные из-за CREATE INDEX CONCURRENTLY.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class ArchiveServiceImpl implements ArchiveService {
+
+    private final DynamicTableDefinitionRepository tableRepo;
+    private final ArchiveSegmentRepository segmentRepo;
+    private final ArchiveSegmentStore segmentStore;
+    private final DynamicSqlExecutor sqlExecutor;
+    private final ArchiveProperties properties;
+    private final DynamicTableMetrics metrics;
+    private final PageResultCache pageCache;
+    private final TransactionTemplate transactionTemplate;
+    private final ColumnIndexManager indexManager;
+
+    @Override
+    public ArchivePolicyDto setPolicy(String tableName, ArchivePolicyRequest request) {
+        log.info("Политика архивации для таблицы '{}': через {} дней по колонке '{}'", tableName, request.getDays(), request.getColumn());
+
+        DynamicTableDefinition table = findTable(tableName);
+        if (table.getStorageEngine() == StorageEngine.MEMORY) {
+            throw new IllegalArgumentException("Архивация недоступна для таблицы в памяти '" + tableName + "'");
+        }
+        DynamicColumnDefinition column = table.getColumns().stream()
+                .filter(col -> col.getColumnName().equals(request.getColumn()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Неизвестная колонка: '" + request.getColumn() + "'"));
+
+        String type = column.getColumnType().toUpperCase();
+        if (!type.equals("TIMESTAMP") && !type.equals("DATE")) {
+            throw new IllegalArgumentException("Архивация возможна только по колонке TIMESTAMP или DATE, а '"
+                    + column.getColumnName() + "' имеет тип " + column.getColumnType());
+        }
+
+        boolean partitioned = indexManager.isPartitioned(tableName, "setArchivePolicy");
+        String previousColumn = table.getArchiveColumn();
+        if (previousColumn != null && !previousColumn.equals(column.getColumnName())) {
+            indexManager.dropIndex(tableName, "setArchivePolicy", indexName(tableName, previousColumn), partitioned);
+        }
+        // Без индекса каждая порция архивации читала бы всю таблицу в поисках строк старше порога
+        indexManager.ensureIndex(tableName, "setArchivePolicy", indexName(tableName, column.getColumnName()),
+                column.getColumnName(), partitioned);
+
+        table.setArchiveColumn(column.getColumnName());
+        table.setArchiveAfterDays(request.getDays());
+        tableRepo.save(table);
+
+        return toDto(table);
+    }
+
+    @Override
+    public ArchivePolicyDto getPolicy(String tableName) {
+        return toDto(findTable(tableName));
+    }
+
+    /**
+     * Снимает политику; уже созданные сегменты остаются доступны для чтения.
+     */
+    @Override
+    public void deletePolicy(String tableName) {
+        log.info("Удаление политики архивации таблицы '{}'", tableName);
+
+        DynamicTableDefinition table = findTable(tableName);
+        if (table.getArchiveColumn() == null) {
+            throw new ResourceNotFoundException("Для таблицы '" + tableName + "' политика архивации не задана");
+        }
+        indexManager.dropIndex(tableName, "deleteArchivePolicy", indexName(tableName, table.getArchiveColumn()),
+                indexManager.isPartitioned(tableName, "deleteArchivePolicy"));
+        table.setArchiveColumn(null);
+        table.setArchiveAfterDays(null);
+        tableRepo.save(table);
+    }
+
+    @Override
+    public ArchivePolicyDto archiveNow(String tableName) {
+        DynamicTableDefinition table = findTable(tableName);
+        if (table.getArchiveColumn() == null) {
+            throw new IllegalArgumentException("Для таблицы '" + tableName + "' политика архивации не задана");
+        }
+        archiveTable(table);
+        return toDto(table);
+    }
+
+    @Override
+    public void archiveExpiredRows() {
+        for (DynamicTableDefinition table : tableRepo.findByArchiveColumnIsNotNull()) {
+            try {
+                archiveTable(table);
+            } catch (RuntimeException e) {
+                log.warn("❌ Архивация таблицы '{}' не удалась: {}", table.getTableName(), e.getMessage());
+            }
+        }
+    }
+
+    @Override
+    public Optional<Map<String, Object>> findArchivedRow(DynamicTableDefinition table, Long id, List<String> columns) {
+        for (ArchiveSegment segment : segmentRepo.findCovering(table.getId(), id)) {
+            try (ArchiveSegmentStore.Lease lease = segmentStore.open(segment.getFileName())) {
+                int index = lease.file().indexOfId(id);
+                if (index >= 0) {
+                    metrics.archiveRows(table.getTableName(), "read", 1);
+                    return Optional.of(lease.file().rows(index, index + 1, columns).get(0));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    @Override
+    public List<ArchiveSegment> findSegments(DynamicTableDefinition table) {
+        return segmentRepo.findByTableDefinitionIdOrderByMinIdAsc(table.getId());
+    }
+
+    /**
+     * Слияние сегментов по id через очередь с приоритетом. Сегмент открывается, только когда его min id
+     * оказывается в голове очереди, поэтому сегменты целиком до afterId или после последней строки не читаются.
+     * Выбранные строки каждого сегмента идут подряд и читаются из файла одним диапазоном.
+     */
+    @Override
+    public List<Map<String, Object>> readArchivedRows(String tableName, List<ArchiveSegment> segments, long afterId, int limit,
+                                                      List<String> columns) {
+        PriorityQueue<SegmentCursor> queue = new PriorityQueue<>(Comparator.comparingLong(SegmentCursor::nextId));
+        for (ArchiveSegment segment : segments) {
+            if (segment.getMaxId() > afterId) {
+                queue.add(new SegmentCursor(segment));
+            }
+        }
+
+        List<SegmentCursor> opened = new ArrayList<>();
+        List<SegmentCursor> picks = new ArrayList<>(Math.min(limit, 1024));
+        try {
+            while (picks.size() < limit && !queue.isEmpty()) {
+                SegmentCursor cursor = queue.poll();
+                if (cursor.lease == null) {
+                    cursor.open(segmentStore, afterId);
+                    opened.add(cursor);
+                } else {
+                    picks.add(cursor);
+                    cursor.position++;
+                }
+                if (cursor.hasNext()) {
+                    queue.add(cursor);
+                }
+            }
+
+            for (SegmentCursor cursor : opened) {
+                cursor.pending = cursor.lease.file().rows(cursor.start, cursor.position, columns).iterator();
+            }
+            List<Map<String, Object>> result = new ArrayList<>(picks.size());
+            for (SegmentCursor cursor : picks) {
+                result.add(cursor.pending.next());
+            }
+            metrics.archiveRows(tableName, "read", result.size());
+            return result;
+        } finally {
+            opened.forEach(cursor -> cursor.lease.close());
+        }
+    }
+
+    private void archiveTable(DynamicTableDefinition table) {
+        Object cutoff = cutoff(table);
+        long moved = 0;
+        int segments = 0;
+
+        for (int i = 0; i < properties.getMaxSegmentsPerRun(); i++) {
+            Integer rows = transactionTemplate.execute(status -> archiveChunk(table, cutoff));
+            if (rows == null || rows == 0) {
+                break;
+            }
+            moved += rows;
+            segments++;
+            if (rows < properties.getSegmentRows()) {
+                break;
+            }
+        }
+
+        if (moved > 0) {
+            log.info("📦 Таблица '{}': в архив перенесено строк {}, сегментов {}", table.getTableName(), moved, segments);
+        }
+    }
+
+    private int archiveChunk(DynamicTableDefinition table, Object cutoff) {
+        String tableName = table.getTableName();
+        String selectSql = String.format(
+                "SELECT * FROM \"%s\" WHERE \"%s\" < ? ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED",
+                tableName, table.getArchiveColumn());
+        List<Map<String, Object>> rows = sqlExecutor.queryForList(tableName, "archiveRows", selectSql, cutoff, properties.getSegmentRows());
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        Long[] ids = rows.stream().map(row -> ((Number) row.get("id")).longValue()).toArray(Long[]::new);
+        long minId = ids[0];
+        long maxId = ids[ids.length - 1];
+        String fileName = tableName + "/" + tableName + "-" + minId + "-" + maxId + "-" + System.currentTimeMillis() + ".fxseg";
+
+        ColumnarSegmentFile.WriteResult written = segmentStore.write(fileName, table.getColumns(), rows);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    segmentStore.delete(fileName);
+                }
+            }
+        });
+
+        ArchiveSegment segment = new ArchiveSegment();
+        segment.setTableDefinition(tableRepo.getReferenceById(table.getId()));
+        segment.setFileName(fileName);
+        segment.setRowCount(rows.size());
+        segment.setMinId(minId);
+        segment.setMaxId(maxId);
+        segment.setSizeBytes(written.sizeBytes());
+        segment.setColumnStats(written.columns());
+        segmentRepo.save(segment);
+
+        String deleteSql = String.format("DELETE FROM \"%s\" WHERE id = ANY (?)", tableName);
+        sqlExecutor.update(tableName, "archiveRows", deleteSql, new Object[]{ids});
+        metrics.archiveRows(tableName, "archived", rows.size());
+        pageCache.invalidate(tableName);
+        return rows.size();
+    }
+
+    /**
+     * Порог в типе колонки: LocalDate для DATE, LocalDateTime для TIMESTAMP.
+     */
+    private static Object cutoff(DynamicTableDefinition table) {
+        boolean dateColumn = table.getColumns().stream()
+                .anyMatch(col -> col.getColumnName().equals(table.getArchiveColumn()) && "DATE".equalsIgnoreCase(col.getColumnType()));
+        return dateColumn
+                ? LocalDate.now().minusDays(table.getArchiveAfterDays())
+                : LocalDateTime.now().minusDays(table.getArchiveAfterDays());
+    }
+
+    private static String indexName(String tableName, String column) {
+        return ColumnIndexManager.indexName(tableName, column, "archive_idx");
+    }
+
+    private DynamicTableDefinition findTable(String tableName) {
+        return metrics.recordMetadataLookup(tableName, "archivePolicy", () -> tableRepo.findWithColumnsByTableName(tableName))
+                .orElseThrow(() -> new ResourceNotFoundException("Таблица '" + tableName + "' не найдена"));
+    }
+
+    /**
+     * Статистика из app_archive_segments; сегменту, созданному до неё, она один раз дописывается из футера файла.
+     */
+    private Map<String, ColumnarSegmentFile.ColumnStats> columnStats(ArchiveSegment segment) {
+        if (segment.getColumnStats() == null) {
+            try (ArchiveSegmentStore.Lease lease = segmentStore.open(segment.getFileName())) {
+                segment.setColumnStats(lease.file().stats());
+            }
+            segmentRepo.save(segment);
+        }
+        return segment.getColumnStats();
+    }
+
+    private ArchivePolicyDto toDto(DynamicTableDefinition table) {
+        List<ArchiveSegmentDto> segments = segmentRepo.findByTableDefinitionIdOrderByMinIdAsc(table.getId()).stream()
+                .map(segment -> {
+                    ArchiveSegmentDto dto = new ArchiveSegmentDto();
+                    dto.setId(segment.getId());
+                    dto.setFileName(segment.getFileName());
+                    dto.setRowCount(segment.getRowCount());
+                    dto.setMinId(segment.getMinId());
+                    dto.setMaxId(segment.getMaxId());
+                    dto.setSizeBytes(segment.getSizeBytes());
+                    dto.setCreatedAt(segment.getCreatedAt());
+                    dto.setColumns(columnStats(segment));
+                    return dto;
+                })
+                .toList();
+
+        ArchivePolicyDto dto = new ArchivePolicyDto();
+        dto.setTableName(table.getTableName());
+        dto.setColumn(table.getArchiveColumn());
+        dto.setDays(table.getArchiveAfterDays());
+        dto.setArchivedRows(segments.stream().mapToLong(ArchiveSegmentDto::getRowCount).sum());
+        dto.setArchivedBytes(segments.stream().mapToLong(ArchiveSegmentDto::getSizeBytes).sum());
+        dto.setSegments(segments);
+        return dto;
+    }
+
+    /**
+     * Позиция чтения в одном сегменте. До открытия файла ключ очереди — min id сегмента.
+     */
+    private static final class SegmentCursor {
+
+        private final ArchiveSegment segment;
+        private ArchiveSegmentStore.Lease lease;
+        private int start;
+        private int position;
+        private Iterator<Map<String, Object>> pending;
+
+        private SegmentCursor(ArchiveSegment segment) {
+            this.segment = segment;
+        }
+
+        private void open(ArchiveSegmentStore store, long afterId) {
+            lease = store.open(segment.getFileName());
+            start = lease.file().firstIndexAfter(afterId);
+            position = start;
+        }
+
+        private boolean hasNext() {
+            return lease == null || position < lease.file().rowCount();
+        }
+
+        private long nextId() {
+            return lease == null ? segment.getMinId() : lease.file().idAt(position);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.flexdb.service.impl;
+
+import com.example.flexdb.repository.DynamicSqlExecutor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Индексы по колонке политики (хранения, архивации) динамической таблицы.
+ * <p>
+ * Для обычной таблицы индекс строится через CREATE INDEX CONCURRENTLY. Если такое построение прервалось,
+ * в каталоге остаётся INVALID-индекс: запросы его не используют, а {@code IF NOT EXISTS} считает его
+ * существующим. Поэтому перед построением проверяется {@code pg_index.indisvalid}, невалидный индекс
+ * удаляется и строится заново; при ошибке построения остаток удаляется сразу.
+ * <p>
+ * Методы нельзя вызывать внутри транзакции: CONCURRENTLY в ней не выполняется.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class ColumnIndexManager {
+
+    private final DynamicSqlExecutor sqlExecutor;
+
+    /**
+     * Создаёт индекс, если его нет или он невалиден.
+     *
+     * @param partitioned секционированная таблица: индекс строится без CONCURRENTLY
+     */
+    public void ensureIndex(String tableName, String operation, String indexName, String column, boolean partitioned) {
+        Boolean valid = sqlExecutor.queryForObject(tableName, operation,
+                "SELECT (SELECT indisvalid FROM pg_index WHERE indexrelid = to_regclass(quote_ident(?)))",
+                Boolean.class, indexName);
+        if (Boolean.TRUE.equals(valid)) {
+            return;
+        }
+        if (valid != null) {
+            log.warn("Индекс '{}' таблицы '{}' невалиден (прерванное построение), строится заново", indexName, tableName);
+            dropIndex(tableName, operation, indexName, partitioned);
+        }
+
+        String indexSql = String.format("CREATE INDEX %sIF NOT EXISTS \"%s\" ON \"%s\" (\"%s\")",
+                partitioned ? "" : "CONCURRENTLY ", indexName, tableName, column);
+        try {
+            sqlExecutor.execute(tableName, operation, indexSql);
+        } catch (RuntimeException e) {
+            if (!partitioned) {
+                dropQuietly(tableName, operation, indexName);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * true, если таблица секционирована (relkind = 'p').
+     */
+    public boolean isPartitioned(String tableName, String operation) {
+        String sql = "SELECT COALESCE((SELECT relkind = 'p' FROM pg_class WHERE oid = to_regclass(quote_ident(?))), false)";
+        return Boolean.TRUE.equals(sqlExecutor.queryForObject(tableName, operation, sql, Boolean.class, tableName));
+    }
+
+    public void dropIndex(String tableName, String operation, String indexName, boolean partitioned) {
+        sqlExecutor.execute(tableName, operation,
+                String.format("DROP INDEX %sIF EXISTS \"%s\"", partitioned ? "" : "CONCURRENTLY ", indexName));
+    }
+
+    /**
+     * Имя индекса {@code <таблица>_<колонка>_<suffix>}; длинные имена (больше 63 символов) заменяются первыми
+     * 128 битами SHA-256 от таблицы и колонки: у 32-битного хеша совпадения между таблицами вполне вероятны,
+     * а совпавшее имя {@code IF NOT EXISTS} принял бы за уже построенный индекс.
+     */
+    public static String indexName(String tableName, String column, String suffix) {
+        String name = tableName + "_" + column + "_" + suffix;
+        if (name.length() <= 63) {
+            return name;
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest((tableName + "." + column).getBytes(StandardCharsets.UTF_8));
+            return suffix + "_" + HexFormat.of().formatHex(digest, 0, 16);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 недоступен", e);
+        }
+    }
+
+    private void dropQuietly(String tableName, String operation, String indexName) {
+        try {
+            dropIndex(tableName, operation, indexName, false);
+        } catch (RuntimeException e) {
+            log.warn("Не удалось удалить недостроенный индекс '{}' таблицы '{}': {}", indexName, tableName, e.getMessage());
+        }
+    }
+}
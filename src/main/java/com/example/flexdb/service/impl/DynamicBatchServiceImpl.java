@@ -0,0 +1,154 @@
+package com.example.flexdb.service.impl;
+
+import com.example.flexdb.dto.BatchOperationDto;
+import com.example.flexdb.dto.BatchOperationResult;
+import com.example.flexdb.dto.BatchRequest;
+import com.example.flexdb.dto.BatchResponse;
+import com.example.flexdb.enums.BatchOperationType;
+import com.example.flexdb.enums.StorageEngine;
+import com.example.flexdb.exception.ResourceNotFoundException;
+import com.example.flexdb.repository.DynamicTableDefinitionRepository;
+import com.example.flexdb.service.DynamicBatchService;
+import com.example.flexdb.service.DynamicDataService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.*;
+
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class DynamicBatchServiceImpl implements DynamicBatchService {
+
+    private static final String REF_KEY = "$ref";
+
+    private final DynamicDataService dynamicDataService;
+    private final DynamicTableDefinitionRepository tableRepo;
+
+    /**
+     * Выполняет пакет операций по порядку в одной транзакции (и на одном соединении).
+     * Ошибка в любой операции откатывает весь пакет. Таблицы в памяти в пакете не поддерживаются:
+     * их изменения не участвуют в транзакции и не откатились бы.
+     *
+     * @param request список операций
+     * @return результаты операций в том же порядке
+     */
+    @Override
+    @Transactional
+    public BatchResponse executeBatch(BatchRequest request) {
+        List<BatchOperationDto> operations = request.getOperations();
+        log.info("▶️ Выполнение пакета из {} операций", operations.size());
+
+        rejectMemoryTables(operations);
+        List<BatchOperationResult> results = new ArrayList<>(operations.size());
+
+        for (int i = 0; i < operations.size(); i++) {
+            BatchOperationDto operation = operations.get(i);
+            try {
+                results.add(executeOperation(i, operation, results));
+            } catch (ResourceNotFoundException e) {
+                throw new ResourceNotFoundException("Операция #" + i + ": " + e.getMessage());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Операция #" + i + ": " + e.getMessage());
+            } catch (DataIntegrityViolationException e) {
+                // Нарушение ограничения или неприводимое значение — ошибка данных запроса, а не сервера
+                throw new IllegalArgumentException("Операция #" + i + ": " + e.getMostSpecificCause().getMessage(), e);
+            } catch (DataAccessException e) {
+                log.error("❌ Операция #{} пакета ({} '{}') завершилась ошибкой БД", i, operation.getOp(), operation.getTable(), e);
+                throw e;
+            }
+        }
+
+        log.info("✅ Пакет из {} операций успешно выполнен", operations.size());
+        return new BatchResponse(results);
+    }
+
+    /**
+     * Проверяет все операции до первой записи. Неизвестная таблица здесь не ошибка — её 404 вернёт сама операция.
+     */
+    private void rejectMemoryTables(List<BatchOperationDto> operations) {
+        for (int i = 0; i < operations.size(); i++) {
+            String tableName = operations.get(i).getTable();
+            boolean memory = tableName != null && tableRepo.findByTableName(tableName)
+                    .filter(table -> table.getStorageEngine() == StorageEngine.MEMORY)
+                    .isPresent();
+            if (memory) {
+                throw new IllegalArgumentException("Операция #" + i + ": таблица в памяти '" + tableName
+                        + "' не поддерживается в пакете — её изменения нельзя откатить вместе с пакетом");
+            }
+        }
+    }
+
+    private BatchOperationResult executeOperation(int index, BatchOperationDto operation, List<BatchOperationResult> results) {
+        BatchOperationType type = BatchOperationType.fromString(operation.getOp());
+        String tableName = operation.getTable();
+
+        Map<String, Object> result = switch (type) {
+            case INSERT -> dynamicDataService.insertRow(tableName, resolveData(operation, results));
+            case UPDATE -> dynamicDataService.updateRow(tableName, resolveId(operation, results), resolveData(operation, results));
+            case GET -> dynamicDataService.getRowById(tableName, resolveId(operation, results), operation.getFields());
+            case DELETE -> {
+                Long id = resolveId(operation, results);
+                dynamicDataService.deleteById(tableName, id);
+                Map<String, Object> deleted = new LinkedHashMap<>();
+                deleted.put("id", id);
+                yield deleted;
+            }
+        };
+
+        return new BatchOperationResult(index, type.name(), tableName, result);
+    }
+
+    /**
+     * Возвращает ID операции: число или ссылку {"$ref": n} на результат предыдущей операции.
+     */
+    private Long resolveId(BatchOperationDto operation, List<BatchOperationResult> results) {
+        Object id = resolveReference(operation.getId(), results);
+        if (id == null) {
+            throw new IllegalArgumentException("Для операции " + operation.getOp() + " обязателен id");
+        }
+        if (!(id instanceof Integer || id instanceof Long)) {
+            throw new IllegalArgumentException("id должен быть целым числом или ссылкой {\"$ref\": n}");
+        }
+        return ((Number) id).longValue();
+    }
+
+    /**
+     * Возвращает данные операции, подставляя вместо ссылок {"$ref": n} ID из предыдущих результатов.
+     */
+    private Map<String, Object> resolveData(BatchOperationDto operation, List<BatchOperationResult> results) {
+        if (operation.getData() == null) {
+            throw new IllegalArgumentException("Для операции " + operation.getOp() + " обязательно поле data");
+        }
+
+        Map<String, Object> data = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : operation.getData().entrySet()) {
+            data.put(entry.getKey(), resolveReference(entry.getValue(), results));
+        }
+        return data;
+    }
+
+    private Object resolveReference(Object value, List<BatchOperationResult> results) {
+        if (!(value instanceof Map<?, ?> map) || map.size() != 1 || !map.containsKey(REF_KEY)) {
+            return value;
+        }
+
+        if (!(map.get(REF_KEY) instanceof Integer ref)) {
+            throw new IllegalArgumentException("Ссылка $ref должна быть номером предыдущей операции");
+        }
+        if (ref < 0 || ref >= results.size()) {
+            throw new IllegalArgumentException("Ссылка $ref: " + ref + " указывает не на предыдущую операцию");
+        }
+
+        Map<String, Object> referenced = results.get(ref).getResult();
+        Object id = referenced != null ? referenced.get("id") : null;
+        if (id == null) {
+            throw new IllegalArgumentException("Результат операции #" + ref + " не содержит id");
+        }
+        return id;
+    }
+}
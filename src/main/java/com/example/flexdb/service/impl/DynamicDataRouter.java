@@ -0,0 +1,99 @@
+package com.example.flexdb.service.impl;
+
+import com.example.flexdb.dto.PaginatedResponse;
+import com.example.flexdb.enums.SupportedColumnType;
+import com.example.flexdb.repository.InMemoryTable;
+import com.example.flexdb.repository.InMemoryTableStore;
+import com.example.flexdb.service.DynamicDataService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Точка входа операций над строками: зарегистрированные таблицы MEMORY уходят в {@link InMemoryDataServiceImpl}
+ * без транзакции, без соединения из пула и без чтения метаданных, остальные — в {@link DynamicDataServiceImpl}.
+ * <p>
+ * Путь таблиц PostgreSQL не меняется: те же @Transactional и чтение определения из БД на каждый запрос.
+ * Имя таблицы MEMORY не переиспользуется другой таблицей (удаления таблиц нет), поэтому регистрации
+ * в {@link InMemoryTableStore} достаточно, чтобы выбрать хранилище.
+ */
+@Service
+@Primary
+@RequiredArgsConstructor
+public class DynamicDataRouter implements DynamicDataService {
+
+    private final InMemoryTableStore memoryTables;
+    private final InMemoryDataServiceImpl memoryRows;
+    private final DynamicDataServiceImpl storedRows;
+
+    @Override
+    public Map<String, Object> insertRow(String tableName, Map<String, Object> data) {
+        return memory(tableName)
+                .map(memory -> memoryRows.insertRow(tableName, memory, data))
+                .orElseGet(() -> storedRows.insertRow(tableName, data));
+    }
+
+    @Override
+    public PaginatedResponse getPaginatedData(String tableName, int page, int size, List<String> fields, boolean includeArchived) {
+        return memory(tableName)
+                .map(memory -> memoryRows.getPaginatedData(tableName, memory, page, size, fields))
+                .orElseGet(() -> storedRows.getPaginatedData(tableName, page, size, fields, includeArchived));
+    }
+
+    @Override
+    public Map<String, Object> getRowById(String tableName, Long id, List<String> fields) {
+        return memory(tableName)
+                .map(memory -> memoryRows.getRowById(tableName, memory, id, fields))
+                .orElseGet(() -> storedRows.getRowById(tableName, id, fields));
+    }
+
+    @Override
+    public Map<String, Object> updateRow(String tableName, Long id, Map<String, Object> data) {
+        return memory(tableName)
+                .map(memory -> memoryRows.updateRow(tableName, memory, id, data))
+                .orElseGet(() -> storedRows.updateRow(tableName, id, data));
+    }
+
+    @Override
+    public Map<String, Object> incrementRow(String tableName, Long id, Map<String, Object> deltas) {
+        return memory(tableName)
+                .map(memory -> memoryRows.incrementRow(tableName, memory, id, deltas))
+                .orElseGet(() -> storedRows.incrementRow(tableName, id, deltas));
+    }
+
+    @Override
+    public void deleteById(String tableName, Long id) {
+        Optional<InMemoryTable> memory = memory(tableName);
+        if (memory.isPresent()) {
+            memoryRows.deleteById(tableName, memory.get(), id);
+        } else {
+            storedRows.deleteById(tableName, id);
+        }
+    }
+
+    @Override
+    public void exportRows(String tableName, List<String> fields, boolean includeArchived, Consumer<Map<String, Object>> consumer) {
+        Optional<InMemoryTable> memory = memory(tableName);
+        if (memory.isPresent()) {
+            memoryRows.exportRows(tableName, memory.get(), fields, consumer);
+        } else {
+            storedRows.exportRows(tableName, fields, includeArchived, consumer);
+        }
+    }
+
+    @Override
+    public Map<String, SupportedColumnType> describeColumns(String tableName, List<String> fields) {
+        return memory(tableName)
+                .map(memory -> memoryRows.describeColumns(tableName, memory, fields))
+                .orElseGet(() -> storedRows.describeColumns(tableName, fields));
+    }
+
+    private Optional<InMemoryTable> memory(String tableName) {
+        return tableName != null ? memoryTables.find(tableName) : Optional.empty();
+    }
+}
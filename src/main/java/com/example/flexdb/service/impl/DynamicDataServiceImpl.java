@@ -1,28 +1,62 @@
 package com.example.flexdb.service.impl;
 
+import com.example.flexdb.config.IncrementProperties;
 import com.example.flexdb.dto.PageInfo;
 import com.example.flexdb.dto.PaginatedResponse;
+import com.example.flexdb.entity.ArchiveSegment;
 import com.example.flexdb.entity.DynamicColumnDefinition;
 import com.example.flexdb.entity.DynamicTableDefinition;
+import com.example.flexdb.enums.StorageEngine;
+import com.example.flexdb.enums.SupportedColumnType;
 import com.example.flexdb.exception.ResourceNotFoundException;
+import com.example.flexdb.metrics.DynamicTableMetrics;
+import com.example.flexdb.repository.DynamicSqlExecutor;
 import com.example.flexdb.repository.DynamicTableDefinitionRepository;
+import com.example.flexdb.repository.InMemoryTable;
+import com.example.flexdb.repository.InMemoryTableStore;
+import com.example.flexdb.service.ArchiveService;
 import com.example.flexdb.service.DynamicDataService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Isolation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
+/**
+ * Операции над строками динамических таблиц, найденных по метаданным в БД.
+ * <p>
+ * Уже зарегистрированные таблицы MEMORY сюда не попадают: их обслуживает {@link InMemoryDataServiceImpl}
+ * через {@link DynamicDataRouter}. Таблица MEMORY приходит сюда только при первом обращении после рестарта
+ * (или если создана на другом экземпляре) и регистрируется в {@link InMemoryTableStore}.
+ */
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class DynamicDataServiceImpl implements DynamicDataService {
 
     private final DynamicTableDefinitionRepository tableRepo;
-    private final JdbcTemplate jdbcTemplate;
+    private final DynamicSqlExecutor sqlExecutor;
+    private final DynamicRowValidator rowValidator;
+    private final DynamicTableMetrics metrics;
+    private final IncrementCoalescer incrementCoalescer;
+    private final IncrementProperties incrementProperties;
+    private final ArchiveService archiveService;
+    private final InMemoryTableStore memoryTables;
+    private final InMemoryDataServiceImpl memoryRows;
+    private final PageResultCache pageCache;
+    private final PlatformTransactionManager transactionManager;
+
+    private static final int EXPORT_FETCH_SIZE = 500;
+    private static final int ARCHIVE_CHUNK_ROWS = 1000;
+
+    static final int MAX_PAGE_SIZE = 100;
 
     /**
      * Добавляет новую строку в указанную динамическую таблицу.
@@ -36,55 +70,31 @@ public class DynamicDataServiceImpl implements DynamicDataService {
     public Map<String, Object> insertRow(String tableName, Map<String, Object> data) {
         log.info("▶️ Вставка строки в таблицу '{}'", tableName);
 
-        DynamicTableDefinition table = tableRepo.findByTableName(tableName)
-                .orElseThrow(() -> new ResourceNotFoundException("Таблица '" + tableName + "' не найдена"));
-
-        List<DynamicColumnDefinition> columns = table.getColumns();
+        DynamicTableDefinition table = findTable(tableName, "insertRow");
 
-        // Проверка колонок
-        Set<String> knownColumns = columns.stream()
-                .filter(col -> !col.isPrimaryKeyInternal())
-                .map(DynamicColumnDefinition::getColumnName)
-                .collect(Collectors.toSet());
-
-        for (String key : data.keySet()) {
-            if (!knownColumns.contains(key)) {
-                throw new IllegalArgumentException("Неизвестная колонка: '" + key + "'");
-            }
+        InMemoryTable memory = memoryTable(table);
+        if (memory != null) {
+            return memoryRows.insertRow(tableName, memory, data);
         }
 
-        for (DynamicColumnDefinition col : columns) {
-            if (col.isPrimaryKeyInternal()) continue;
-            String colName = col.getColumnName();
-            Object value = data.get(colName);
-
-            if (!col.isNullable() && value == null) {
-                throw new IllegalArgumentException("Колонка '" + colName + "' обязательна для заполнения");
-            }
-
-            if (value != null) {
-                validateValueType(colName, col.getColumnType(), value);
-            }
-        }
+        // Проверка колонок
+        rowValidator.validateRow(table.getColumns(), data);
 
         List<String> columnNames = new ArrayList<>(data.keySet());
         List<Object> values = columnNames.stream().map(data::get).toList();
 
-        String sql = String.format(
-                "INSERT INTO \"%s\" (%s) VALUES (%s) RETURNING id",
-                tableName,
-                columnNames.stream().map(col -> "\"" + col + "\"").collect(Collectors.joining(", ")),
-                columnNames.stream().map(col -> "?").collect(Collectors.joining(", "))
-        );
+        String sql = DynamicSqlBuilder.insertSql(tableName, columnNames);
 
         log.debug("📥 SQL: {}", sql);
         log.debug("📦 Params: {}", values);
 
-        Long id = jdbcTemplate.query(sql, values.toArray(), rs -> rs.next() ? rs.getLong("id") : null);
+        Long id = sqlExecutor.query(tableName, "insertRow", sql, values.toArray(), rs -> rs.next() ? rs.getLong("id") : null);
 
         if (id == null) {
             throw new IllegalStateException("База данных не вернула ID");
         }
+        metrics.rowsWritten(tableName, 1);
+        pageCache.invalidate(tableName);
 
         Map<String, Object> result = new LinkedHashMap<>();
         result.put("id", id);
@@ -100,28 +110,52 @@ public class DynamicDataServiceImpl implements DynamicDataService {
      * @param tableName имя таблицы
      * @param page      номер страницы
      * @param size      размер страницы
+     * @param fields    список колонок для выборки (null или пустой — все колонки)
+     * @param includeArchived слить по id строки таблицы и строки из архива
      * @return пагинированный ответ
      */
     @Override
-    @Transactional(readOnly = true) // readOnly так как только читаем из бд
-    public PaginatedResponse getPaginatedData(String tableName, int page, int size) {
+    public PaginatedResponse getPaginatedData(String tableName, int page, int size, List<String> fields, boolean includeArchived) {
 
         log.info("Получение страницы {} (размер {}) из таблицы '{}'", page, size, tableName);
 
-        tableRepo.findByTableName(tableName)
-                .orElseThrow(() -> new ResourceNotFoundException("Таблица '" + tableName + "' не найдена"));
+        // Попадание в кэш не открывает транзакцию и не занимает соединение из пула
+        return pageCache.get(tableName, page, size, fields, includeArchived, () -> {
+            TransactionTemplate snapshot = new TransactionTemplate(transactionManager);
+            snapshot.setReadOnly(true);
+            // Счётчик, страница и список сегментов — отдельные запросы; без общего снимка порция архивации
+            // между ними дублирует строку или теряет её
+            snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+            return snapshot.execute(status -> loadPage(tableName, page, size, fields, includeArchived));
+        });
+    }
 
-        int maxSize = 100;
-        int safeSize = Math.min(size, maxSize);
-        int offset = page * safeSize;
+    private PaginatedResponse loadPage(String tableName, int page, int size, List<String> fields, boolean includeArchived) {
+        DynamicTableDefinition table = findTable(tableName, "getPaginatedData");
 
-        String sql = String.format("SELECT * FROM \"%s\" ORDER BY id ASC LIMIT ? OFFSET ?", tableName);
-        List<Map<String, Object>> content = jdbcTemplate.queryForList(sql, safeSize, offset);
+        InMemoryTable memory = memoryTable(table);
+        if (memory != null) {
+            return memoryRows.getPaginatedData(tableName, memory, page, size, fields);
+        }
+
+        int safeSize = Math.min(size, MAX_PAGE_SIZE);
+        int offset = page * safeSize;
 
         String countSql = String.format("SELECT COUNT(*) FROM \"%s\"", tableName);
-        Integer totalElementsRaw = jdbcTemplate.queryForObject(countSql, Integer.class);
+        Integer totalElementsRaw = sqlExecutor.queryForObject(tableName, "getPaginatedData", countSql, Integer.class);
         int totalElements = totalElementsRaw != null ? totalElementsRaw : 0;
 
+        List<Map<String, Object>> content;
+        if (!includeArchived) {
+            String selectList = DynamicSqlBuilder.selectList(table.getColumns(), fields);
+            String sql = String.format("SELECT %s FROM \"%s\" ORDER BY id ASC LIMIT ? OFFSET ?", selectList, tableName);
+            content = sqlExecutor.queryForList(tableName, "getPaginatedData", sql, safeSize, offset);
+        } else {
+            List<ArchiveSegment> segments = archiveService.findSegments(table);
+            content = pageWithArchive(table, segments, offset, safeSize, fields);
+            totalElements += segments.stream().mapToInt(ArchiveSegment::getRowCount).sum();
+        }
+
         int totalPages = (int) Math.ceil((double) totalElements / safeSize);
 
         return new PaginatedResponse(
@@ -134,23 +168,67 @@ public class DynamicDataServiceImpl implements DynamicDataService {
         );
     }
 
+    /**
+     * Страница из строк таблицы и архива, слитых по id. Сначала отсчитываются offset строк: id обеих частей
+     * читаются порциями по {@link #ARCHIVE_CHUNK_ROWS} и сливаются, пока не найден id, за которым начинается страница.
+     */
+    private List<Map<String, Object>> pageWithArchive(DynamicTableDefinition table, List<ArchiveSegment> segments,
+                                                      long offset, int limit, List<String> fields) {
+        String tableName = table.getTableName();
+        String idSql = String.format("SELECT id FROM \"%s\" WHERE id > ? ORDER BY id ASC LIMIT ?", tableName);
+        long afterId = Long.MIN_VALUE;
+        long skipped = 0;
+        while (skipped < offset) {
+            int chunk = (int) Math.min(ARCHIVE_CHUNK_ROWS, offset - skipped);
+            List<Map<String, Object>> ids = mergeById(
+                    sqlExecutor.queryForList(tableName, "getPaginatedData", idSql, afterId, chunk),
+                    archiveService.readArchivedRows(tableName, segments, afterId, chunk, List.of("id")),
+                    chunk);
+            if (ids.isEmpty()) {
+                return List.of();
+            }
+            skipped += ids.size();
+            afterId = id(ids.get(ids.size() - 1));
+        }
+
+        List<String> selected = DynamicSqlBuilder.selectedColumns(table.getColumns(), fields);
+        List<String> columns = withId(selected);
+        String sql = String.format("SELECT %s FROM \"%s\" WHERE id > ? ORDER BY id ASC LIMIT ?",
+                DynamicSqlBuilder.selectList(table.getColumns(), columns), tableName);
+        List<Map<String, Object>> rows = mergeById(
+                sqlExecutor.queryForList(tableName, "getPaginatedData", sql, afterId, limit),
+                archiveService.readArchivedRows(tableName, segments, afterId, limit, columns),
+                limit);
+        rows.forEach(row -> dropIdIfNotSelected(row, selected));
+        return rows;
+    }
+
     /**
      * Получает запись по ID.
+     * Если передан список fields — выбираются только указанные колонки.
      */
 
     @Override
     @Transactional(readOnly = true) // readOnly так как только читаем из бд
-    public Map<String, Object> getRowById(String tableName, Long id) {
+    public Map<String, Object> getRowById(String tableName, Long id, List<String> fields) {
         log.info("Получение записи id = {} из таблицы '{}'", id, tableName);
 
-        tableRepo.findByTableName(tableName)
-                .orElseThrow(() -> new ResourceNotFoundException("Таблица '" + tableName + "' не найдена"));
+        DynamicTableDefinition table = findTable(tableName, "getRowById");
 
-        String sql = String.format("SELECT * FROM \"%s\" WHERE id = ?", tableName);
-        List<Map<String, Object>> rows = jdbcTemplate.queryForList(sql, id);
+        InMemoryTable memory = memoryTable(table);
+        if (memory != null) {
+            return memoryRows.getRowById(tableName, memory, id, fields);
+        }
+
+        String selectList = DynamicSqlBuilder.selectList(table.getColumns(), fields);
+        String sql = String.format("SELECT %s FROM \"%s\" WHERE id = ?", selectList, tableName);
+        List<Map<String, Object>> rows = sqlExecutor.queryForList(tableName, "getRowById", sql, id);
 
         if (rows.isEmpty()) {
-            throw new ResourceNotFoundException("Запись с id " + id + " не найдена в таблице '" + tableName + "'");
+            // Строки нет в таблице — возможно, она перенесена в архив
+            List<String> columns = DynamicSqlBuilder.selectedColumns(table.getColumns(), fields);
+            return archiveService.findArchivedRow(table, id, columns)
+                    .orElseThrow(() -> new ResourceNotFoundException("Запись с id " + id + " не найдена в таблице '" + tableName + "'"));
         }
 
         return rows.get(0);
@@ -165,62 +243,84 @@ public class DynamicDataServiceImpl implements DynamicDataService {
     public Map<String, Object> updateRow(String tableName, Long id, Map<String, Object> data) {
         log.info("Обновление записи id = {} в таблице '{}'", id, tableName);
 
-        DynamicTableDefinition table = tableRepo.findByTableName(tableName)
-                .orElseThrow(() -> new ResourceNotFoundException("Таблица '" + tableName + "' не найдена"));
+        DynamicTableDefinition table = findTable(tableName, "updateRow");
+
+        InMemoryTable memory = memoryTable(table);
+        if (memory != null) {
+            return memoryRows.updateRow(tableName, memory, id, data);
+        }
 
         String checkSql = String.format("SELECT COUNT(*) FROM \"%s\" WHERE id = ?", tableName);
-        Integer count = jdbcTemplate.queryForObject(checkSql, Integer.class, id);
+        Integer count = sqlExecutor.queryForObject(tableName, "updateRow", checkSql, Integer.class, id);
         if (count == null || count == 0) {
             throw new ResourceNotFoundException("Запись с id " + id + " не найдена в таблице '" + tableName + "'");
         }
 
-        List<DynamicColumnDefinition> columns = table.getColumns();
+        rowValidator.validateRow(table.getColumns(), data);
 
-        Set<String> knownColumns = columns.stream()
-                .filter(col -> !col.isPrimaryKeyInternal())
-                .map(DynamicColumnDefinition::getColumnName)
-                .collect(Collectors.toSet());
+        List<String> columnNames = new ArrayList<>(data.keySet());
+        List<Object> values = new ArrayList<>();
 
-        for (String key : data.keySet()) {
-            if (!knownColumns.contains(key)) {
-                throw new IllegalArgumentException("Неизвестная колонка: '" + key + "'");
-            }
+        for (String col : columnNames) {
+            values.add(data.get(col));
         }
 
-        for (DynamicColumnDefinition col : columns) {
-            if (col.isPrimaryKeyInternal()) continue;
-            String colName = col.getColumnName();
-            Object value = data.get(colName);
+        values.add(id);
 
-            if (!col.isNullable() && value == null) {
-                throw new IllegalArgumentException("Колонка '" + colName + "' обязательна для заполнения");
-            }
+        String sql = DynamicSqlBuilder.updateSql(tableName, columnNames);
 
-            if (value != null) {
-                validateValueType(colName, col.getColumnType(), value);
-            }
+        sqlExecutor.update(tableName, "updateRow", sql, values.toArray());
+        pageCache.invalidate(tableName);
+        log.info("✅ Запись id = {} в таблице '{}' успешно обновлена", id, tableName);
+
+        return getRowById(tableName, id, null);
+    }
+
+    /**
+     * Атомарно увеличивает числовые колонки записи одним UPDATE: col = COALESCE(col, 0) + delta.
+     * В режиме flexdb.increment.coalesce одновременные инкременты строки объединяются в один UPDATE.
+     * <p>
+     * Без @Transactional: выражение одно, а при объединении запрос ждёт чужой UPDATE
+     * и не должен держать соединение всё это время.
+     *
+     * @param deltas приращения по колонкам (могут быть отрицательными)
+     * @return запись после изменения
+     */
+    @Override
+    public Map<String, Object> incrementRow(String tableName, Long id, Map<String, Object> deltas) {
+        log.info("Инкремент записи id = {} в таблице '{}'", id, tableName);
+
+        DynamicTableDefinition table = findTable(tableName, "incrementRow");
+
+        InMemoryTable memory = memoryTable(table);
+        if (memory != null) {
+            return memoryRows.incrementRow(tableName, memory, id, deltas);
         }
 
-        List<String> setClauses = new ArrayList<>();
-        List<Object> values = new ArrayList<>();
+        Map<String, Number> normalized = rowValidator.validateIncrement(table.getColumns(), deltas);
 
-        for (String col : data.keySet()) {
-            setClauses.add("\"" + col + "\" = ?");
-            values.add(data.get(col));
+        if (incrementProperties.isCoalesce()) {
+            Set<String> intColumns = table.getColumns().stream()
+                    .filter(column -> "INTEGER".equalsIgnoreCase(column.getColumnType()))
+                    .map(DynamicColumnDefinition::getColumnName)
+                    .collect(Collectors.toSet());
+            return incrementCoalescer.submit(tableName, id, normalized, intColumns, sums -> executeIncrement(tableName, id, sums));
         }
+        return executeIncrement(tableName, id, normalized);
+    }
 
+    private Map<String, Object> executeIncrement(String tableName, Long id, Map<String, Number> deltas) {
+        List<Object> values = new ArrayList<>(deltas.values());
         values.add(id);
 
-        String sql = String.format(
-                "UPDATE \"%s\" SET %s WHERE id = ?",
-                tableName,
-                String.join(", ", setClauses)
-        );
-
-        jdbcTemplate.update(sql, values.toArray());
-        log.info("✅ Запись id = {} в таблице '{}' успешно обновлена", id, tableName);
+        String sql = DynamicSqlBuilder.incrementSql(tableName, deltas.keySet());
+        List<Map<String, Object>> rows = sqlExecutor.updateReturning(tableName, "incrementRow", sql, values.toArray());
+        pageCache.invalidate(tableName);
 
-        return getRowById(tableName, id);
+        if (rows.isEmpty()) {
+            throw new ResourceNotFoundException("Запись с id " + id + " не найдена в таблице '" + tableName + "'");
+        }
+        return rows.get(0);
     }
 
     /**
@@ -232,13 +332,20 @@ public class DynamicDataServiceImpl implements DynamicDataService {
 
         log.info("Удаление записи id = {} из таблицы '{}'", id, tableName);
 
-        tableRepo.findByTableName(tableName)
-                .orElseThrow(() -> new ResourceNotFoundException("Таблица '" + tableName + "' не найдена"));
+        DynamicTableDefinition table = findTable(tableName, "deleteById");
+
+        InMemoryTable memory = memoryTable(table);
+        if (memory != null) {
+            memoryRows.deleteById(tableName, memory, id);
+            return;
+        }
 
         String sql = String.format("DELETE FROM \"%s\" WHERE id = ?", tableName);
-        int rowsAffected = jdbcTemplate.update(sql, id);
+        boolean deleted = sqlExecutor.update(tableName, "deleteById", sql, id) > 0;
+
+        pageCache.invalidate(tableName);
 
-        if (rowsAffected == 0) {
+        if (!deleted) {
             throw new ResourceNotFoundException("Запись с id = " + id + " не найдена в таблице '" + tableName + "'");
         }
 
@@ -246,36 +353,168 @@ public class DynamicDataServiceImpl implements DynamicDataService {
     }
 
     /**
-     * Проверка значения на соответствие ожидаемому типу колонки.
+     * Выгрузка всех строк таблицы курсором. При includeArchived перед каждой строкой таблицы выдаются
+     * архивные строки с меньшим id, так что выгрузка идёт в порядке id; таблица и список сегментов
+     * читаются в одном снимке REPEATABLE READ.
      */
-    private void validateValueType(String columnName, String columnType, Object value) {
-        switch (columnType.toUpperCase()) {
-            case "TEXT", "DATE", "TIMESTAMP" -> {
-                if (!(value instanceof String)) {
-                    throw new IllegalArgumentException("Колонка '" + columnName + "' ожидает строку (TEXT), но получено: " + value.getClass().getSimpleName());
-                }
-            }
-            case "INTEGER" -> {
-                if (!(value instanceof Integer)) {
-                    throw new IllegalArgumentException("Колонка '" + columnName + "' ожидает целое число (INTEGER), но получено: " + value.getClass().getSimpleName());
-                }
-            }
-            case "BIGINT" -> {
-                if (!(value instanceof Integer || value instanceof Long)) {
-                    throw new IllegalArgumentException("Колонка '" + columnName + "' ожидает большое целое число (BIGINT), но получено: " + value.getClass().getSimpleName());
-                }
+    @Override
+    @Transactional(readOnly = true, isolation = Isolation.REPEATABLE_READ) // курсор PostgreSQL работает только внутри транзакции
+    public void exportRows(String tableName, List<String> fields, boolean includeArchived, Consumer<Map<String, Object>> consumer) {
+        log.info("Выгрузка таблицы '{}'", tableName);
+
+        DynamicTableDefinition table = findTable(tableName, "exportRows");
+
+        InMemoryTable memory = memoryTable(table);
+        if (memory != null) {
+            memoryRows.exportRows(tableName, memory, fields, consumer);
+            return;
+        }
+
+        if (!includeArchived) {
+            String selectList = DynamicSqlBuilder.selectList(table.getColumns(), fields);
+            String sql = String.format("SELECT %s FROM \"%s\" ORDER BY id ASC", selectList, tableName);
+            sqlExecutor.queryForEach(tableName, "exportRows", sql, EXPORT_FETCH_SIZE, consumer);
+            return;
+        }
+
+        List<String> selected = DynamicSqlBuilder.selectedColumns(table.getColumns(), fields);
+        List<String> columns = withId(selected);
+        ArchivedRows archived = new ArchivedRows(tableName, archiveService.findSegments(table), columns);
+        Consumer<Map<String, Object>> emit = row -> {
+            dropIdIfNotSelected(row, selected);
+            consumer.accept(row);
+        };
+
+        String sql = String.format("SELECT %s FROM \"%s\" ORDER BY id ASC",
+                DynamicSqlBuilder.selectList(table.getColumns(), columns), tableName);
+        sqlExecutor.queryForEach(tableName, "exportRows", sql, EXPORT_FETCH_SIZE, row -> {
+            long id = id(row);
+            while (archived.peek() != null && id(archived.peek()) < id) {
+                emit.accept(archived.poll());
             }
-            case "DECIMAL" -> {
-                if (!(value instanceof Number)) {
-                    throw new IllegalArgumentException("Колонка '" + columnName + "' ожидает число с точкой (DECIMAL), но получено: " + value.getClass().getSimpleName());
-                }
+            emit.accept(row);
+        });
+        while (archived.peek() != null) {
+            emit.accept(archived.poll());
+        }
+    }
+
+    @Override
+    public Map<String, SupportedColumnType> describeColumns(String tableName, List<String> fields) {
+        return describeColumns(findTable(tableName, "describeColumns").getColumns(), fields);
+    }
+
+    /**
+     * Типы колонок ответа: id первым, затем остальные; при проекции — только выбранные в порядке запроса.
+     */
+    static Map<String, SupportedColumnType> describeColumns(List<DynamicColumnDefinition> columns, List<String> fields) {
+        Map<String, SupportedColumnType> types = new LinkedHashMap<>();
+        columns.stream()
+                .sorted(Comparator.comparing(column -> !column.isPrimaryKeyInternal()))
+                .forEach(column -> types.put(column.getColumnName(),
+                        SupportedColumnType.valueOf(column.getColumnType().toUpperCase(Locale.ROOT))));
+
+        List<String> selected = DynamicSqlBuilder.selectedColumns(columns, fields);
+        if (selected.isEmpty()) {
+            return types;
+        }
+        Map<String, SupportedColumnType> projection = new LinkedHashMap<>();
+        selected.forEach(name -> projection.put(name, types.get(name)));
+        return projection;
+    }
+
+    /**
+     * Слияние двух упорядоченных по id списков строк; не больше limit строк.
+     */
+    static List<Map<String, Object>> mergeById(List<Map<String, Object>> left, List<Map<String, Object>> right, int limit) {
+        List<Map<String, Object>> result = new ArrayList<>(Math.min(limit, left.size() + right.size()));
+        int i = 0;
+        int j = 0;
+        while (result.size() < limit && (i < left.size() || j < right.size())) {
+            if (j >= right.size() || (i < left.size() && id(left.get(i)) <= id(right.get(j)))) {
+                result.add(left.get(i++));
+            } else {
+                result.add(right.get(j++));
             }
-            case "BOOLEAN" -> {
-                if (!(value instanceof Boolean)) {
-                    throw new IllegalArgumentException("Колонка '" + columnName + "' ожидает логическое значение (BOOLEAN), но получено: " + value.getClass().getSimpleName());
+        }
+        return result;
+    }
+
+    /**
+     * Колонки проекции вместе с id: по нему строки таблицы сливаются с архивными. Пустой список — все колонки.
+     */
+    static List<String> withId(List<String> selected) {
+        if (selected.isEmpty() || selected.contains("id")) {
+            return selected;
+        }
+        List<String> columns = new ArrayList<>(selected);
+        columns.add("id");
+        return columns;
+    }
+
+    /**
+     * Убирает id, добавленный {@link #withId} только для слияния.
+     */
+    static void dropIdIfNotSelected(Map<String, Object> row, List<String> selected) {
+        if (!selected.isEmpty() && !selected.contains("id")) {
+            row.remove("id");
+        }
+    }
+
+    static long id(Map<String, Object> row) {
+        return ((Number) row.get("id")).longValue();
+    }
+
+    /**
+     * Архивные строки по возрастанию id, дочитываемые порциями по {@link #ARCHIVE_CHUNK_ROWS}.
+     */
+    private final class ArchivedRows {
+
+        private final String tableName;
+        private final List<ArchiveSegment> segments;
+        private final List<String> columns;
+        private final Deque<Map<String, Object>> buffer = new ArrayDeque<>();
+        private long afterId = Long.MIN_VALUE;
+        private boolean exhausted;
+
+        private ArchivedRows(String tableName, List<ArchiveSegment> segments, List<String> columns) {
+            this.tableName = tableName;
+            this.segments = segments;
+            this.columns = columns;
+            this.exhausted = segments.isEmpty();
+        }
+
+        private Map<String, Object> peek() {
+            if (buffer.isEmpty() && !exhausted) {
+                List<Map<String, Object>> rows = archiveService.readArchivedRows(tableName, segments, afterId, ARCHIVE_CHUNK_ROWS, columns);
+                exhausted = rows.size() < ARCHIVE_CHUNK_ROWS;
+                if (!rows.isEmpty()) {
+                    afterId = id(rows.get(rows.size() - 1));
                 }
+                buffer.addAll(rows);
             }
-            default -> throw new IllegalArgumentException("Неизвестный тип колонки: " + columnType);
+            return buffer.peekFirst();
         }
+
+        private Map<String, Object> poll() {
+            peek();
+            return buffer.pollFirst();
+        }
+    }
+
+    /**
+     * Хранилище таблицы движка MEMORY; null — строки таблицы в PostgreSQL.
+     */
+    private InMemoryTable memoryTable(DynamicTableDefinition table) {
+        return table.getStorageEngine() == StorageEngine.MEMORY ? memoryTables.table(table) : null;
+    }
+
+    /**
+     * Находит метаданные таблицы (с замером времени поиска) или бросает 404.
+     * Колонки загружаются тем же запросом: incrementRow читает их вне транзакции.
+     */
+    private DynamicTableDefinition findTable(String tableName, String operation) {
+        return metrics.recordMetadataLookup(tableName, operation, () -> tableRepo.findWithColumnsByTableName(tableName))
+                .orElseThrow(() -> new ResourceNotFoundException("Таблица '" + tableName + "' не найдена"));
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,144 @@
+package com.example.flexdb.service.impl;
+
+import com.example.flexdb.entity.DynamicColumnDefinition;
+import com.example.flexdb.metrics.DynamicTableMetrics;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Проверка данных строки по метаданным колонок таблицы.
+ * Каждая ошибка учитывается в метриках по типу колонки.
+ */
+@Component
+@RequiredArgsConstructor
+public class DynamicRowValidator {
+
+    private final DynamicTableMetrics metrics;
+
+    /**
+     * Проверяет, что все ключи — известные колонки, обязательные колонки заполнены,
+     * а значения соответствуют типам колонок.
+     */
+    public void validateRow(List<DynamicColumnDefinition> columns, Map<String, Object> data) {
+        Set<String> knownColumns = columns.stream()
+                .filter(col -> !col.isPrimaryKeyInternal())
+                .map(DynamicColumnDefinition::getColumnName)
+                .collect(Collectors.toSet());
+
+        for (String key : data.keySet()) {
+            if (!knownColumns.contains(key)) {
+                metrics.validationFailure(null, "unknown_column");
+                throw new IllegalArgumentException("Неизвестная колонка: '" + key + "'");
+            }
+        }
+
+        for (DynamicColumnDefinition col : columns) {
+            if (col.isPrimaryKeyInternal()) continue;
+            String colName = col.getColumnName();
+            Object value = data.get(colName);
+
+            if (!col.isNullable() && value == null) {
+                metrics.validationFailure(col.getColumnType(), "required");
+                throw new IllegalArgumentException("Колонка '" + colName + "' обязательна для заполнения");
+            }
+
+            if (value != null) {
+                try {
+                    validateValueType(colName, col.getColumnType(), value);
+                } catch (IllegalArgumentException e) {
+                    metrics.validationFailure(col.getColumnType(), "type");
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Проверяет приращения для инкремента: только числовые колонки (INTEGER, BIGINT, DECIMAL)
+     * и значения их типа.
+     *
+     * @return приращения, приведённые к Long (INTEGER/BIGINT) или BigDecimal (DECIMAL)
+     */
+    public Map<String, Number> validateIncrement(List<DynamicColumnDefinition> columns, Map<String, Object> deltas) {
+        if (deltas == null || deltas.isEmpty()) {
+            throw new IllegalArgumentException("Не указаны колонки для инкремента");
+        }
+
+        Map<String, DynamicColumnDefinition> byName = columns.stream()
+                .filter(col -> !col.isPrimaryKeyInternal())
+                .collect(Collectors.toMap(DynamicColumnDefinition::getColumnName, col -> col));
+
+        Map<String, Number> result = new LinkedHashMap<>();
+        for (Map.Entry<String, Object> entry : deltas.entrySet()) {
+            DynamicColumnDefinition col = byName.get(entry.getKey());
+            if (col == null) {
+                metrics.validationFailure(null, "unknown_column");
+                throw new IllegalArgumentException("Неизвестная колонка: '" + entry.getKey() + "'");
+            }
+
+            String type = col.getColumnType().toUpperCase();
+            if (!type.equals("INTEGER") && !type.equals("BIGINT") && !type.equals("DECIMAL")) {
+                metrics.validationFailure(type, "not_numeric");
+                throw new IllegalArgumentException("Колонка '" + entry.getKey() + "' не числовая: инкремент возможен только для INTEGER, BIGINT и DECIMAL");
+            }
+
+            Object delta = entry.getValue();
+            if (delta == null) {
+                metrics.validationFailure(type, "required");
+                throw new IllegalArgumentException("Не указано приращение для колонки '" + entry.getKey() + "'");
+            }
+            try {
+                validateValueType(entry.getKey(), type, delta);
+            } catch (IllegalArgumentException e) {
+                metrics.validationFailure(type, "type");
+                throw e;
+            }
+
+            result.put(entry.getKey(), type.equals("DECIMAL")
+                    ? new BigDecimal(delta.toString())
+                    : (Number) ((Number) delta).longValue());
+        }
+        return result;
+    }
+
+    /**
+     * Проверка значения на соответствие ожидаемому типу колонки.
+     */
+    public static void validateValueType(String columnName, String columnType, Object value) {
+        switch (columnType.toUpperCase()) {
+            case "TEXT", "DATE", "TIMESTAMP" -> {
+                if (!(value instanceof String)) {
+                    throw new IllegalArgumentException("Колонка '" + columnName + "' ожидает строку (TEXT), но получено: " + value.getClass().getSimpleName());
+                }
+            }
+            case "INTEGER" -> {
+                if (!(value instanceof Integer)) {
+                    throw new IllegalArgumentException("Колонка '" + columnName + "' ожидает целое число (INTEGER), но получено: " + value.getClass().getSimpleName());
+                }
+            }
+            case "BIGINT" -> {
+                if (!(value instanceof Integer || value instanceof Long)) {
+                    throw new IllegalArgumentException("Колонка '" + columnName + "' ожидает большое целое число (BIGINT), но получено: " + value.getClass().getSimpleName());
+                }
+            }
+            case "DECIMAL" -> {
+                if (!(value instanceof Number)) {
+                    throw new IllegalArgumentException("Колонка '" + columnName + "' ожидает число с точкой (DECIMAL), но получено: " + value.getClass().getSimpleName());
+                }
+            }
+            case "BOOLEAN" -> {
+                if (!(value instanceof Boolean)) {
+                    throw new IllegalArgumentException("Колонка '" + columnName + "' ожидает логическое значение (BOOLEAN), но получено: " + value.getClass().getSimpleName());
+                }
+            }
+            default -> throw new IllegalArgumentException("Неизвестный тип колонки: " + columnType);
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.flexdb.service.impl;
+
+import com.example.flexdb.entity.DynamicColumnDefinition;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Построение SQL для динамических таблиц.
+ * Имена таблиц и колонок должны быть заранее проверены по метаданным — здесь они только квотируются.
+ */
+public final class DynamicSqlBuilder {
+
+    private DynamicSqlBuilder() {
+    }
+
+    /**
+     * INSERT ... RETURNING id с параметрами в порядке columnNames.
+     */
+    public static String insertSql(String tableName, Collection<String> columnNames) {
+        return String.format(
+                "INSERT INTO \"%s\" (%s) VALUES (%s) RETURNING id",
+                tableName,
+                columnNames.stream().map(col -> "\"" + col + "\"").collect(Collectors.joining(", ")),
+                columnNames.stream().map(col -> "?").collect(Collectors.joining(", "))
+        );
+    }
+
+    /**
+     * UPDATE ... WHERE id = ? с параметрами в порядке columnNames, последний параметр — id.
+     */
+    public static String updateSql(String tableName, Collection<String> columnNames) {
+        return String.format(
+                "UPDATE \"%s\" SET %s WHERE id = ?",
+                tableName,
+                columnNames.stream().map(col -> "\"" + col + "\" = ?").collect(Collectors.joining(", "))
+        );
+    }
+
+    /**
+     * UPDATE ... SET col = COALESCE(col, 0) + ? ... WHERE id = ? RETURNING *: атомарный инкремент одним выражением.
+     * Параметры — приращения в порядке columnNames, последний параметр — id.
+     */
+    public static String incrementSql(String tableName, Collection<String> columnNames) {
+        return String.format(
+                "UPDATE \"%s\" SET %s WHERE id = ? RETURNING *",
+                tableName,
+                columnNames.stream().map(col -> "\"" + col + "\" = COALESCE(\"" + col + "\", 0) + ?").collect(Collectors.joining(", "))
+        );
+    }
+
+    /**
+     * Формирует явный список колонок для SELECT по параметру fields.
+     * Каждое имя проверяется по метаданным таблицы, поэтому в SQL попадают только известные колонки.
+     * Если fields не задан — выбираются все колонки.
+     */
+    public static String selectList(List<DynamicColumnDefinition> columns, List<String> fields) {
+        List<String> selected = selectedColumns(columns, fields);
+        if (selected.isEmpty()) {
+            return "*";
+        }
+
+        return selected.stream()
+                .map(col -> "\"" + col + "\"")
+                .collect(Collectors.joining(", "));
+    }
+
+    /**
+     * Проверенные по метаданным имена колонок из параметра fields без повторов; пустой список — все колонки.
+     */
+    public static List<String> selectedColumns(List<DynamicColumnDefinition> columns, List<String> fields) {
+        if (fields == null || fields.isEmpty()) {
+            return List.of();
+        }
+
+        Set<String> knownColumns = columns.stream()
+                .map(DynamicColumnDefinition::getColumnName)
+                .collect(Collectors.toSet());
+
+        Set<String> selected = new LinkedHashSet<>();
+        for (String field : fields) {
+            String name = field.trim();
+            if (name.isEmpty()) continue;
+            if (!knownColumns.contains(name)) {
+                throw new IllegalArgumentException("Неизвестная колонка в параметре fields: '" + name + "'");
+            }
+            selected.add(name);
+        }
+
+        return List.copyOf(selected);
+    }
+}
@@ -3,29 +3,38 @@ package com.example.flexdb.service.impl;
 import com.example.flexdb.dto.*;
 import com.example.flexdb.entity.DynamicColumnDefinition;
 import com.example.flexdb.entity.DynamicTableDefinition;
+import com.example.flexdb.enums.StorageEngine;
 import com.example.flexdb.enums.SupportedColumnType;
 import com.example.flexdb.exception.ResourceNotFoundException;
+import com.example.flexdb.metrics.DynamicTableMetrics;
+import com.example.flexdb.repository.DynamicSqlExecutor;
 import com.example.flexdb.repository.DynamicTableDefinitionRepository;
+import com.example.flexdb.repository.InMemoryTableStore;
 import com.example.flexdb.service.DynamicTableService;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
-import java.util.stream.Collectors;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class DynamicTableServiceImpl implements DynamicTableService {
 
-    private final JdbcTemplate jdbcTemplate;
+    private final DynamicSqlExecutor sqlExecutor;
     private final DynamicTableDefinitionRepository tableRepo;
+    private final DynamicTableMetrics metrics;
+    private final InMemoryTableStore memoryTables;
+
+    private static final int MAX_CATALOG_PAGE_SIZE = 100;
 
     /**
      * Создаёт новую таблицу в PostgreSQL на основе пользовательского запроса и сохраняет метаданные.
+     * Для движка MEMORY DDL не выполняется: сохраняются только метаданные, строки живут в {@link InMemoryTableStore}.
      */
     @Override
     @Transactional
@@ -35,6 +44,7 @@ public class DynamicTableServiceImpl implements DynamicTableService {
         // 1. Валидация входных данных
         validateTableName(request.getTableName());
         validateColumns(request.getColumns());
+        StorageEngine engine = StorageEngine.fromString(request.getStorageEngine());
 
         // 2. Подготовка колонок (включая автоматическую id)
         List<DynamicColumnDefinition> columns = prepareColumnEntities(request);
@@ -43,21 +53,36 @@ public class DynamicTableServiceImpl implements DynamicTableService {
         String createSql = generateCreateTableSql(request.getTableName(), columns);
 
         // 4. Выполнение DDL (создание таблицы)
-        jdbcTemplate.execute(createSql);
-        log.info("Таблица '{}' успешно создана", request.getTableName());
+        if (engine == StorageEngine.POSTGRES) {
+            sqlExecutor.execute(request.getTableName(), "createDynamicTable", createSql);
+        }
+        log.info("Таблица '{}' ({}) успешно создана", request.getTableName(), engine);
 
         // 5. Сохранение метаданных
         DynamicTableDefinition table = new DynamicTableDefinition();
         table.setTableName(request.getTableName());
         table.setUserFriendlyName(request.getUserFriendlyName());
+        table.setStorageEngine(engine);
         columns.forEach(col -> col.setTableDefinition(table));
         table.setColumns(columns);
         tableRepo.save(table);
 
+        if (engine == StorageEngine.MEMORY) {
+            // Таблица появляется в хранилище только после фиксации метаданных: при откате её не должно остаться
+            memoryTables.discardSnapshot(table.getTableName());
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    memoryTables.register(table);
+                }
+            });
+        }
+
         // 6. Формирование ответа
         CreatedTableResponse response = new CreatedTableResponse();
         response.setTableName(table.getTableName());
         response.setUserFriendlyName(table.getUserFriendlyName());
+        response.setStorageEngine(table.getStorageEngine().name());
         response.setColumns(columns.stream().map(col -> {
             CreatedColumnDto dto = new CreatedColumnDto();
             dto.setName(col.getColumnName());
@@ -190,12 +215,13 @@ public class DynamicTableServiceImpl implements DynamicTableService {
     public CreatedTableResponse getTableSchema(String tableName) {
         log.info("🔍 Получение схемы таблицы: {}", tableName);
 
-        DynamicTableDefinition table = tableRepo.findByTableName(tableName)
+        DynamicTableDefinition table = metrics.recordMetadataLookup(tableName, "getTableSchema", () -> tableRepo.findWithColumnsByTableName(tableName))
                 .orElseThrow(() -> new ResourceNotFoundException("Таблица '" + tableName + "' не найдена"));
 
         CreatedTableResponse response = new CreatedTableResponse();
         response.setTableName(table.getTableName());
         response.setUserFriendlyName(table.getUserFriendlyName());
+        response.setStorageEngine(table.getStorageEngine().name());
         response.setColumns(table.getColumns().stream().map(col -> {
             CreatedColumnDto dto = new CreatedColumnDto();
             dto.setName(col.getColumnName());
@@ -210,21 +236,79 @@ public class DynamicTableServiceImpl implements DynamicTableService {
     }
 
     /**
-     * Получение списка всех созданных пользователем таблиц с краткой информацией.
+     * Страница каталога пользовательских таблиц одним SQL-запросом: определения, число колонок
+     * и общее количество подходящих таблиц. При includeStats к странице присоединяется pg_class
+     * (оценка числа строк и размер на диске) — без COUNT(*) по самим таблицам.
      *
-     * @return список таблиц
+     * @param page         номер страницы (с нуля)
+     * @param size         размер страницы (не больше 100)
+     * @param namePrefix   необязательный префикс имени таблицы
+     * @param includeStats добавить оценку строк и размер таблицы
+     * @return страница с краткой информацией о таблицах
      */
     @Override
-    public List<TableSummaryDto> getAllTableSummaries() {
-        log.info("Получение всех пользовательских таблиц");
-        List<DynamicTableDefinition> allTables = tableRepo.findAll();
-
-        return allTables.stream().map(t -> {
+    public TableSummaryPage getTableSummaries(int page, int size, String namePrefix, boolean includeStats) {
+        log.info("Получение пользовательских таблиц: страница {}, размер {}, префикс '{}'", page, size, namePrefix);
+        if (page < 0) {
+            throw new IllegalArgumentException("Номер страницы не может быть отрицательным");
+        }
+        int safeSize = Math.min(Math.max(size, 1), MAX_CATALOG_PAGE_SIZE);
+        int offset = page * safeSize;
+        String pattern = namePrefix == null || namePrefix.isEmpty() ? "%" : escapeLike(namePrefix) + "%";
+
+        String statsColumns = includeStats
+                ? ", CASE WHEN cls.reltuples < 0 THEN NULL ELSE cls.reltuples::bigint END AS estimated_rows,"
+                  + " pg_total_relation_size(cls.oid) AS total_size"
+                : ", NULL::bigint AS estimated_rows, NULL::bigint AS total_size";
+        String statsJoin = includeStats
+                ? " LEFT JOIN pg_class cls ON cls.oid = to_regclass(quote_ident(p.table_name))"
+                : "";
+
+        // Число колонок и статистика считаются только для строк страницы, total — по отфильтрованному набору
+        String sql = "WITH filtered AS ("
+                + " SELECT id, table_name, user_friendly_name FROM app_dynamic_table_definitions"
+                + " WHERE table_name LIKE ? ESCAPE '\\'),"
+                + " page AS (SELECT * FROM filtered ORDER BY table_name LIMIT ? OFFSET ?)"
+                + " SELECT p.table_name, p.user_friendly_name,"
+                + " (SELECT COUNT(*) FROM app_dynamic_column_definitions c WHERE c.table_definition_id = p.id) AS column_count,"
+                + " (SELECT COUNT(*) FROM filtered) AS total_count"
+                + statsColumns
+                + " FROM page p" + statsJoin
+                + " ORDER BY p.table_name";
+
+        long[] total = {0};
+        List<TableSummaryDto> content = sqlExecutor.queryForRows(null, "getTableSummaries", sql, (rs, rowNum) -> {
+            total[0] = rs.getLong("total_count");
             TableSummaryDto dto = new TableSummaryDto();
-            dto.setTableName(t.getTableName());
-            dto.setUserFriendlyName(t.getUserFriendlyName());
-            dto.setColumnCount(t.getColumns() != null ? t.getColumns().size() : 0);
+            dto.setTableName(rs.getString("table_name"));
+            dto.setUserFriendlyName(rs.getString("user_friendly_name"));
+            dto.setColumnCount(rs.getInt("column_count"));
+            dto.setEstimatedRowCount(rs.getObject("estimated_rows", Long.class));
+            dto.setTotalSizeBytes(rs.getObject("total_size", Long.class));
             return dto;
-        }).collect(Collectors.toList());
+        }, pattern, safeSize, offset);
+
+        // Пустая страница за пределами каталога не несёт total — досчитываем отдельно
+        if (content.isEmpty() && page > 0) {
+            total[0] = sqlExecutor.queryForObject(null, "getTableSummaries",
+                    "SELECT COUNT(*) FROM app_dynamic_table_definitions WHERE table_name LIKE ? ESCAPE '\\'",
+                    Long.class, pattern);
+        }
+
+        int totalElements = (int) total[0];
+        int totalPages = (int) Math.ceil((double) totalElements / safeSize);
+
+        return new TableSummaryPage(
+                content,
+                new PageInfo(page, safeSize),
+                totalPages,
+                totalElements,
+                page >= totalPages - 1,
+                page == 0
+        );
+    }
+
+    private static String escapeLike(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
     }
 }
@@ -0,0 +1,112 @@
+package com.example.flexdb.service.impl;
+
+import com.example.flexdb.dto.PageInfo;
+import com.example.flexdb.dto.PaginatedResponse;
+import com.example.flexdb.enums.SupportedColumnType;
+import com.example.flexdb.exception.ResourceNotFoundException;
+import com.example.flexdb.metrics.DynamicTableMetrics;
+import com.example.flexdb.repository.InMemoryTable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Операции над строками таблиц движка MEMORY. Колонки берутся из самой таблицы, поэтому здесь нет
+ * ни транзакции, ни обращения к БД. У таблицы в памяти нет архива: includeArchived ничего не добавляет.
+ * <p>
+ * Вызывается из {@link DynamicDataRouter} для уже зарегистрированных таблиц и из {@link DynamicDataServiceImpl},
+ * если таблица после рестарта запрошена впервые.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class InMemoryDataServiceImpl {
+
+    private final DynamicRowValidator rowValidator;
+    private final DynamicTableMetrics metrics;
+    private final PageResultCache pageCache;
+
+    public Map<String, Object> insertRow(String tableName, InMemoryTable memory, Map<String, Object> data) {
+        rowValidator.validateRow(memory.definitions(), data);
+        long id = memory.insert(data);
+        metrics.rowsWritten(tableName, 1);
+        pageCache.invalidate(tableName);
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("id", id);
+        result.putAll(data);
+
+        log.info("✅ Успешно вставлено в таблицу в памяти '{}', ID: {}", tableName, id);
+        return result;
+    }
+
+    public PaginatedResponse getPaginatedData(String tableName, InMemoryTable memory, int page, int size, List<String> fields) {
+        int safeSize = Math.min(size, DynamicDataServiceImpl.MAX_PAGE_SIZE);
+        List<Map<String, Object>> content = memory.page(page * safeSize, safeSize, selectedColumns(memory, fields));
+        int totalElements = memory.count();
+        metrics.rowsRead(tableName, content.size());
+
+        int totalPages = (int) Math.ceil((double) totalElements / safeSize);
+        return new PaginatedResponse(content, new PageInfo(page, safeSize), totalPages, totalElements,
+                page == totalPages - 1, page == 0);
+    }
+
+    public Map<String, Object> getRowById(String tableName, InMemoryTable memory, Long id, List<String> fields) {
+        Map<String, Object> row = memory.get(id, selectedColumns(memory, fields))
+                .orElseThrow(() -> notFound(tableName, id));
+        metrics.rowsRead(tableName, 1);
+        return row;
+    }
+
+    public Map<String, Object> updateRow(String tableName, InMemoryTable memory, Long id, Map<String, Object> data) {
+        rowValidator.validateRow(memory.definitions(), data);
+        if (!memory.update(id, data)) {
+            throw notFound(tableName, id);
+        }
+        metrics.rowsWritten(tableName, 1);
+        pageCache.invalidate(tableName);
+        return memory.get(id, List.of()).orElseThrow(() -> notFound(tableName, id));
+    }
+
+    /**
+     * Инкремент в памяти — короткая запись под блокировкой таблицы, объединять нечего.
+     */
+    public Map<String, Object> incrementRow(String tableName, InMemoryTable memory, Long id, Map<String, Object> deltas) {
+        Map<String, Number> normalized = rowValidator.validateIncrement(memory.definitions(), deltas);
+        Map<String, Object> row = memory.increment(id, normalized).orElseThrow(() -> notFound(tableName, id));
+        metrics.rowsWritten(tableName, 1);
+        pageCache.invalidate(tableName);
+        return row;
+    }
+
+    public void deleteById(String tableName, InMemoryTable memory, Long id) {
+        boolean deleted = memory.delete(id);
+        metrics.rowsWritten(tableName, deleted ? 1 : 0);
+        pageCache.invalidate(tableName);
+
+        if (!deleted) {
+            throw new ResourceNotFoundException("Запись с id = " + id + " не найдена в таблице '" + tableName + "'");
+        }
+    }
+
+    public void exportRows(String tableName, InMemoryTable memory, List<String> fields, Consumer<Map<String, Object>> consumer) {
+        memory.forEach(selectedColumns(memory, fields), consumer);
+    }
+
+    public Map<String, SupportedColumnType> describeColumns(String tableName, InMemoryTable memory, List<String> fields) {
+        return DynamicDataServiceImpl.describeColumns(memory.definitions(), fields);
+    }
+
+    private static List<String> selectedColumns(InMemoryTable memory, List<String> fields) {
+        return DynamicSqlBuilder.selectedColumns(memory.definitions(), fields);
+    }
+
+    private static ResourceNotFoundException notFound(String tableName, Long id) {
+        return new ResourceNotFoundException("Запись с id " + id + " не найдена в таблице '" + tableName + "'");
+    }
+}
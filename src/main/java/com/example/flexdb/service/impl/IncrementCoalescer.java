@@ -0,0 +1,238 @@
+package com.example.flexdb.service.impl;
+
+import com.example.flexdb.config.IncrementProperties;
+import com.example.flexdb.exception.IncrementTimeoutException;
+import com.example.flexdb.metrics.DynamicTableMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Объединяет одновременные инкременты одной строки.
+ * <p>
+ * Первый инкремент строки открывает окно {@code flexdb.increment.window}; все инкременты,
+ * пришедшие за это время, суммируются в памяти и записываются одним UPDATE. Каждый участник
+ * получает строку после этого UPDATE (или его ошибку). Горячая строка блокируется в PostgreSQL
+ * один раз за окно, а не на каждый запрос.
+ * <p>
+ * Запрос, не дождавшийся UPDATE за {@code flexdb.increment.max-wait}, отзывает своё приращение,
+ * если пачка ещё не записывается; иначе получает ошибку «результат неизвестен».
+ */
+@Component
+@Slf4j
+public class IncrementCoalescer implements DisposableBean {
+
+    private final IncrementProperties properties;
+    private final DynamicTableMetrics metrics;
+    private final ScheduledThreadPoolExecutor scheduler;
+
+    private final ConcurrentHashMap<RowKey, PendingIncrement> pending = new ConcurrentHashMap<>();
+
+    public IncrementCoalescer(IncrementProperties properties, DynamicTableMetrics metrics) {
+        this.properties = properties;
+        this.metrics = metrics;
+
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.scheduler = new ScheduledThreadPoolExecutor(Math.max(1, properties.getFlushThreads()), runnable -> {
+            Thread thread = new Thread(runnable, "flexdb-increment-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.scheduler.setRemoveOnCancelPolicy(true);
+    }
+
+    /**
+     * Добавляет приращения к накапливаемому UPDATE строки и ждёт его выполнения.
+     * <p>
+     * Если сумма с уже накопленными приращениями вышла бы за диапазон колонки (INTEGER или BIGINT),
+     * инкремент записывается отдельным UPDATE, а пачка остаётся без изменений: ошибку переполнения
+     * получит только он, а не все участники пачки.
+     *
+     * @param deltas     приращения: Long для INTEGER/BIGINT, BigDecimal для DECIMAL
+     * @param intColumns колонки INTEGER среди deltas — их суммы проверяются по диапазону int
+     * @param flush      выполняет UPDATE с суммарными приращениями и возвращает строку
+     * @return строка после UPDATE, в который вошёл этот инкремент
+     * @throws IncrementTimeoutException если UPDATE не выполнен за {@code flexdb.increment.max-wait}
+     */
+    public Map<String, Object> submit(String tableName, Long id, Map<String, Number> deltas, Set<String> intColumns,
+                                      Function<Map<String, Number>, Map<String, Object>> flush) {
+        RowKey key = new RowKey(tableName, id);
+        boolean[] opened = {false};
+        boolean[] overflow = {false};
+
+        // compute для одного ключа выполняется атомарно с remove во flush, поэтому приращение
+        // попадает либо в ещё не записанную пачку, либо в новую
+        PendingIncrement batch = pending.compute(key, (k, current) -> {
+            if (current == null) {
+                opened[0] = true;
+                PendingIncrement created = new PendingIncrement(flush);
+                created.accept(deltas, deltas);
+                return created;
+            }
+            Map<String, Number> merged = current.merged(deltas, intColumns);
+            if (merged == null) {
+                overflow[0] = true;
+                return current;
+            }
+            current.accept(merged, deltas);
+            return current;
+        });
+
+        if (overflow[0]) {
+            return flush.apply(deltas);
+        }
+        if (opened[0]) {
+            scheduler.schedule(() -> flush(key, batch), properties.getWindow().toNanos(), TimeUnit.NANOSECONDS);
+        }
+        return await(key, batch, deltas);
+    }
+
+    @Override
+    public void destroy() {
+        scheduler.shutdown();
+    }
+
+    private void flush(RowKey key, PendingIncrement batch) {
+        // Пачку уже убрали: все её участники отозвали приращения по таймауту
+        if (!pending.remove(key, batch)) {
+            return;
+        }
+        metrics.incrementBatch(key.tableName(), batch.requests);
+        try {
+            batch.result.complete(batch.flush.apply(batch.sums));
+        } catch (RuntimeException e) {
+            batch.result.completeExceptionally(e);
+        }
+    }
+
+    private Map<String, Object> await(RowKey key, PendingIncrement batch, Map<String, Number> deltas) {
+        try {
+            return batch.result.get(properties.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException("Ошибка записи инкремента", e.getCause());
+        } catch (TimeoutException e) {
+            throw timedOut(key, batch, deltas, "Инкремент не записан за " + properties.getMaxWait().toMillis() + " мс");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw timedOut(key, batch, deltas, "Ожидание записи инкремента прервано");
+        }
+    }
+
+    /**
+     * Убирает приращения из пачки, если её UPDATE ещё не начался. Иначе результат для вызывающего неизвестен.
+     */
+    private IncrementTimeoutException timedOut(RowKey key, PendingIncrement batch, Map<String, Number> deltas, String reason) {
+        boolean[] withdrawn = {false};
+        pending.computeIfPresent(key, (k, current) -> {
+            if (current != batch) {
+                return current;
+            }
+            withdrawn[0] = true;
+            current.withdraw(deltas);
+            return current.requests == 0 ? null : current;
+        });
+
+        if (withdrawn[0]) {
+            return new IncrementTimeoutException(reason + "; инкремент не применён, повторите запрос", true);
+        }
+        log.warn("Инкремент записи id = {} в таблице '{}' не дождался UPDATE, результат неизвестен", key.id(), key.tableName());
+        return new IncrementTimeoutException(reason + "; инкремент уже записывается, результат неизвестен", false);
+    }
+
+    /**
+     * Сумма приращений или null, если она не помещается в BIGINT (или в int для колонки INTEGER).
+     */
+    private static Number sum(Number left, Number right, boolean intColumn) {
+        if (left instanceof BigDecimal a && right instanceof BigDecimal b) {
+            return a.add(b);
+        }
+        try {
+            long result = Math.addExact(left.longValue(), right.longValue());
+            if (intColumn && (result < Integer.MIN_VALUE || result > Integer.MAX_VALUE)) {
+                return null;
+            }
+            return result;
+        } catch (ArithmeticException e) {
+            return null;
+        }
+    }
+
+    private static Number subtract(Number left, Number right) {
+        if (left instanceof BigDecimal a && right instanceof BigDecimal b) {
+            return a.subtract(b);
+        }
+        // Вычитаемое раньше было прибавлено без переполнения, поэтому разность тоже помещается в long
+        return left.longValue() - right.longValue();
+    }
+
+    private record RowKey(String tableName, Long id) {
+    }
+
+    /**
+     * Накопленные приращения одной строки. Изменяется только внутри compute по её ключу.
+     * <p>
+     * Для каждой колонки считается, сколько участников её изменяют: когда последний из них отзывает
+     * приращение, колонка убирается из UPDATE. Иначе нулевая сумма превратила бы NULL в 0
+     * (COALESCE(col, 0) + 0), хотя ни один записанный инкремент эту колонку не трогал.
+     */
+    private static final class PendingIncrement {
+        private final Function<Map<String, Number>, Map<String, Object>> flush;
+        private final Map<String, Number> sums = new LinkedHashMap<>();
+        private final Map<String, Integer> contributors = new HashMap<>();
+        private final CompletableFuture<Map<String, Object>> result = new CompletableFuture<>();
+        private int requests;
+
+        private PendingIncrement(Function<Map<String, Number>, Map<String, Object>> flush) {
+            this.flush = flush;
+        }
+
+        /**
+         * Суммы после добавления приращений или null, если какая-то из них переполнится. Пачку не изменяет.
+         */
+        private Map<String, Number> merged(Map<String, Number> deltas, Set<String> intColumns) {
+            Map<String, Number> candidate = new LinkedHashMap<>(sums);
+            for (Map.Entry<String, Number> delta : deltas.entrySet()) {
+                Number current = candidate.get(delta.getKey());
+                Number next = current == null
+                        ? delta.getValue()
+                        : sum(current, delta.getValue(), intColumns.contains(delta.getKey()));
+                if (next == null) {
+                    return null;
+                }
+                candidate.put(delta.getKey(), next);
+            }
+            return candidate;
+        }
+
+        private void accept(Map<String, Number> merged, Map<String, Number> deltas) {
+            sums.clear();
+            sums.putAll(merged);
+            deltas.keySet().forEach(column -> contributors.merge(column, 1, Integer::sum));
+            requests++;
+        }
+
+        private void withdraw(Map<String, Number> deltas) {
+            deltas.forEach((column, delta) -> {
+                if (contributors.merge(column, -1, Integer::sum) == 0) {
+                    contributors.remove(column);
+                    sums.remove(column);
+                } else {
+                    sums.computeIfPresent(column, (c, current) -> subtract(current, delta));
+                }
+            });
+            requests--;
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.flexdb.service.impl;
+
+import com.example.flexdb.config.MemoryTableProperties;
+import com.example.flexdb.repository.InMemoryTableStore;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Периодический снимок изменившихся таблиц в памяти на диск.
+ */
+@Component
+@RequiredArgsConstructor
+public class MemorySnapshotJob {
+
+    private final InMemoryTableStore memoryTables;
+    private final MemoryTableProperties properties;
+
+    @Scheduled(initialDelayString = "${flexdb.memory.snapshot-interval:1m}", fixedDelayString = "${flexdb.memory.snapshot-interval:1m}")
+    public void snapshotChangedTables() {
+        if (properties.isSnapshotEnabled()) {
+            memoryTables.snapshotChanged();
+        }
+    }
+}
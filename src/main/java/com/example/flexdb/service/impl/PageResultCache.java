@@ -0,0 +1,122 @@
+package com.example.flexdb.service.impl;
+
+import com.example.flexdb.config.PageCacheProperties;
+import com.example.flexdb.dto.PaginatedResponse;
+import com.example.flexdb.metrics.DynamicTableMetrics;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Кэш страниц списка записей ({@link PaginatedResponse}).
+ * <p>
+ * Ключ включает версию записи таблицы: каждая вставка, изменение и удаление увеличивает версию,
+ * и все страницы таблицы с прежней версией больше не находятся — инвалидация за O(1), без обхода кэша.
+ * Старые записи вытесняются по объёму ({@code flexdb.page-cache.max-size}, оценка по содержимому страницы).
+ * <p>
+ * Версия увеличивается после завершения транзакции записи: страница, прочитанная до коммита,
+ * попадает в кэш под старой версией и после коммита уже не отдаётся.
+ */
+@Component
+public class PageResultCache {
+
+    private final PageCacheProperties properties;
+    private final DynamicTableMetrics metrics;
+    private final Cache<PageKey, PaginatedResponse> cache;
+    private final Map<String, AtomicLong> versions = new ConcurrentHashMap<>();
+
+    public PageResultCache(PageCacheProperties properties, DynamicTableMetrics metrics, MeterRegistry registry) {
+        this.properties = properties;
+        this.metrics = metrics;
+        this.cache = Caffeine.newBuilder()
+                .maximumWeight(properties.getMaxSize().toBytes())
+                .weigher((PageKey key, PaginatedResponse page) -> estimateBytes(page))
+                .expireAfterWrite(properties.getExpireAfterWrite())
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(registry, cache, "flexdb.page");
+    }
+
+    /**
+     * Страница из кэша или из loader. Одновременные промахи по одному ключу выполняют loader один раз;
+     * исключение loader не кэшируется.
+     */
+    public PaginatedResponse get(String tableName, int page, int size, List<String> fields, boolean includeArchived,
+                                 Supplier<PaginatedResponse> loader) {
+        if (!properties.isEnabled()) {
+            return loader.get();
+        }
+
+        PageKey key = new PageKey(tableName, version(tableName).get(), page, size,
+                fields == null ? List.of() : List.copyOf(fields), includeArchived);
+        boolean[] loaded = {false};
+        PaginatedResponse result = cache.get(key, k -> {
+            loaded[0] = true;
+            return loader.get();
+        });
+        metrics.pageCacheLookup(tableName, !loaded[0]);
+        return result;
+    }
+
+    /**
+     * Увеличивает версию таблицы после завершения текущей транзакции (или сразу, если транзакции нет).
+     * Версия растёт и при откате — это только лишний промах.
+     */
+    public void invalidate(String tableName) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            version(tableName).incrementAndGet();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                version(tableName).incrementAndGet();
+            }
+        });
+    }
+
+    private AtomicLong version(String tableName) {
+        return versions.computeIfAbsent(tableName, name -> new AtomicLong());
+    }
+
+    /**
+     * Грубая оценка занимаемой памяти: заголовки объектов, записи LinkedHashMap и значения по типам.
+     */
+    private static int estimateBytes(PaginatedResponse page) {
+        long bytes = 128;
+        for (Map<String, Object> row : page.getContent()) {
+            bytes += 64;
+            for (Object value : row.values()) {
+                bytes += 40 + valueBytes(value);
+            }
+        }
+        return (int) Math.min(bytes, Integer.MAX_VALUE);
+    }
+
+    private static long valueBytes(Object value) {
+        if (value == null || value instanceof Boolean) {
+            return 0;
+        }
+        if (value instanceof String text) {
+            return 48 + text.length() * 2L;
+        }
+        if (value instanceof BigDecimal decimal) {
+            return 64 + decimal.unscaledValue().bitLength() / 8;
+        }
+        return 24;
+    }
+
+    private record PageKey(String tableName, long version, int page, int size, List<String> fields, boolean includeArchived) {
+    }
+}
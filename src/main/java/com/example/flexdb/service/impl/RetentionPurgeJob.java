@@ -0,0 +1,25 @@
+package com.example.flexdb.service.impl;
+
+import com.example.flexdb.config.RetentionProperties;
+import com.example.flexdb.service.RetentionService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * Периодический запуск очистки по политикам хранения.
+ */
+@Component
+@RequiredArgsConstructor
+public class RetentionPurgeJob {
+
+    private final RetentionService retentionService;
+    private final RetentionProperties properties;
+
+    @Scheduled(initialDelayString = "${flexdb.retention.interval:1m}", fixedDelayString = "${flexdb.retention.interval:1m}")
+    public void purgeExpiredRows() {
+        if (properties.isEnabled()) {
+            retentionService.purgeExpiredRows();
+        }
+    }
+}
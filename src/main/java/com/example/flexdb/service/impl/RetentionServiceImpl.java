@@ -0,0 +1,275 @@
+package com.example.flexdb.service.impl;
+
+import com.example.flexdb.config.RetentionProperties;
+import com.example.flexdb.dto.RetentionPolicyDto;
+import com.example.flexdb.dto.RetentionPolicyRequest;
+import com.example.flexdb.entity.DynamicColumnDefinition;
+import com.example.flexdb.entity.DynamicTableDefinition;
+import com.example.flexdb.enums.StorageEngine;
+import com.example.flexdb.exception.ResourceNotFoundException;
+import com.example.flexdb.metrics.DynamicTableMetrics;
+import com.example.flexdb.repository.DynamicSqlExecutor;
+import com.example.flexdb.repository.DynamicTableDefinitionRepository;
+import com.example.flexdb.service.RetentionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Политики хранения строк: удаление строк старше N дней по колонке TIMESTAMP/DATE.
+ * <p>
+ * Обычная таблица очищается порциями {@code DELETE ... WHERE id IN (SELECT id ... ORDER BY col LIMIT n FOR UPDATE SKIP LOCKED)}
+ * с паузой между порциями: каждая порция — короткая транзакция, строки, заблокированные пользователями, пропускаются.
+ * У таблицы, секционированной по RANGE на колонке политики, целиком удаляются партиции, верхняя граница
+ * которых не позже порога; оставшиеся просроченные строки (например, в DEFAULT-партиции) удаляются порциями.
+ * Партиция сначала отсоединяется через DETACH PARTITION ... CONCURRENTLY, который не блокирует чтение и запись
+ * родительской таблицы, и только затем удаляется уже как отдельная таблица.
+ * <p>
+ * Методы изменения политики не транзакционные: индекс для обычной таблицы строится через CREATE INDEX CONCURRENTLY,
+ * который нельзя выполнить внутри транзакции.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RetentionServiceImpl implements RetentionService {
+
+    private final DynamicTableDefinitionRepository tableRepo;
+    private final DynamicSqlExecutor sqlExecutor;
+    private final RetentionProperties properties;
+    private final DynamicTableMetrics metrics;
+    private final PageResultCache pageCache;
+    private final ColumnIndexManager indexManager;
+
+    private final Map<String, PurgeResult> lastResults = new ConcurrentHashMap<>();
+
+    @Override
+    public RetentionPolicyDto setPolicy(String tableName, RetentionPolicyRequest request) {
+        log.info("Политика хранения для таблицы '{}': {} дней по колонке '{}'", tableName, request.getDays(), request.getColumn());
+
+        DynamicTableDefinition table = findTable(tableName);
+        if (table.getStorageEngine() == StorageEngine.MEMORY) {
+            throw new IllegalArgumentException("Политика хранения недоступна для таблицы в памяти '" + tableName + "'");
+        }
+        DynamicColumnDefinition column = table.getColumns().stream()
+                .filter(col -> col.getColumnName().equals(request.getColumn()))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Неизвестная колонка: '" + request.getColumn() + "'"));
+
+        String type = column.getColumnType().toUpperCase();
+        if (!type.equals("TIMESTAMP") && !type.equals("DATE")) {
+            throw new IllegalArgumentException("Политика хранения возможна только по колонке TIMESTAMP или DATE, а '"
+                    + column.getColumnName() + "' имеет тип " + column.getColumnType());
+        }
+
+        boolean partitioned = isPartitioned(tableName);
+        String previousColumn = table.getRetentionColumn();
+        if (previousColumn != null && !previousColumn.equals(column.getColumnName())) {
+            dropIndex(tableName, previousColumn, partitioned);
+        }
+
+        // Порции удаляются в порядке колонки политики — без индекса каждая порция читала бы всю таблицу
+        indexManager.ensureIndex(tableName, "setRetentionPolicy", indexName(tableName, column.getColumnName()),
+                column.getColumnName(), partitioned);
+
+        table.setRetentionColumn(column.getColumnName());
+        table.setRetentionDays(request.getDays());
+        tableRepo.save(table);
+        lastResults.remove(tableName);
+
+        return toDto(table, partitioned);
+    }
+
+    @Override
+    public RetentionPolicyDto getPolicy(String tableName) {
+        DynamicTableDefinition table = findTableWithPolicy(tableName);
+        return toDto(table, isPartitioned(tableName));
+    }
+
+    @Override
+    public void deletePolicy(String tableName) {
+        log.info("Удаление политики хранения таблицы '{}'", tableName);
+
+        DynamicTableDefinition table = findTableWithPolicy(tableName);
+        dropIndex(tableName, table.getRetentionColumn(), isPartitioned(tableName));
+
+        table.setRetentionColumn(null);
+        table.setRetentionDays(null);
+        tableRepo.save(table);
+        lastResults.remove(tableName);
+    }
+
+    /**
+     * Один проход очистки по всем таблицам с политикой. Ошибка в одной таблице не останавливает остальные.
+     */
+    @Override
+    public void purgeExpiredRows() {
+        for (DynamicTableDefinition table : tableRepo.findByRetentionColumnIsNotNull()) {
+            try {
+                purgeTable(table);
+            } catch (RuntimeException e) {
+                log.warn("❌ Очистка таблицы '{}' по политике хранения не удалась: {}", table.getTableName(), e.getMessage());
+            }
+        }
+    }
+
+    private void purgeTable(DynamicTableDefinition table) {
+        String tableName = table.getTableName();
+        String column = table.getRetentionColumn();
+        Object cutoff = cutoff(table);
+
+        boolean partitioned = isPartitioned(tableName);
+        int droppedPartitions = partitioned ? dropExpiredPartitions(tableName, column, cutoff) : 0;
+        long purgedRows = deleteExpiredChunks(tableName, column, cutoff);
+
+        String backlogSql = String.format("SELECT COUNT(*) FROM (SELECT 1 FROM \"%s\" WHERE \"%s\" < ? LIMIT ?) expired", tableName, column);
+        Long backlog = sqlExecutor.queryForObject(tableName, "purgeExpiredRows", backlogSql, Long.class, cutoff, properties.getBacklogCountLimit());
+        metrics.retentionBacklog(tableName, backlog != null ? backlog : 0);
+
+        lastResults.put(tableName, new PurgeResult(Instant.now(), purgedRows, droppedPartitions, backlog));
+        if (purgedRows > 0 || droppedPartitions > 0) {
+            log.info("🧹 Таблица '{}': удалено строк {}, партиций {}, осталось просроченных ~{}", tableName, purgedRows, droppedPartitions, backlog);
+        }
+    }
+
+    /**
+     * Удаляет просроченные строки порциями по chunkSize, не больше maxChunksPerRun порций за проход.
+     */
+    private long deleteExpiredChunks(String tableName, String column, Object cutoff) {
+        String sql = String.format(
+                "DELETE FROM \"%s\" WHERE id IN (SELECT id FROM \"%s\" WHERE \"%s\" < ? ORDER BY \"%s\" LIMIT ? FOR UPDATE SKIP LOCKED)",
+                tableName, tableName, column, column);
+
+        long total = 0;
+        for (int chunk = 0; chunk < properties.getMaxChunksPerRun(); chunk++) {
+            int deleted = sqlExecutor.update(tableName, "purgeExpiredRows", sql, cutoff, properties.getChunkSize());
+            total += deleted;
+            metrics.retentionPurged(tableName, "rows", deleted);
+            if (deleted > 0) {
+                pageCache.invalidate(tableName);
+            }
+            if (deleted < properties.getChunkSize()) {
+                break;
+            }
+            try {
+                Thread.sleep(properties.getChunkPause().toMillis());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return total;
+    }
+
+    /**
+     * Удаляет партиции, целиком лежащие до порога. Работает только при RANGE-секционировании по колонке политики.
+     * <p>
+     * DROP TABLE партиции берёт ACCESS EXCLUSIVE на родительскую таблицу и на время удаления останавливает все запросы
+     * к ней, поэтому партиция сначала отсоединяется с CONCURRENTLY. Если прошлое отсоединение прервалось, партиция
+     * осталась в состоянии detach pending — оно завершается через FINALIZE. При DEFAULT-партиции PostgreSQL
+     * не разрешает CONCURRENTLY, и партиция отсоединяется обычным DETACH.
+     */
+    private int dropExpiredPartitions(String tableName, String column, Object cutoff) {
+        String keySql = "SELECT pg_get_partkeydef(to_regclass(quote_ident(?)))";
+        String partitionKey = sqlExecutor.queryForObject(tableName, "purgeExpiredRows", keySql, String.class, tableName);
+        if (!("RANGE (" + column + ")").equals(partitionKey)) {
+            return 0;
+        }
+
+        // Верхняя граница партиции (TO ('...')) исключающая: все её строки меньше границы
+        String partitionsSql = "SELECT partition_name, detach_pending FROM ("
+                + " SELECT child.relname AS partition_name, i.inhdetachpending AS detach_pending,"
+                + " (regexp_match(pg_get_expr(child.relpartbound, child.oid), 'TO \\(''([^'']+)''\\)'))[1] AS upper_bound"
+                + " FROM pg_inherits i JOIN pg_class child ON child.oid = i.inhrelid"
+                + " WHERE i.inhparent = to_regclass(quote_ident(?))) p"
+                + " WHERE upper_bound IS NOT NULL AND upper_bound::timestamp <= ?::timestamp";
+        List<ExpiredPartition> expired = sqlExecutor.queryForRows(tableName, "purgeExpiredRows", partitionsSql,
+                (rs, rowNum) -> new ExpiredPartition(rs.getString("partition_name"), rs.getBoolean("detach_pending")),
+                tableName, cutoff);
+        if (expired.isEmpty()) {
+            return 0;
+        }
+
+        String defaultSql = "SELECT partdefid <> 0 FROM pg_partitioned_table WHERE partrelid = to_regclass(quote_ident(?))";
+        boolean hasDefault = Boolean.TRUE.equals(
+                sqlExecutor.queryForObject(tableName, "purgeExpiredRows", defaultSql, Boolean.class, tableName));
+
+        for (ExpiredPartition partition : expired) {
+            String mode = partition.detachPending() ? " FINALIZE" : hasDefault ? "" : " CONCURRENTLY";
+            sqlExecutor.execute(tableName, "purgeExpiredRows",
+                    String.format("ALTER TABLE \"%s\" DETACH PARTITION \"%s\"%s", tableName, partition.name(), mode));
+            sqlExecutor.execute(tableName, "purgeExpiredRows", String.format("DROP TABLE IF EXISTS \"%s\"", partition.name()));
+            log.info("🧹 Удалена партиция '{}' таблицы '{}'", partition.name(), tableName);
+        }
+        metrics.retentionPurged(tableName, "partitions", expired.size());
+        if (!expired.isEmpty()) {
+            pageCache.invalidate(tableName);
+        }
+        return expired.size();
+    }
+
+    private record ExpiredPartition(String name, boolean detachPending) {
+    }
+
+    private void dropIndex(String tableName, String column, boolean partitioned) {
+        indexManager.dropIndex(tableName, "deleteRetentionPolicy", indexName(tableName, column), partitioned);
+    }
+
+    private boolean isPartitioned(String tableName) {
+        return indexManager.isPartitioned(tableName, "retentionPolicy");
+    }
+
+    /**
+     * Порог в типе колонки: LocalDate для DATE, LocalDateTime для TIMESTAMP.
+     */
+    private static Object cutoff(DynamicTableDefinition table) {
+        boolean dateColumn = table.getColumns().stream()
+                .anyMatch(col -> col.getColumnName().equals(table.getRetentionColumn()) && "DATE".equalsIgnoreCase(col.getColumnType()));
+        return dateColumn
+                ? LocalDate.now().minusDays(table.getRetentionDays())
+                : LocalDateTime.now().minusDays(table.getRetentionDays());
+    }
+
+    private static String indexName(String tableName, String column) {
+        return ColumnIndexManager.indexName(tableName, column, "retention_idx");
+    }
+
+    private DynamicTableDefinition findTable(String tableName) {
+        return metrics.recordMetadataLookup(tableName, "retentionPolicy", () -> tableRepo.findWithColumnsByTableName(tableName))
+                .orElseThrow(() -> new ResourceNotFoundException("Таблица '" + tableName + "' не найдена"));
+    }
+
+    private DynamicTableDefinition findTableWithPolicy(String tableName) {
+        DynamicTableDefinition table = findTable(tableName);
+        if (table.getRetentionColumn() == null) {
+            throw new ResourceNotFoundException("Для таблицы '" + tableName + "' политика хранения не задана");
+        }
+        return table;
+    }
+
+    private RetentionPolicyDto toDto(DynamicTableDefinition table, boolean partitioned) {
+        RetentionPolicyDto dto = new RetentionPolicyDto();
+        dto.setTableName(table.getTableName());
+        dto.setColumn(table.getRetentionColumn());
+        dto.setDays(table.getRetentionDays());
+        dto.setPartitioned(partitioned);
+
+        PurgeResult result = lastResults.get(table.getTableName());
+        if (result != null) {
+            dto.setLastRunAt(result.runAt());
+            dto.setLastPurgedRows(result.purgedRows());
+            dto.setLastDroppedPartitions(result.droppedPartitions());
+            dto.setBacklog(result.backlog());
+        }
+        return dto;
+    }
+
+    private record PurgeResult(Instant runAt, long purgedRows, int droppedPartitions, Long backlog) {
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.flexdb.service.impl;
+
+import com.example.flexdb.config.WarmupProperties;
+import com.example.flexdb.dto.PaginatedResponse;
+import com.example.flexdb.repository.DynamicTableDefinitionRepository;
+import com.example.flexdb.service.DynamicDataService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Прогрев при старте ({@code flexdb.warmup.enabled}).
+ * <p>
+ * Выполняется как ApplicationRunner, то есть до события ApplicationReadyEvent: readiness-проба
+ * ({@code /actuator/health/readiness}) не пропускает трафик, пока прогрев не закончится.
+ * Имена первых {@code flexdb.warmup.max-tables} таблиц (в порядке создания) читаются одним запросом; остальные
+ * таблицы не читаются. Для каждой выполняются те же запросы, что и у первых клиентов: первая страница списка (попадает в кэш страниц), получение записи
+ * по id и сериализация ответа в JSON.
+ * Таблицы в памяти при этом поднимаются из снимка. Ошибка на отдельной таблице не останавливает старт.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class StartupWarmup implements ApplicationRunner {
+
+    private final WarmupProperties properties;
+    private final DynamicTableDefinitionRepository tableRepo;
+    private final DynamicDataService dataService;
+    private final ObjectMapper objectMapper;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!properties.isEnabled() || properties.getMaxTables() <= 0) {
+            return;
+        }
+
+        long start = System.nanoTime();
+        List<String> tableNames = tableRepo.findTableNames(PageRequest.of(0, properties.getMaxTables()));
+
+        int warmed = 0;
+        for (String tableName : tableNames) {
+            try {
+                warmTable(tableName);
+                warmed++;
+            } catch (RuntimeException e) {
+                log.warn("Прогрев таблицы '{}' не удался: {}", tableName, e.getMessage());
+            }
+        }
+
+        log.info("🔥 Прогрев завершён за {} мс: прогрето таблиц {} из {}",
+                (System.nanoTime() - start) / 1_000_000, warmed, tableNames.size());
+    }
+
+    private void warmTable(String tableName) {
+        PaginatedResponse page = dataService.getPaginatedData(tableName, 0, properties.getPageSize(), null, false);
+        serialize(page);
+
+        if (!page.getContent().isEmpty() && page.getContent().get(0).get("id") instanceof Number id) {
+            Map<String, Object> row = dataService.getRowById(tableName, id.longValue(), null);
+            serialize(row);
+        }
+    }
+
+    private void serialize(Object value) {
+        try {
+            objectMapper.writeValueAsBytes(value);
+        } catch (Exception e) {
+            throw new IllegalStateException("Не удалось сериализовать ответ: " + e.getMessage(), e);
+        }
+    }
+}
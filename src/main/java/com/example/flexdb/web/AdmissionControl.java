@@ -0,0 +1,371 @@
+package com.example.flexdb.web;
+
+import com.example.flexdb.config.AdmissionProperties;
+import com.example.flexdb.dto.AdmissionLimitDto;
+import com.example.flexdb.dto.AdmissionLimiterDto;
+import com.example.flexdb.dto.AdmissionLimitsRequest;
+import com.example.flexdb.dto.AdmissionReport;
+import com.example.flexdb.enums.OperationClass;
+import com.example.flexdb.exception.AdmissionRejectedException;
+import com.example.flexdb.metrics.DynamicTableMetrics;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+/**
+ * Допуск запросов к таблицам: корзина токенов (частота) и лимит одновременных запросов
+ * на каждую пару таблица + класс операции, плюс сброс BULK-нагрузки при общей перегрузке.
+ * <p>
+ * Одна «шумная» таблица упирается в свои лимиты и получает 429, не занимая пул соединений
+ * для остальных. При {@code shedBulkAboveInFlight} одновременных запросах отклоняются только BULK-операции,
+ * так что точечные чтения и записи продолжают обслуживаться.
+ * <p>
+ * Лимиты задаются в {@code flexdb.admission.*} и меняются на лету через {@code /api/v1/admin/admission}.
+ * <p>
+ * Счётчики заводятся при первом запросе к таблице. Таблицы с собственными лимитами получают свой счётчик всегда,
+ * остальные — пока счётчиков меньше {@code maxTrackedTables}, дальше делят общий {@code _other}. Простаивающий
+ * счётчик с полной корзиной удаляется: новый создаётся в том же состоянии, так что лимиты от этого не слабеют.
+ */
+@Component
+@Slf4j
+public class AdmissionControl {
+
+    private static final String NO_TABLE = DynamicTableMetrics.NO_TABLE;
+
+    private final AdmissionProperties properties;
+    private final DynamicTableMetrics metrics;
+    private final MeterRegistry registry;
+
+    private final Map<OperationClass, LimitConfig> defaults = new ConcurrentHashMap<>();
+    private final Map<String, Map<OperationClass, LimitConfig>> tableLimits = new ConcurrentHashMap<>();
+    private final Map<LimiterKey, Limiter> limiters = new ConcurrentHashMap<>();
+    private final Map<OperationClass, AtomicInteger> inFlightByClass = new EnumMap<>(OperationClass.class);
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private volatile int shedBulkAboveInFlight;
+
+    public AdmissionControl(AdmissionProperties properties, DynamicTableMetrics metrics, MeterRegistry registry) {
+        this.properties = properties;
+        this.metrics = metrics;
+        this.registry = registry;
+        this.shedBulkAboveInFlight = properties.getShedBulkAboveInFlight();
+
+        for (OperationClass operationClass : OperationClass.values()) {
+            defaults.put(operationClass, LimitConfig.of(properties.getDefaults().get(operationClass)));
+
+            AtomicInteger counter = new AtomicInteger();
+            inFlightByClass.put(operationClass, counter);
+            Gauge.builder("flexdb.admission.in.flight", counter, AtomicInteger::get)
+                    .description("Запросы, выполняющиеся под контролем допуска")
+                    .tag("class", operationClass.name().toLowerCase())
+                    .register(registry);
+            registerLimitGauges(NO_TABLE, operationClass);
+        }
+        properties.getTables().forEach((table, limits) -> {
+            Map<OperationClass, LimitConfig> configs = new EnumMap<>(OperationClass.class);
+            limits.forEach((operationClass, limit) -> configs.put(operationClass, LimitConfig.of(limit)));
+            tableLimits.put(table, configs);
+            configs.keySet().forEach(operationClass -> registerLimitGauges(table, operationClass));
+        });
+    }
+
+    /**
+     * Пропускает запрос или бросает {@link AdmissionRejectedException}. Разрешение освобождается через {@link #release}.
+     *
+     * @param tableName таблица из пути запроса или null для операций без таблицы
+     */
+    public Permit admit(String tableName, OperationClass operationClass) {
+        String table = tableName != null ? tableName : NO_TABLE;
+
+        int shedThreshold = shedBulkAboveInFlight;
+        if (operationClass == OperationClass.BULK && shedThreshold > 0 && inFlight.get() >= shedThreshold) {
+            throw reject(table, operationClass, "shed", 1,
+                    "Сервис перегружен: BULK-операции временно отклоняются");
+        }
+
+        Limiter limiter = limiter(table, operationClass);
+        LimitConfig limit = limiter.limit;
+        limiter.lastUsed = System.nanoTime();
+
+        int running = limiter.inFlight.incrementAndGet();
+        if (limit.maxInFlight() > 0 && running > limit.maxInFlight()) {
+            limiter.inFlight.decrementAndGet();
+            throw reject(table, operationClass, "in_flight", 1,
+                    "Слишком много одновременных " + operationClass + "-запросов к таблице '" + table + "'");
+        }
+
+        long waitNanos = limiter.tryTake();
+        if (waitNanos > 0) {
+            limiter.inFlight.decrementAndGet();
+            long retryAfter = Math.max(1, (waitNanos + 999_999_999L) / 1_000_000_000L);
+            throw reject(table, operationClass, "rate", retryAfter,
+                    "Превышена частота " + operationClass + "-запросов к таблице '" + table + "'");
+        }
+
+        inFlight.incrementAndGet();
+        inFlightByClass.get(operationClass).incrementAndGet();
+        return new Permit(limiter, operationClass);
+    }
+
+    public void release(Permit permit) {
+        permit.limiter().lastUsed = System.nanoTime();
+        permit.limiter().inFlight.decrementAndGet();
+        inFlightByClass.get(permit.operationClass()).decrementAndGet();
+        inFlight.decrementAndGet();
+    }
+
+    /**
+     * Меняет лимиты по умолчанию (и порог сброса нагрузки). Действует сразу для всех таблиц без своих лимитов.
+     */
+    public void updateDefaults(AdmissionLimitsRequest request) {
+        log.info("Новые лимиты допуска по умолчанию: {}", request);
+        apply(request, defaults::put);
+        if (request.getShedBulkAboveInFlight() != null) {
+            shedBulkAboveInFlight = request.getShedBulkAboveInFlight();
+        }
+        reconfigure();
+    }
+
+    public void updateTableLimits(String tableName, AdmissionLimitsRequest request) {
+        if (request.getShedBulkAboveInFlight() != null) {
+            throw new IllegalArgumentException("Порог сброса нагрузки задаётся только для лимитов по умолчанию");
+        }
+        log.info("Новые лимиты допуска таблицы '{}': {}", tableName, request);
+
+        Map<OperationClass, LimitConfig> configs = tableLimits.computeIfAbsent(tableName, name -> new ConcurrentHashMap<>());
+        apply(request, (operationClass, limit) -> {
+            configs.put(operationClass, limit);
+            registerLimitGauges(tableName, operationClass);
+        });
+        reconfigure();
+    }
+
+    /**
+     * Возвращает таблице лимиты по умолчанию.
+     */
+    public void resetTableLimits(String tableName) {
+        log.info("Сброс лимитов допуска таблицы '{}'", tableName);
+        tableLimits.remove(tableName);
+        reconfigure();
+    }
+
+    public AdmissionReport report() {
+        Map<String, AdmissionLimitDto> defaultLimits = new LinkedHashMap<>();
+        defaults.forEach((operationClass, limit) -> defaultLimits.put(operationClass.name(), limit.toDto()));
+
+        Map<String, Map<String, AdmissionLimitDto>> tables = new TreeMap<>();
+        tableLimits.forEach((table, limits) -> {
+            Map<String, AdmissionLimitDto> dto = new LinkedHashMap<>();
+            limits.forEach((operationClass, limit) -> dto.put(operationClass.name(), limit.toDto()));
+            tables.put(table, dto);
+        });
+
+        List<AdmissionLimiterDto> states = limiters.entrySet().stream()
+                .sorted(Comparator.comparing((Map.Entry<LimiterKey, Limiter> entry) -> entry.getKey().table())
+                        .thenComparing(entry -> entry.getKey().operationClass()))
+                .map(entry -> {
+                    Limiter limiter = entry.getValue();
+                    LimitConfig limit = limiter.limit;
+                    return new AdmissionLimiterDto(entry.getKey().table(), entry.getKey().operationClass().name(),
+                            limit.toDto(), limiter.inFlight.get(), limit.rate() > 0 ? limiter.availableTokens() : null);
+                })
+                .toList();
+
+        return new AdmissionReport(properties.isEnabled(), inFlight.get(), shedBulkAboveInFlight, defaultLimits, tables, states,
+                warnings());
+    }
+
+    /**
+     * Удаляет счётчики, которые простаивают дольше {@code idleEvictAfter}, без запросов в работе и с полной корзиной.
+     * Запрос, успевший взять счётчик перед удалением, доработает на нём; следующий создаст новый.
+     */
+    @Scheduled(initialDelayString = "${flexdb.admission.idle-evict-after:10m}", fixedDelayString = "${flexdb.admission.idle-evict-after:10m}")
+    public void evictIdleLimiters() {
+        long idleNanos = properties.getIdleEvictAfter().toNanos();
+        long now = System.nanoTime();
+        int before = limiters.size();
+        limiters.entrySet().removeIf(entry -> entry.getValue().isIdle(now, idleNanos));
+        int evicted = before - limiters.size();
+        if (evicted > 0) {
+            log.debug("Удалено простаивающих счётчиков допуска: {}", evicted);
+        }
+    }
+
+    private List<String> warnings() {
+        List<String> warnings = new ArrayList<>();
+        if (!properties.isEnabled()) {
+            warnings.add("Контроль допуска выключен (flexdb.admission.enabled=false): лимиты не применяются, "
+                    + "включение требует перезапуска");
+        }
+        defaults.forEach((operationClass, limit) -> burstWithoutRate("по умолчанию", operationClass, limit, warnings));
+        tableLimits.forEach((table, limits) -> limits.forEach((operationClass, limit) ->
+                burstWithoutRate("таблицы '" + table + "'", operationClass, limit, warnings)));
+        if (limiters.keySet().stream().map(LimiterKey::table).distinct().count() >= properties.getMaxTrackedTables()) {
+            warnings.add("Отслеживается maxTrackedTables = " + properties.getMaxTrackedTables() + " таблиц: новые таблицы "
+                    + "без собственных лимитов делят общий счётчик " + DynamicTableMetrics.OTHER_TABLE
+                    + ", лимиты по умолчанию действуют на них сообща");
+        }
+        return warnings;
+    }
+
+    private static void burstWithoutRate(String owner, OperationClass operationClass, LimitConfig limit, List<String> warnings) {
+        if (limit.rate() <= 0 && limit.burst() > 0) {
+            warnings.add("Лимит " + operationClass + " " + owner + ": burst без rate не действует — частота не ограничена");
+        }
+    }
+
+    private Limiter limiter(String table, OperationClass operationClass) {
+        Limiter limiter = limiters.get(new LimiterKey(table, operationClass));
+        if (limiter != null) {
+            return limiter;
+        }
+        // Имя таблицы приходит из пути запроса: число счётчиков ограничено, остальные таблицы делят общий.
+        // Таблица с собственными лимитами отслеживается всегда, иначе её лимиты молча заменились бы общими
+        String key = tableLimits.containsKey(table)
+                || limiters.size() < properties.getMaxTrackedTables() * OperationClass.values().length
+                ? table
+                : DynamicTableMetrics.OTHER_TABLE;
+        return limiters.computeIfAbsent(new LimiterKey(key, operationClass),
+                limiterKey -> new Limiter(resolve(limiterKey.table(), operationClass)));
+    }
+
+    private LimitConfig resolve(String table, OperationClass operationClass) {
+        Map<OperationClass, LimitConfig> own = tableLimits.get(table);
+        LimitConfig limit = own != null ? own.get(operationClass) : null;
+        return limit != null ? limit : defaults.get(operationClass);
+    }
+
+    private void reconfigure() {
+        limiters.forEach((key, limiter) -> limiter.configure(resolve(key.table(), key.operationClass())));
+    }
+
+    private static void apply(AdmissionLimitsRequest request, BiConsumer<OperationClass, LimitConfig> target) {
+        if (request.getPoint() != null) {
+            target.accept(OperationClass.POINT, LimitConfig.of(request.getPoint()));
+        }
+        if (request.getBulk() != null) {
+            target.accept(OperationClass.BULK, LimitConfig.of(request.getBulk()));
+        }
+    }
+
+    private AdmissionRejectedException reject(String table, OperationClass operationClass, String reason,
+                                              long retryAfterSeconds, String message) {
+        Counter.builder("flexdb.admission.rejected")
+                .description("Запросы, отклонённые контролем допуска")
+                .tag("table", metrics.tableTag(table))
+                .tag("class", operationClass.name().toLowerCase())
+                .tag("reason", reason)
+                .register(registry)
+                .increment();
+        return new AdmissionRejectedException(message, retryAfterSeconds);
+    }
+
+    /**
+     * Текущие лимиты таблицы (или значений по умолчанию для none) в метриках; значения читаются при каждом снятии.
+     */
+    private void registerLimitGauges(String table, OperationClass operationClass) {
+        String tableTag = NO_TABLE.equals(table) ? "_default" : table;
+        String classTag = operationClass.name().toLowerCase();
+        Gauge.builder("flexdb.admission.limit", () -> resolve(table, operationClass).rate())
+                .description("Лимиты контроля допуска")
+                .tags("table", tableTag, "class", classTag, "kind", "rate")
+                .register(registry);
+        Gauge.builder("flexdb.admission.limit", () -> resolve(table, operationClass).maxInFlight())
+                .description("Лимиты контроля допуска")
+                .tags("table", tableTag, "class", classTag, "kind", "max_in_flight")
+                .register(registry);
+    }
+
+    /**
+     * Разрешение запроса; возвращается в {@link #release}.
+     */
+    public record Permit(Limiter limiter, OperationClass operationClass) {
+    }
+
+    private record LimiterKey(String table, OperationClass operationClass) {
+    }
+
+    private record LimitConfig(double rate, int burst, int maxInFlight) {
+
+        static LimitConfig of(AdmissionProperties.Limit limit) {
+            return limit == null ? new LimitConfig(0, 0, 0) : new LimitConfig(limit.getRate(), limit.getBurst(), limit.getMaxInFlight());
+        }
+
+        static LimitConfig of(AdmissionLimitDto dto) {
+            return new LimitConfig(dto.getRate(), dto.getBurst(), dto.getMaxInFlight());
+        }
+
+        double capacity() {
+            return burst > 0 ? burst : Math.max(1, rate);
+        }
+
+        AdmissionLimitDto toDto() {
+            return new AdmissionLimitDto(rate, burst, maxInFlight);
+        }
+    }
+
+    /**
+     * Корзина токенов и счётчик одновременных запросов одной пары таблица + класс операции.
+     */
+    public static final class Limiter {
+        private final AtomicInteger inFlight = new AtomicInteger();
+        private volatile LimitConfig limit;
+        private double tokens;
+        private long refilledAt = System.nanoTime();
+        private volatile long lastUsed = System.nanoTime();
+
+        private Limiter(LimitConfig limit) {
+            this.limit = limit;
+            this.tokens = limit.capacity();
+        }
+
+        private synchronized void configure(LimitConfig limit) {
+            this.limit = limit;
+            this.tokens = Math.min(tokens, limit.capacity());
+        }
+
+        /**
+         * Берёт токен.
+         *
+         * @return 0, если токен взят, иначе наносекунды до появления следующего токена
+         */
+        private synchronized long tryTake() {
+            LimitConfig current = limit;
+            if (current.rate() <= 0) {
+                return 0;
+            }
+            refill(current);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return (long) Math.ceil((1 - tokens) / current.rate() * 1_000_000_000L);
+        }
+
+        /**
+         * Простаивает дольше idleNanos, без запросов в работе и с полной корзиной.
+         */
+        private synchronized boolean isIdle(long now, long idleNanos) {
+            return inFlight.get() == 0 && now - lastUsed >= idleNanos
+                    && (limit.rate() <= 0 || availableTokens() >= limit.capacity());
+        }
+
+        private synchronized double availableTokens() {
+            refill(limit);
+            return tokens;
+        }
+
+        private void refill(LimitConfig current) {
+            long now = System.nanoTime();
+            tokens = Math.min(current.capacity(), tokens + (now - refilledAt) / 1_000_000_000.0 * current.rate());
+            refilledAt = now;
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.flexdb.web;
+
+import com.example.flexdb.enums.OperationClass;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.util.Map;
+
+/**
+ * Контроль допуска перед обработчиками с {@link OperationClassification}: таблица берётся из переменной пути
+ * {tableName}, класс операции — из аннотации. Отказ (429 с Retry-After) происходит до bulkhead
+ * и до обращения к БД.
+ */
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = AdmissionInterceptor.class.getName() + ".permit";
+
+    private final AdmissionControl admissionControl;
+
+    public AdmissionInterceptor(AdmissionControl admissionControl) {
+        this.admissionControl = admissionControl;
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        // Асинхронный (Mono/Flux) запрос проходит preHandle повторно; разрешение уже взято при первом проходе
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            return true;
+        }
+        OperationClassification classification = handlerMethod.getMethodAnnotation(OperationClassification.class);
+        if (classification == null) {
+            return true;
+        }
+
+        OperationClass operationClass = classification.value();
+        AdmissionControl.Permit permit = admissionControl.admit(tableName(request), operationClass);
+        request.setAttribute(PERMIT_ATTRIBUTE, permit);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object permit = request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit instanceof AdmissionControl.Permit admitted) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            admissionControl.release(admitted);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String tableName(HttpServletRequest request) {
+        Object variables = request.getAttribute(HandlerMapping.URI_TEMPLATE_VARIABLES_ATTRIBUTE);
+        return variables instanceof Map<?, ?> map ? ((Map<String, String>) map).get("tableName") : null;
+    }
+}
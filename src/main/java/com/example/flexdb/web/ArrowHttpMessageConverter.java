@@ -0,0 +1,44 @@
+package com.example.flexdb.web;
+
+import com.example.flexdb.dto.TypedRows;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+
+/**
+ * Ответ {@link TypedRows} одним потоком Arrow IPC: схема, одна пачка строк, конец потока.
+ * Только запись — тела запросов в Arrow не принимаются.
+ */
+public class ArrowHttpMessageConverter extends AbstractHttpMessageConverter<TypedRows> {
+
+    public ArrowHttpMessageConverter() {
+        super(ArrowIpcWriter.ARROW_STREAM);
+    }
+
+    @Override
+    protected boolean supports(Class<?> clazz) {
+        return TypedRows.class.isAssignableFrom(clazz);
+    }
+
+    @Override
+    protected boolean canRead(MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected TypedRows readInternal(Class<? extends TypedRows> clazz, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Формат Arrow поддерживается только для ответов", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(TypedRows body, HttpOutputMessage outputMessage) throws IOException {
+        ArrowIpcWriter writer = new ArrowIpcWriter(outputMessage.getBody(), body.getColumns());
+        writer.writeSchema(body.getMetadata());
+        writer.writeBatch(body.getRows());
+        writer.writeEnd();
+    }
+}
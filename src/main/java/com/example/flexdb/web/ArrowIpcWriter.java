@@ -0,0 +1,310 @@
+package com.example.flexdb.web;
+
+import com.example.flexdb.enums.SupportedColumnType;
+import com.google.flatbuffers.FlatBufferBuilder;
+import org.apache.arrow.flatbuf.Bool;
+import org.apache.arrow.flatbuf.Buffer;
+import org.apache.arrow.flatbuf.Date;
+import org.apache.arrow.flatbuf.DateUnit;
+import org.apache.arrow.flatbuf.Endianness;
+import org.apache.arrow.flatbuf.Field;
+import org.apache.arrow.flatbuf.FieldNode;
+import org.apache.arrow.flatbuf.Int;
+import org.apache.arrow.flatbuf.KeyValue;
+import org.apache.arrow.flatbuf.Message;
+import org.apache.arrow.flatbuf.MessageHeader;
+import org.apache.arrow.flatbuf.MetadataVersion;
+import org.apache.arrow.flatbuf.RecordBatch;
+import org.apache.arrow.flatbuf.Schema;
+import org.apache.arrow.flatbuf.TimeUnit;
+import org.apache.arrow.flatbuf.Timestamp;
+import org.apache.arrow.flatbuf.Type;
+import org.apache.arrow.flatbuf.Utf8;
+import org.springframework.http.MediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Запись потока Arrow IPC ({@code application/vnd.apache.arrow.stream}) по типам колонок таблицы:
+ * сообщение Schema, RecordBatch на каждую пачку строк и маркер конца потока.
+ * <p>
+ * Тело пачки собирается в куче по спецификации колоночного формата; из Arrow используются только
+ * flatbuffers-описания сообщений (arrow-format), поэтому не нужны off-heap аллокатор arrow-memory и --add-opens.
+ * <p>
+ * Типы: BIGINT → Int64, INTEGER → Int32, TEXT → Utf8, BOOLEAN → Bool, DATE → Date32 (дни),
+ * TIMESTAMP → Timestamp(мкс) без часового пояса (как TIMESTAMP в PostgreSQL).
+ * DECIMAL пишется строкой Utf8 с метаданными поля {@code flexdb.type=DECIMAL}: колонка создаётся
+ * как NUMERIC без precision/scale, у её значений нет общей шкалы, которой требует Decimal128.
+ */
+public final class ArrowIpcWriter {
+
+    public static final MediaType ARROW_STREAM = new MediaType("application", "vnd.apache.arrow.stream");
+
+    /**
+     * Ключ метаданных пустой последней пачки, если выгрузка прервана после начала ответа.
+     */
+    public static final String ERROR_METADATA_KEY = "flexdb.error";
+
+    public static final String TYPE_METADATA_KEY = "flexdb.type";
+
+    private static final int CONTINUATION = 0xFFFFFFFF;
+    private static final byte[] PADDING = new byte[8];
+
+    private final OutputStream out;
+    private final List<String> names;
+    private final List<SupportedColumnType> types;
+
+    /**
+     * @param columns колонки потока в порядке полей схемы
+     */
+    public ArrowIpcWriter(OutputStream out, Map<String, SupportedColumnType> columns) {
+        this.out = out;
+        this.names = List.copyOf(columns.keySet());
+        this.types = List.copyOf(columns.values());
+    }
+
+    /**
+     * Первое сообщение потока; metadata попадает в custom_metadata схемы.
+     */
+    public void writeSchema(Map<String, String> metadata) throws IOException {
+        FlatBufferBuilder builder = new FlatBufferBuilder(256);
+
+        int[] fields = new int[names.size()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = field(builder, names.get(i), types.get(i));
+        }
+        int fieldsVector = Schema.createFieldsVector(builder, fields);
+        int schemaMetadata = metadata.isEmpty() ? 0 : Schema.createCustomMetadataVector(builder, keyValues(builder, metadata));
+        int schema = Schema.createSchema(builder, Endianness.Little, fieldsVector, schemaMetadata, 0);
+
+        writeMessage(builder, MessageHeader.Schema, schema, 0, new byte[0]);
+    }
+
+    /**
+     * Пачка строк одним RecordBatch. Отсутствующее в строке значение — null.
+     */
+    public void writeBatch(List<Map<String, Object>> rows) throws IOException {
+        writeBatch(rows, Map.of());
+    }
+
+    /**
+     * Пустая пачка с сообщением об ошибке в метаданных; после неё поток нужно закрыть {@link #writeEnd()}.
+     * Читатель, не знающий о ключе, увидит усечённый, но корректный поток.
+     */
+    public void writeError(String message) throws IOException {
+        writeBatch(List.of(), Map.of(ERROR_METADATA_KEY, message));
+    }
+
+    /**
+     * Маркер конца потока.
+     */
+    public void writeEnd() throws IOException {
+        out.write(ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putInt(CONTINUATION).putInt(0).array());
+    }
+
+    private void writeBatch(List<Map<String, Object>> rows, Map<String, String> metadata) throws IOException {
+        int length = rows.size();
+        Body body = new Body();
+        long[] nullCounts = new long[names.size()];
+        for (int i = 0; i < names.size(); i++) {
+            nullCounts[i] = encodeColumn(body, rows, names.get(i), types.get(i));
+        }
+
+        FlatBufferBuilder builder = new FlatBufferBuilder(256);
+        RecordBatch.startNodesVector(builder, nullCounts.length);
+        for (int i = nullCounts.length - 1; i >= 0; i--) {
+            FieldNode.createFieldNode(builder, length, nullCounts[i]);
+        }
+        int nodes = builder.endVector();
+
+        RecordBatch.startBuffersVector(builder, body.offsets.size());
+        for (int i = body.offsets.size() - 1; i >= 0; i--) {
+            Buffer.createBuffer(builder, body.offsets.get(i), body.lengths.get(i));
+        }
+        int buffers = builder.endVector();
+
+        int batch = RecordBatch.createRecordBatch(builder, length, nodes, buffers, 0, 0);
+        int messageMetadata = metadata.isEmpty() ? 0 : Message.createCustomMetadataVector(builder, keyValues(builder, metadata));
+        writeMessage(builder, MessageHeader.RecordBatch, batch, messageMetadata, body.bytes.toByteArray());
+    }
+
+    /**
+     * Буферы колонки: битовая карта валидности (пустая, если null нет), смещения для Utf8, данные.
+     *
+     * @return число null
+     */
+    private static long encodeColumn(Body body, List<Map<String, Object>> rows, String name, SupportedColumnType type) {
+        int length = rows.size();
+        byte[] validity = new byte[(length + 7) / 8];
+        long nullCount = 0;
+        for (int row = 0; row < length; row++) {
+            if (rows.get(row).get(name) == null) {
+                nullCount++;
+            } else {
+                validity[row >> 3] |= (byte) (1 << (row & 7));
+            }
+        }
+        body.add(nullCount == 0 ? new byte[0] : validity);
+
+        switch (type) {
+            case BIGINT, TIMESTAMP -> {
+                ByteBuffer data = ByteBuffer.allocate(length * 8).order(ByteOrder.LITTLE_ENDIAN);
+                for (Map<String, Object> row : rows) {
+                    Object value = row.get(name);
+                    data.putLong(value == null ? 0 : type == SupportedColumnType.BIGINT ? toLong(value) : toEpochMicros(value));
+                }
+                body.add(data.array());
+            }
+            case INTEGER, DATE -> {
+                ByteBuffer data = ByteBuffer.allocate(length * 4).order(ByteOrder.LITTLE_ENDIAN);
+                for (Map<String, Object> row : rows) {
+                    Object value = row.get(name);
+                    data.putInt(value == null ? 0 : type == SupportedColumnType.INTEGER ? (int) toLong(value) : toEpochDay(value));
+                }
+                body.add(data.array());
+            }
+            case BOOLEAN -> {
+                byte[] bits = new byte[(length + 7) / 8];
+                for (int row = 0; row < length; row++) {
+                    Object value = rows.get(row).get(name);
+                    if (value != null && (value instanceof Boolean flag ? flag : Boolean.parseBoolean(value.toString()))) {
+                        bits[row >> 3] |= (byte) (1 << (row & 7));
+                    }
+                }
+                body.add(bits);
+            }
+            case TEXT, DECIMAL -> {
+                ByteBuffer offsets = ByteBuffer.allocate((length + 1) * 4).order(ByteOrder.LITTLE_ENDIAN);
+                ByteArrayOutputStream data = new ByteArrayOutputStream();
+                offsets.putInt(0);
+                for (Map<String, Object> row : rows) {
+                    Object value = row.get(name);
+                    if (value != null) {
+                        data.writeBytes((value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString())
+                                .getBytes(StandardCharsets.UTF_8));
+                    }
+                    offsets.putInt(data.size());
+                }
+                body.add(offsets.array());
+                body.add(data.toByteArray());
+            }
+        }
+        return nullCount;
+    }
+
+    private static int field(FlatBufferBuilder builder, String name, SupportedColumnType type) {
+        int nameOffset = builder.createString(name);
+        byte typeType;
+        int typeOffset;
+        switch (type) {
+            case BIGINT -> {
+                typeType = Type.Int;
+                typeOffset = Int.createInt(builder, 64, true);
+            }
+            case INTEGER -> {
+                typeType = Type.Int;
+                typeOffset = Int.createInt(builder, 32, true);
+            }
+            case BOOLEAN -> {
+                typeType = Type.Bool;
+                Bool.startBool(builder);
+                typeOffset = Bool.endBool(builder);
+            }
+            case DATE -> {
+                typeType = Type.Date;
+                typeOffset = Date.createDate(builder, DateUnit.DAY);
+            }
+            case TIMESTAMP -> {
+                typeType = Type.Timestamp;
+                typeOffset = Timestamp.createTimestamp(builder, TimeUnit.MICROSECOND, 0);
+            }
+            default -> {
+                typeType = Type.Utf8;
+                Utf8.startUtf8(builder);
+                typeOffset = Utf8.endUtf8(builder);
+            }
+        }
+        // Пустой список дочерних полей обязателен: без него поле не читает реализация C++ (pyarrow)
+        int children = Field.createChildrenVector(builder, new int[0]);
+        int metadata = type == SupportedColumnType.DECIMAL
+                ? Field.createCustomMetadataVector(builder, keyValues(builder, Map.of(TYPE_METADATA_KEY, type.name())))
+                : 0;
+        return Field.createField(builder, nameOffset, true, typeType, typeOffset, 0, children, metadata);
+    }
+
+    private static int[] keyValues(FlatBufferBuilder builder, Map<String, String> entries) {
+        int[] offsets = new int[entries.size()];
+        int i = 0;
+        for (Map.Entry<String, String> entry : entries.entrySet()) {
+            offsets[i++] = KeyValue.createKeyValue(builder, builder.createString(entry.getKey()), builder.createString(entry.getValue()));
+        }
+        return offsets;
+    }
+
+    /**
+     * Инкапсуляция сообщения: маркер продолжения, длина метаданных (выровненная до 8 байт),
+     * flatbuffer Message и тело.
+     */
+    private void writeMessage(FlatBufferBuilder builder, byte headerType, int header, int customMetadata,
+                              byte[] body) throws IOException {
+        int message = Message.createMessage(builder, MetadataVersion.V5, headerType, header, body.length, customMetadata);
+        builder.finish(message);
+        byte[] metadata = builder.sizedByteArray();
+        int padded = align(metadata.length);
+
+        out.write(ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN).putInt(CONTINUATION).putInt(padded).array());
+        out.write(metadata);
+        out.write(PADDING, 0, padded - metadata.length);
+        out.write(body);
+    }
+
+    private static int align(int length) {
+        return (length + 7) & ~7;
+    }
+
+    private static long toLong(Object value) {
+        return value instanceof Number number ? number.longValue() : Long.parseLong(value.toString());
+    }
+
+    private static int toEpochDay(Object value) {
+        LocalDate date = value instanceof java.sql.Date sqlDate ? sqlDate.toLocalDate()
+                : value instanceof LocalDate localDate ? localDate
+                : LocalDate.parse(value.toString());
+        return (int) date.toEpochDay();
+    }
+
+    private static long toEpochMicros(Object value) {
+        LocalDateTime dateTime = value instanceof java.sql.Timestamp timestamp ? timestamp.toLocalDateTime()
+                : value instanceof LocalDateTime localDateTime ? localDateTime
+                : LocalDateTime.parse(value.toString().replace(' ', 'T'));
+        return dateTime.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + dateTime.getNano() / 1_000;
+    }
+
+    /**
+     * Тело RecordBatch: буферы подряд, каждый выровнен до 8 байт; смещения считаются от начала тела.
+     */
+    private static final class Body {
+        private final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        private final List<Long> offsets = new ArrayList<>();
+        private final List<Long> lengths = new ArrayList<>();
+
+        private void add(byte[] buffer) {
+            offsets.add((long) bytes.size());
+            lengths.add((long) buffer.length);
+            bytes.writeBytes(buffer);
+            bytes.write(PADDING, 0, align(buffer.length) - buffer.length);
+        }
+    }
+}
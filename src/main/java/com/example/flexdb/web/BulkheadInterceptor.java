@@ -0,0 +1,119 @@
+package com.example.flexdb.web;
+
+import com.example.flexdb.config.BulkheadProperties;
+import com.example.flexdb.enums.OperationClass;
+import com.example.flexdb.exception.BulkheadFullException;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bulkhead соединений с БД: семафор на каждый класс операций, размер — доля пула Hikari.
+ * Списки и пакеты не могут занять весь пул, поэтому точечные операции (getRowById, insertRow)
+ * продолжают получать соединения. При виртуальных потоках это ещё и ограничивает
+ * число запросов, одновременно ждущих соединение в Hikari.
+ * <p>
+ * Время ожидания разрешения и отказы (503) экспортируются в метрики.
+ */
+@Slf4j
+public class BulkheadInterceptor implements HandlerInterceptor {
+
+    private static final String PERMIT_ATTRIBUTE = BulkheadInterceptor.class.getName() + ".permit";
+
+    private final BulkheadProperties properties;
+    private final Map<OperationClass, Semaphore> semaphores = new EnumMap<>(OperationClass.class);
+    private final Map<OperationClass, Timer> queueTimers = new EnumMap<>(OperationClass.class);
+    private final Map<OperationClass, Counter> rejections = new EnumMap<>(OperationClass.class);
+
+    public BulkheadInterceptor(BulkheadProperties properties, DataSource dataSource, MeterRegistry registry) {
+        this.properties = properties;
+
+        int poolSize = resolvePoolSize(dataSource);
+        for (OperationClass operationClass : OperationClass.values()) {
+            double share = operationClass == OperationClass.POINT ? properties.getPointShare() : properties.getBulkShare();
+            int permits = Math.max(1, (int) Math.round(poolSize * share));
+            Semaphore semaphore = new Semaphore(permits, true);
+            semaphores.put(operationClass, semaphore);
+
+            String tag = operationClass.name().toLowerCase();
+            queueTimers.put(operationClass, Timer.builder("flexdb.bulkhead.queue")
+                    .description("Ожидание разрешения bulkhead")
+                    .tag("class", tag)
+                    .register(registry));
+            rejections.put(operationClass, Counter.builder("flexdb.bulkhead.rejected")
+                    .description("Запросы, отклонённые bulkhead")
+                    .tag("class", tag)
+                    .register(registry));
+            Gauge.builder("flexdb.bulkhead.available", semaphore, Semaphore::availablePermits)
+                    .description("Свободные разрешения bulkhead")
+                    .tag("class", tag)
+                    .register(registry);
+
+            log.info("Bulkhead {}: {} разрешений (пул {})", operationClass, permits, poolSize);
+        }
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) throws Exception {
+        if (!(handler instanceof HandlerMethod handlerMethod)) {
+            return true;
+        }
+        // Асинхронный (Mono/Flux) запрос проходит preHandle повторно; разрешение уже взято при первом проходе
+        if (request.getAttribute(PERMIT_ATTRIBUTE) != null) {
+            return true;
+        }
+        OperationClassification classification = handlerMethod.getMethodAnnotation(OperationClassification.class);
+        if (classification == null) {
+            return true;
+        }
+
+        OperationClass operationClass = classification.value();
+        Semaphore semaphore = semaphores.get(operationClass);
+
+        long start = System.nanoTime();
+        boolean acquired = semaphore.tryAcquire(properties.getMaxWait().toNanos(), TimeUnit.NANOSECONDS);
+        queueTimers.get(operationClass).record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+
+        if (!acquired) {
+            rejections.get(operationClass).increment();
+            throw new BulkheadFullException("Сервис перегружен: нет свободных соединений для операций " + operationClass);
+        }
+
+        request.setAttribute(PERMIT_ATTRIBUTE, semaphore);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        Object permit = request.getAttribute(PERMIT_ATTRIBUTE);
+        if (permit instanceof Semaphore semaphore) {
+            request.removeAttribute(PERMIT_ATTRIBUTE);
+            semaphore.release();
+        }
+    }
+
+    private static int resolvePoolSize(DataSource dataSource) {
+        try {
+            if (dataSource.isWrapperFor(HikariDataSource.class)) {
+                return dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+            }
+        } catch (SQLException e) {
+            log.warn("Не удалось определить размер пула Hikari: {}", e.getMessage());
+        }
+        return 10;
+    }
+}
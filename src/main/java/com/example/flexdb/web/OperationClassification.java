@@ -0,0 +1,18 @@
+package com.example.flexdb.web;
+
+import com.example.flexdb.enums.OperationClass;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Класс операции обработчика контроллера. По нему выбирается bulkhead соединений с БД.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface OperationClassification {
+
+    OperationClass value();
+}
@@ -0,0 +1,75 @@
+package com.example.flexdb.web;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Форматы ответов со строками таблиц и выбор формата по заголовку Accept.
+ * <p>
+ * Для одиночных ответов JSON, CBOR и Smile выбирает Spring; выбор здесь нужен там, где ответ пишется
+ * вручную (выгрузка) или тело зависит от формата (Arrow требует типов колонок).
+ */
+public enum ResponseFormat {
+
+    /**
+     * JSON; в выгрузке — NDJSON, одна запись на строку.
+     */
+    JSON(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON),
+
+    /**
+     * CBOR; в выгрузке — последовательность CBOR-значений (RFC 8742).
+     */
+    CBOR(new MediaType("application", "cbor-seq"), MediaType.APPLICATION_CBOR),
+
+    SMILE(new MediaType("application", "x-jackson-smile")),
+
+    ARROW(ArrowIpcWriter.ARROW_STREAM);
+
+    private final List<MediaType> mediaTypes;
+
+    ResponseFormat(MediaType... mediaTypes) {
+        this.mediaTypes = List.of(mediaTypes);
+    }
+
+    /**
+     * Тип содержимого потоковой выгрузки в этом формате.
+     */
+    public MediaType streamContentType() {
+        return mediaTypes.get(0);
+    }
+
+    /**
+     * Формат с наибольшим q из Accept; при равном q — указанный раньше. Пустой Accept и *&#47;* — JSON.
+     *
+     * @return null, если ни один формат не подходит
+     * @throws org.springframework.http.InvalidMediaTypeException некорректный заголовок (400)
+     */
+    public static ResponseFormat negotiate(String accept) {
+        if (!StringUtils.hasText(accept)) {
+            return JSON;
+        }
+
+        List<MediaType> accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType mediaType : accepted) {
+            if (mediaType.getQualityValue() == 0) {
+                continue;
+            }
+            for (ResponseFormat format : values()) {
+                if (format.mediaTypes.stream().anyMatch(mediaType::includes)) {
+                    return format;
+                }
+            }
+        }
+        return null;
+    }
+
+    public static List<MediaType> streamContentTypes() {
+        return Arrays.stream(values()).map(ResponseFormat::streamContentType).toList();
+    }
+}
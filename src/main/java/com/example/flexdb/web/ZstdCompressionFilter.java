@@ -0,0 +1,310 @@
+package com.example.flexdb.web;
+
+import com.example.flexdb.config.ZstdCompressionProperties;
+import com.github.luben.zstd.ZstdOutputStream;
+import com.github.luben.zstd.util.Native;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.servlet.http.HttpServletResponseWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.UncheckedIOException;
+
+/**
+ * Сжатие ответов zstd для клиентов с zstd в Accept-Encoding. Встроенный gzip Tomcat ответ с уже
+ * выставленным Content-Encoding не трогает, остальным клиентам ответы по-прежнему сжимает он.
+ * <p>
+ * Решение принимается при первой записи тела, когда тип содержимого уже известен: сжимаются типы
+ * из {@code flexdb.compression.zstd.mime-types}, кроме ответов с известной длиной меньше порога.
+ * flush() потоковой выгрузки сбрасывает сжатый блок, так что клиент получает строки без задержки.
+ * <p>
+ * Фильтр стоит снаружи {@link com.example.flexdb.metrics.ResponseSizeMetricsFilter}: метрика размера
+ * считает байты до сжатия, как и при gzip.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE - 1)
+@Slf4j
+public class ZstdCompressionFilter extends OncePerRequestFilter {
+
+    private static final String ZSTD = "zstd";
+
+    private final ZstdCompressionProperties properties;
+    private final boolean available;
+
+    public ZstdCompressionFilter(ZstdCompressionProperties properties) {
+        this.properties = properties;
+        this.available = properties.isEnabled() && loadNative();
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !available || !acceptsZstd(request.getHeader(HttpHeaders.ACCEPT_ENCODING));
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        ZstdResponseWrapper wrapper = new ZstdResponseWrapper(response);
+        try {
+            filterChain.doFilter(request, wrapper);
+        } finally {
+            wrapper.finish();
+        }
+    }
+
+    /**
+     * zstd указан в Accept-Encoding и не отключён через q=0.
+     */
+    static boolean acceptsZstd(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String token : acceptEncoding.split(",")) {
+            String[] parts = token.split(";");
+            if (!parts[0].trim().equalsIgnoreCase(ZSTD)) {
+                continue;
+            }
+            for (int i = 1; i < parts.length; i++) {
+                String parameter = parts[i].trim();
+                if (parameter.startsWith("q=")) {
+                    try {
+                        return Double.parseDouble(parameter.substring(2)) > 0;
+                    } catch (NumberFormatException e) {
+                        return false;
+                    }
+                }
+            }
+            return true;
+        }
+        return false;
+    }
+
+    private static boolean loadNative() {
+        try {
+            Native.load();
+            return true;
+        } catch (UnsatisfiedLinkError e) {
+            log.warn("Сжатие zstd отключено: нет нативной библиотеки для этой платформы ({})", e.getMessage());
+            return false;
+        }
+    }
+
+    private boolean compressible(String contentType) {
+        if (contentType == null) {
+            return false;
+        }
+        MediaType mediaType = MediaType.parseMediaType(contentType);
+        return properties.getMimeTypes().stream()
+                .map(MediaType::parseMediaType)
+                .anyMatch(mediaType::equalsTypeAndSubtype);
+    }
+
+    /**
+     * Откладывает Content-Length до решения о сжатии: у сжатого ответа длина другая.
+     */
+    private final class ZstdResponseWrapper extends HttpServletResponseWrapper {
+
+        private long contentLength = -1;
+        private Boolean compressing;
+        private OutputStream target;
+        private ZstdOutputStream zstd;
+        private ServletOutputStream servletStream;
+        private ServletOutputStream outputStream;
+        private PrintWriter writer;
+
+        ZstdResponseWrapper(HttpServletResponse response) {
+            super(response);
+        }
+
+        @Override
+        public ServletOutputStream getOutputStream() throws IOException {
+            if (writer != null) {
+                throw new IllegalStateException("getWriter() уже вызван для этого ответа");
+            }
+            if (outputStream == null) {
+                servletStream = super.getOutputStream();
+                outputStream = new DecidingOutputStream();
+            }
+            return outputStream;
+        }
+
+        @Override
+        public PrintWriter getWriter() throws IOException {
+            if (writer == null) {
+                if (outputStream != null) {
+                    throw new IllegalStateException("getOutputStream() уже вызван для этого ответа");
+                }
+                servletStream = super.getOutputStream();
+                outputStream = new DecidingOutputStream();
+                writer = new PrintWriter(new OutputStreamWriter(outputStream, getCharacterEncoding()));
+            }
+            return writer;
+        }
+
+        @Override
+        public void setContentLength(int len) {
+            setContentLengthLong(len);
+        }
+
+        @Override
+        public void setContentLengthLong(long len) {
+            if (Boolean.FALSE.equals(compressing)) {
+                super.setContentLengthLong(len);
+            } else {
+                contentLength = len;
+            }
+        }
+
+        @Override
+        public void setHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.setHeader(name, value);
+            }
+        }
+
+        @Override
+        public void addHeader(String name, String value) {
+            if (HttpHeaders.CONTENT_LENGTH.equalsIgnoreCase(name)) {
+                setContentLengthLong(Long.parseLong(value));
+            } else {
+                super.addHeader(name, value);
+            }
+        }
+
+        @Override
+        public void flushBuffer() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (target != null) {
+                target.flush();
+            }
+            super.flushBuffer();
+        }
+
+        @Override
+        public void reset() {
+            super.reset();
+            resetState();
+        }
+
+        @Override
+        public void resetBuffer() {
+            super.resetBuffer();
+            if (zstd != null) {
+                // Заголовки остаются, а начатый кадр zstd сброшен вместе с буфером — начинается новый
+                try {
+                    startFrame();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        private void resetState() {
+            contentLength = -1;
+            compressing = null;
+            target = null;
+            zstd = null;
+        }
+
+        private OutputStream target() throws IOException {
+            if (compressing == null) {
+                compressing = !isCommitted()
+                        && getStatus() != SC_NO_CONTENT
+                        && getStatus() != SC_NOT_MODIFIED
+                        && getHeader(HttpHeaders.CONTENT_ENCODING) == null
+                        && compressible(getContentType())
+                        && (contentLength < 0 || contentLength >= properties.getMinResponseSize().toBytes());
+                if (compressing) {
+                    super.setHeader(HttpHeaders.CONTENT_ENCODING, ZSTD);
+                    super.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                    startFrame();
+                } else {
+                    if (contentLength >= 0) {
+                        super.setContentLengthLong(contentLength);
+                    }
+                    target = servletStream;
+                }
+            }
+            return target;
+        }
+
+        private void startFrame() throws IOException {
+            zstd = new ZstdOutputStream(servletStream, properties.getLevel());
+            target = zstd;
+        }
+
+        /**
+         * Завершает кадр zstd; без тела ответ не сжимается и получает отложенный Content-Length.
+         */
+        private void finish() throws IOException {
+            if (writer != null) {
+                writer.flush();
+            }
+            if (compressing == null) {
+                compressing = false;
+                if (contentLength >= 0 && !isCommitted()) {
+                    super.setContentLengthLong(contentLength);
+                }
+            }
+            if (zstd != null) {
+                zstd.close();
+            }
+        }
+
+        private final class DecidingOutputStream extends ServletOutputStream {
+
+            @Override
+            public void write(int b) throws IOException {
+                target().write(b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) throws IOException {
+                if (len > 0) {
+                    target().write(b, off, len);
+                }
+            }
+
+            @Override
+            public void flush() throws IOException {
+                // flush фиксирует заголовки, поэтому решение о сжатии принимается не позже него
+                target().flush();
+            }
+
+            @Override
+            public void close() throws IOException {
+                finish();
+                servletStream.close();
+            }
+
+            @Override
+            public boolean isReady() {
+                return servletStream.isReady();
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+                servletStream.setWriteListener(writeListener);
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+-- Подсчёт колонок по таблице без полного сканирования определений колонок
+CREATE INDEX IF NOT EXISTS idx_app_dynamic_column_definitions_table_id
+    ON app_dynamic_column_definitions (table_definition_id);
+
+-- Фильтр каталога по префиксу имени (LIKE 'prefix%') независимо от collation базы
+CREATE INDEX IF NOT EXISTS idx_app_dynamic_table_definitions_name_pattern
+    ON app_dynamic_table_definitions (table_name text_pattern_ops);
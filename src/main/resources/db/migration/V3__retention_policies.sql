@@ -0,0 +1,4 @@
+-- Политика хранения: строки старше retention_days по колонке retention_column удаляются в фоне
+ALTER TABLE app_dynamic_table_definitions
+    ADD COLUMN IF NOT EXISTS retention_column VARCHAR(255),
+    ADD COLUMN IF NOT EXISTS retention_days   INTEGER;
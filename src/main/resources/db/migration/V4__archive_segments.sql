@@ -0,0 +1,19 @@
+-- Политика архивации: строки старше archive_after_days по колонке archive_column переносятся в сегменты на диске
+ALTER TABLE app_dynamic_table_definitions
+    ADD COLUMN IF NOT EXISTS archive_column     VARCHAR(255),
+    ADD COLUMN IF NOT EXISTS archive_after_days INTEGER;
+
+CREATE TABLE IF NOT EXISTS app_archive_segments
+(
+    id                  BIGSERIAL PRIMARY KEY,
+    table_definition_id BIGINT                      NOT NULL REFERENCES app_dynamic_table_definitions (id) ON DELETE CASCADE,
+    file_name           VARCHAR(512)                NOT NULL UNIQUE,
+    row_count           INTEGER                     NOT NULL,
+    min_id              BIGINT                      NOT NULL,
+    max_id              BIGINT                      NOT NULL,
+    size_bytes          BIGINT                      NOT NULL,
+    created_at          TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_app_archive_segments_table_min_id
+    ON app_archive_segments (table_definition_id, min_id);
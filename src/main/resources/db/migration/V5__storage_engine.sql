@@ -0,0 +1,3 @@
+-- Движок хранения таблицы: POSTGRES (таблица в БД) или MEMORY (строки в памяти процесса)
+ALTER TABLE app_dynamic_table_definitions
+    ADD COLUMN IF NOT EXISTS storage_engine VARCHAR(16) NOT NULL DEFAULT 'POSTGRES';
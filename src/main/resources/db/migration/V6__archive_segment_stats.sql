@@ -0,0 +1,4 @@
+-- Статистика колонок сегмента (тип, число NULL, min/max), чтобы описание политики не открывало файлы.
+-- У сегментов, созданных до миграции, NULL: статистика дописывается из футера при первом чтении политики
+ALTER TABLE app_archive_segments
+    ADD COLUMN IF NOT EXISTS column_stats JSONB;
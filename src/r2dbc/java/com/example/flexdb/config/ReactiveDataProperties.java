@@ -0,0 +1,27 @@
+package com.example.flexdb.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Подключение R2DBC для реактивного доступа к данным (профиль r2dbc).
+ * Собственный префикс вместо spring.r2dbc: автоконфигурация R2DBC отключена,
+ * иначе бин ConnectionFactory отключил бы DataSource, нужный JPA и JdbcTemplate.
+ */
+@Data
+@ConfigurationProperties(prefix = "flexdb.r2dbc")
+public class ReactiveDataProperties {
+
+    private String url;
+
+    private String username;
+
+    private String password;
+
+    private int poolMaxSize = 20;
+
+    /**
+     * Размер порции строк, которую драйвер запрашивает у PostgreSQL при потоковом чтении.
+     */
+    private int fetchSize = 250;
+}
@@ -0,0 +1,109 @@
+package com.example.flexdb.controller;
+
+
+import com.example.flexdb.dto.PaginatedResponse;
+import com.example.flexdb.enums.OperationClass;
+import com.example.flexdb.service.ReactiveDynamicDataService;
+import com.example.flexdb.web.OperationClassification;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Реактивные эндпоинты, повторяющие {@link DynamicDataController} (профиль r2dbc).
+ * Mono/Flux обрабатываются Spring MVC асинхронно, поток запроса не блокируется на время SQL.
+ */
+@RestController
+@RequestMapping("/api/v1/reactive/dynamic-tables/data")
+@RequiredArgsConstructor
+@Profile("r2dbc")
+public class ReactiveDynamicDataController {
+
+    private final ReactiveDynamicDataService reactiveDataService;
+
+    @PostMapping("/{tableName}")
+    @OperationClassification(OperationClass.POINT)
+    public Mono<ResponseEntity<Map<String, Object>>> insertRow(@PathVariable String tableName,
+                                                               @RequestBody Map<String, Object> rowData) {
+        return reactiveDataService.insertRow(tableName, rowData)
+                .map(createdRow -> ResponseEntity.status(HttpStatus.CREATED).body(createdRow));
+    }
+
+    @GetMapping("/{tableName}")
+    @OperationClassification(OperationClass.BULK)
+    public Mono<PaginatedResponse> getTableData(
+            @PathVariable String tableName,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(required = false) List<String> fields,
+            @RequestParam(defaultValue = "false") boolean includeArchived
+    ) {
+        return reactiveDataService.getPaginatedData(tableName, page, size, fields, includeArchived);
+    }
+
+    /**
+     * Все строки таблицы в формате NDJSON (по умолчанию вместе с архивом, как export).
+     * Следующая строка читается только после записи предыдущей в ответ.
+     */
+    @GetMapping(value = "/{tableName}/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @OperationClassification(OperationClass.BULK)
+    public Flux<Map<String, Object>> streamTableData(
+            @PathVariable String tableName,
+            @RequestParam(required = false) List<String> fields,
+            @RequestParam(defaultValue = "true") boolean includeArchived
+    ) {
+        return reactiveDataService.streamRows(tableName, fields, includeArchived);
+    }
+
+
+    @GetMapping("/{tableName}/{id}")
+    @OperationClassification(OperationClass.POINT)
+    public Mono<Map<String, Object>> getRow(
+            @PathVariable String tableName,
+            @PathVariable Long id,
+            @RequestParam(required = false) List<String> fields
+    ) {
+        return reactiveDataService.getRowById(tableName, id, fields);
+    }
+
+
+    @PutMapping("/{tableName}/{id}")
+    @OperationClassification(OperationClass.POINT)
+    public Mono<Map<String, Object>> updateRow(
+            @PathVariable String tableName,
+            @PathVariable Long id,
+            @RequestBody Map<String, Object> data
+    ) {
+        return reactiveDataService.updateRow(tableName, id, data);
+    }
+
+
+    @PostMapping("/{tableName}/{id}/increment")
+    @OperationClassification(OperationClass.POINT)
+    public Mono<Map<String, Object>> incrementRow(
+            @PathVariable String tableName,
+            @PathVariable Long id,
+            @RequestBody Map<String, Object> deltas
+    ) {
+        return reactiveDataService.incrementRow(tableName, id, deltas);
+    }
+
+
+    @DeleteMapping("/{tableName}/{id}")
+    @OperationClassification(OperationClass.POINT)
+    public Mono<ResponseEntity<Void>> deleteRow(
+            @PathVariable String tableName,
+            @PathVariable Long id
+    ) {
+        return reactiveDataService.deleteById(tableName, id)
+                .then(Mono.just(ResponseEntity.noContent().build()));
+    }
+}
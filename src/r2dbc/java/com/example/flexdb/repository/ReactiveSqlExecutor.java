@@ -0,0 +1,196 @@
+package com.example.flexdb.repository;
+
+import com.example.flexdb.config.ReactiveDataProperties;
+import com.example.flexdb.metrics.DynamicTableMetrics;
+import com.example.flexdb.metrics.SlowQueryLog;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Readable;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.transaction.support.DefaultTransactionDefinition;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Реактивный аналог {@link DynamicSqlExecutor} на R2DBC.
+ * <p>
+ * Пул соединений и менеджер транзакций создаются внутри и не публикуются как бины:
+ * бин ConnectionFactory отключил бы автоконфигурацию DataSource, а второй TransactionManager
+ * сделал бы неоднозначными все @Transactional в JDBC/JPA-части приложения.
+ * <p>
+ * SQL передаётся с плейсхолдерами ?, как в JdbcTemplate, и переписывается в $1, $2, ... для PostgreSQL.
+ * В {@link SlowQueryLog} запрос попадает в исходной форме с ?, поэтому формы совпадают с JDBC-путём.
+ */
+@Repository
+@Profile("r2dbc")
+@Slf4j
+public class ReactiveSqlExecutor implements DisposableBean {
+
+    private final ConnectionPool connectionPool;
+    private final DatabaseClient databaseClient;
+    private final TransactionalOperator transactionalOperator;
+    private final TransactionalOperator snapshotOperator;
+    private final DynamicTableMetrics metrics;
+    private final SlowQueryLog slowQueryLog;
+    private final int fetchSize;
+
+    public ReactiveSqlExecutor(ReactiveDataProperties properties, DynamicTableMetrics metrics, SlowQueryLog slowQueryLog) {
+        ConnectionFactoryOptions.Builder options = ConnectionFactoryOptions.parse(properties.getUrl()).mutate();
+        if (properties.getUsername() != null) {
+            options.option(ConnectionFactoryOptions.USER, properties.getUsername());
+        }
+        if (properties.getPassword() != null) {
+            options.option(ConnectionFactoryOptions.PASSWORD, properties.getPassword());
+        }
+
+        this.connectionPool = new ConnectionPool(ConnectionPoolConfiguration
+                .builder(ConnectionFactories.get(options.build()))
+                .maxSize(properties.getPoolMaxSize())
+                .build());
+        this.databaseClient = DatabaseClient.create(connectionPool);
+        R2dbcTransactionManager transactionManager = new R2dbcTransactionManager(connectionPool);
+        this.transactionalOperator = TransactionalOperator.create(transactionManager);
+        DefaultTransactionDefinition snapshot = new DefaultTransactionDefinition();
+        snapshot.setReadOnly(true);
+        snapshot.setIsolationLevel(TransactionDefinition.ISOLATION_REPEATABLE_READ);
+        this.snapshotOperator = TransactionalOperator.create(transactionManager, snapshot);
+        this.metrics = metrics;
+        this.slowQueryLog = slowQueryLog;
+        this.fetchSize = properties.getFetchSize();
+
+        log.info("R2DBC пул создан: {} (максимум {} соединений)", properties.getUrl(), properties.getPoolMaxSize());
+    }
+
+    /**
+     * Поток строк с учётом backpressure: драйвер запрашивает строки у PostgreSQL порциями по fetchSize.
+     */
+    public Flux<Map<String, Object>> queryForFlux(String tableName, String operation, String sql,
+                                                  List<Object> args, List<Class<?>> types) {
+        return Flux.defer(() -> {
+            long start = System.nanoTime();
+            AtomicLong rows = new AtomicLong();
+            return bind(sql, args, types)
+                    .filter(statement -> statement.fetchSize(fetchSize))
+                    .fetch()
+                    .all()
+                    .doOnNext(row -> rows.incrementAndGet())
+                    .doFinally(signal -> {
+                        long elapsed = System.nanoTime() - start;
+                        metrics.recordSql(tableName, operation, elapsed);
+                        metrics.rowsRead(tableName, rows.get());
+                        slowQueryLog.record(tableName, operation, sql, args.toArray(), elapsed, rows.get());
+                    });
+        });
+    }
+
+    /**
+     * Результат целиком списком, каждая строка — через mapper.
+     */
+    public <T> Mono<List<T>> queryForRows(String tableName, String operation, String sql,
+                                          List<Object> args, List<Class<?>> types, Function<Readable, T> mapper) {
+        return timed(tableName, operation, sql, args, bind(sql, args, types)
+                .map(mapper)
+                .all()
+                .collectList(), List::size)
+                .doOnNext(rows -> metrics.rowsRead(tableName, rows.size()));
+    }
+
+    public Mono<Long> queryForLong(String tableName, String operation, String sql,
+                                   List<Object> args, List<Class<?>> types) {
+        return timed(tableName, operation, sql, args, bind(sql, args, types)
+                .map((row, metadata) -> row.get(0, Long.class))
+                .one(), value -> 1);
+    }
+
+    public Mono<Long> update(String tableName, String operation, String sql,
+                             List<Object> args, List<Class<?>> types) {
+        return timed(tableName, operation, sql, args, bind(sql, args, types)
+                .fetch()
+                .rowsUpdated(), rows -> rows)
+                .doOnNext(rows -> metrics.rowsWritten(tableName, rows));
+    }
+
+    /**
+     * UPDATE ... RETURNING: изменённые строки целиком.
+     */
+    public Mono<List<Map<String, Object>>> updateReturning(String tableName, String operation, String sql,
+                                                           List<Object> args, List<Class<?>> types) {
+        return timed(tableName, operation, sql, args, bind(sql, args, types)
+                .fetch()
+                .all()
+                .collectList(), List::size)
+                .doOnNext(rows -> metrics.rowsWritten(tableName, rows.size()));
+    }
+
+    public <T> Mono<T> transactional(Mono<T> mono) {
+        return transactionalOperator.transactional(mono);
+    }
+
+    /**
+     * Поток в одной транзакции REPEATABLE READ только для чтения: все запросы внутри видят один снимок.
+     */
+    public <T> Flux<T> snapshot(Flux<T> flux) {
+        return snapshotOperator.transactional(flux);
+    }
+
+    @Override
+    public void destroy() {
+        connectionPool.dispose();
+    }
+
+    private DatabaseClient.GenericExecuteSpec bind(String sql, List<Object> args, List<Class<?>> types) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(toNativePlaceholders(sql));
+        for (int i = 0; i < args.size(); i++) {
+            Object value = args.get(i);
+            spec = value != null ? spec.bind(i, value) : spec.bindNull(i, types.get(i));
+        }
+        return spec;
+    }
+
+    private <T> Mono<T> timed(String tableName, String operation, String sql, List<Object> args,
+                              Mono<T> mono, ToLongFunction<T> rowCount) {
+        return Mono.defer(() -> {
+            long start = System.nanoTime();
+            AtomicLong rows = new AtomicLong();
+            return mono
+                    .doOnNext(value -> rows.set(rowCount.applyAsLong(value)))
+                    .doFinally(signal -> {
+                        long elapsed = System.nanoTime() - start;
+                        metrics.recordSql(tableName, operation, elapsed);
+                        slowQueryLog.record(tableName, operation, sql, args.toArray(), elapsed, rows.get());
+                    });
+        });
+    }
+
+    /**
+     * Заменяет ? на $1, $2, ... Имена таблиц и колонок проверены по метаданным и не содержат '?'.
+     */
+    private static String toNativePlaceholders(String sql) {
+        StringBuilder result = new StringBuilder(sql.length() + 8);
+        int index = 1;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '?') {
+                result.append('$').append(index++);
+            } else {
+                result.append(c);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.flexdb.service;
+
+import com.example.flexdb.dto.PaginatedResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Неблокирующий вариант {@link DynamicDataService} на R2DBC (профиль r2dbc).
+ */
+public interface ReactiveDynamicDataService {
+
+    Mono<Map<String, Object>> insertRow(String tableName, Map<String, Object> data);
+
+    Mono<PaginatedResponse> getPaginatedData(String tableName, int page, int size, List<String> fields, boolean includeArchived);
+
+    Flux<Map<String, Object>> streamRows(String tableName, List<String> fields, boolean includeArchived);
+
+    Mono<Map<String, Object>> getRowById(String tableName, Long id, List<String> fields);
+
+    Mono<Map<String, Object>> updateRow(String tableName, Long id, Map<String, Object> data);
+
+    /**
+     * Атомарный инкремент одним UPDATE ... RETURNING *, как в {@link DynamicDataService#incrementRow}.
+     * Одновременные инкременты строки не объединяются даже при flexdb.increment.coalesce: объединение
+     * построено на ожидании потоков и не подходит для неблокирующей цепочки.
+     */
+    Mono<Map<String, Object>> incrementRow(String tableName, Long id, Map<String, Object> deltas);
+
+    Mono<Void> deleteById(String tableName, Long id);
+}
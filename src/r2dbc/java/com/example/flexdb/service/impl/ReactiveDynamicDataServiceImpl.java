@@ -0,0 +1,284 @@
+package com.example.flexdb.service.impl;
+
+import com.example.flexdb.dto.PageInfo;
+import com.example.flexdb.dto.PaginatedResponse;
+import com.example.flexdb.entity.ArchiveSegment;
+import com.example.flexdb.entity.DynamicColumnDefinition;
+import com.example.flexdb.entity.DynamicTableDefinition;
+import com.example.flexdb.enums.StorageEngine;
+import com.example.flexdb.exception.ResourceNotFoundException;
+import com.example.flexdb.metrics.DynamicTableMetrics;
+import com.example.flexdb.repository.DynamicTableDefinitionRepository;
+import com.example.flexdb.repository.ReactiveSqlExecutor;
+import com.example.flexdb.service.ArchiveService;
+import com.example.flexdb.service.ReactiveDynamicDataService;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.Callable;
+
+/**
+ * Реализация операций над данными на R2DBC.
+ * Метаданные таблиц читаются через тот же JPA-репозиторий (на boundedElastic, т.к. он блокирующий)
+ * и проверяются тем же {@link DynamicRowValidator}, что и в {@link DynamicDataServiceImpl}.
+ * Архив читается через тот же {@link ArchiveService} (файлы сегментов — тоже на boundedElastic);
+ * страница с архивом целиком берётся у {@link DynamicDataServiceImpl}, где она сливается по id в одном снимке.
+ */
+@Service
+@Profile("r2dbc")
+@RequiredArgsConstructor
+@Slf4j
+public class ReactiveDynamicDataServiceImpl implements ReactiveDynamicDataService {
+
+    private final DynamicTableDefinitionRepository tableRepo;
+    private final ReactiveSqlExecutor sqlExecutor;
+    private final DynamicRowValidator rowValidator;
+    private final DynamicTableMetrics metrics;
+    private final ArchiveService archiveService;
+    private final PageResultCache pageCache;
+    private final DynamicDataServiceImpl storedRows;
+
+    private static final int ARCHIVE_CHUNK_ROWS = 1000;
+    private static final String SEGMENTS_SQL =
+            "SELECT file_name, min_id, max_id, row_count FROM app_archive_segments WHERE table_definition_id = ? ORDER BY min_id";
+
+    @Override
+    public Mono<Map<String, Object>> insertRow(String tableName, Map<String, Object> data) {
+        return invalidatingPages(tableName, findTable(tableName, "insertRow").flatMap(table -> {
+            rowValidator.validateRow(table.getColumns(), data);
+
+            List<String> columnNames = new ArrayList<>(data.keySet());
+            List<Object> values = columnNames.stream().map(data::get).toList();
+            List<Class<?>> types = columnTypes(table, columnNames);
+
+            String sql = DynamicSqlBuilder.insertSql(tableName, columnNames);
+            return sqlExecutor.queryForLong(tableName, "insertRow", sql, values, types)
+                    .switchIfEmpty(Mono.error(() -> new IllegalStateException("База данных не вернула ID")))
+                    .map(id -> {
+                        metrics.rowsWritten(tableName, 1);
+                        Map<String, Object> result = new LinkedHashMap<>();
+                        result.put("id", id);
+                        result.putAll(data);
+                        return result;
+                    });
+        }));
+    }
+
+    @Override
+    public Mono<PaginatedResponse> getPaginatedData(String tableName, int page, int size, List<String> fields, boolean includeArchived) {
+        return findTable(tableName, "getPaginatedData").flatMap(table -> {
+            if (includeArchived) {
+                // Слияние с архивом по id в снимке REPEATABLE READ — в блокирующей реализации; страница ограничена
+                // MAX_PAGE_SIZE строк, так что поток boundedElastic занят недолго
+                return blocking(() -> storedRows.getPaginatedData(tableName, page, size, fields, true));
+            }
+            int maxSize = 100;
+            int safeSize = Math.min(size, maxSize);
+            int offset = page * safeSize;
+
+            String selectList = DynamicSqlBuilder.selectList(table.getColumns(), fields);
+            String sql = String.format("SELECT %s FROM \"%s\" ORDER BY id ASC LIMIT ? OFFSET ?", selectList, tableName);
+            String countSql = String.format("SELECT COUNT(*) FROM \"%s\"", tableName);
+
+            Mono<Long> hotTotal = sqlExecutor
+                    .queryForLong(tableName, "getPaginatedData", countSql, List.of(), List.of())
+                    .defaultIfEmpty(0L);
+            Mono<List<Map<String, Object>>> hotPage = sqlExecutor
+                    .queryForFlux(tableName, "getPaginatedData", sql, List.of(safeSize, offset), List.of(Integer.class, Integer.class))
+                    .collectList();
+
+            Mono<PageContent> content = Mono.zip(hotPage, hotTotal).map(tuple -> new PageContent(tuple.getT1(), tuple.getT2()));
+            return content.map(pageContent -> {
+                int totalElements = (int) pageContent.total();
+                int totalPages = (int) Math.ceil((double) totalElements / safeSize);
+                return new PaginatedResponse(
+                        pageContent.rows(),
+                        new PageInfo(page, safeSize),
+                        totalPages,
+                        totalElements,
+                        page == totalPages - 1,
+                        page == 0
+                );
+            });
+        });
+    }
+
+    /**
+     * Все строки таблицы в порядке id; при includeArchived — вместе с архивными, слитыми по id.
+     * Строки читаются из БД и из сегментов по мере того, как подписчик их запрашивает.
+     * Строки таблицы и список сегментов читаются в одной транзакции REPEATABLE READ.
+     */
+    @Override
+    public Flux<Map<String, Object>> streamRows(String tableName, List<String> fields, boolean includeArchived) {
+        return findTable(tableName, "streamRows").flatMapMany(table -> {
+            if (!includeArchived) {
+                String selectList = DynamicSqlBuilder.selectList(table.getColumns(), fields);
+                String sql = String.format("SELECT %s FROM \"%s\" ORDER BY id ASC", selectList, tableName);
+                return sqlExecutor.queryForFlux(tableName, "streamRows", sql, List.of(), List.of());
+            }
+
+            List<String> selected = DynamicSqlBuilder.selectedColumns(table.getColumns(), fields);
+            List<String> columns = DynamicDataServiceImpl.withId(selected);
+            String sql = String.format("SELECT %s FROM \"%s\" ORDER BY id ASC",
+                    DynamicSqlBuilder.selectList(table.getColumns(), columns), tableName);
+            Flux<Map<String, Object>> hot = sqlExecutor.queryForFlux(tableName, "streamRows", sql, List.of(), List.of());
+            Flux<Map<String, Object>> rows = sqlExecutor
+                    .queryForRows(tableName, "streamRows", SEGMENTS_SQL, List.of(table.getId()), List.of(Long.class),
+                            ReactiveDynamicDataServiceImpl::segment)
+                    .flatMapMany(segments -> Flux.mergeComparing(Comparator.comparingLong(DynamicDataServiceImpl::id),
+                            hot, archivedRows(tableName, segments, columns)));
+            return sqlExecutor.snapshot(rows).map(row -> {
+                DynamicDataServiceImpl.dropIdIfNotSelected(row, selected);
+                return row;
+            });
+        });
+    }
+
+    @Override
+    public Mono<Map<String, Object>> getRowById(String tableName, Long id, List<String> fields) {
+        return findTable(tableName, "getRowById").flatMap(table -> {
+            String selectList = DynamicSqlBuilder.selectList(table.getColumns(), fields);
+            String sql = String.format("SELECT %s FROM \"%s\" WHERE id = ?", selectList, tableName);
+            List<String> columns = DynamicSqlBuilder.selectedColumns(table.getColumns(), fields);
+            return sqlExecutor.queryForFlux(tableName, "getRowById", sql, List.of(id), List.of(Long.class))
+                    .next()
+                    // Строки нет в таблице — возможно, она перенесена в архив
+                    .switchIfEmpty(blocking(() -> archiveService.findArchivedRow(table, id, columns)).flatMap(Mono::justOrEmpty))
+                    .switchIfEmpty(Mono.error(() -> rowNotFound(tableName, id)));
+        });
+    }
+
+    @Override
+    public Mono<Map<String, Object>> updateRow(String tableName, Long id, Map<String, Object> data) {
+        Mono<Map<String, Object>> update = findTable(tableName, "updateRow").flatMap(table -> {
+            rowValidator.validateRow(table.getColumns(), data);
+
+            List<String> columnNames = new ArrayList<>(data.keySet());
+            List<Object> values = new ArrayList<>();
+            for (String col : columnNames) {
+                values.add(data.get(col));
+            }
+            values.add(id);
+            List<Class<?>> types = new ArrayList<>(columnTypes(table, columnNames));
+            types.add(Long.class);
+
+            String sql = DynamicSqlBuilder.updateSql(tableName, columnNames);
+            return sqlExecutor.update(tableName, "updateRow", sql, values, types)
+                    .flatMap(rows -> rows == 0
+                            ? Mono.error(rowNotFound(tableName, id))
+                            : getRowById(tableName, id, null));
+        });
+        return invalidatingPages(tableName, sqlExecutor.transactional(update));
+    }
+
+    @Override
+    public Mono<Map<String, Object>> incrementRow(String tableName, Long id, Map<String, Object> deltas) {
+        return invalidatingPages(tableName, findTable(tableName, "incrementRow").flatMap(table -> {
+            Map<String, Number> normalized = rowValidator.validateIncrement(table.getColumns(), deltas);
+
+            List<Object> values = new ArrayList<>(normalized.values());
+            values.add(id);
+            List<Class<?>> types = values.stream().<Class<?>>map(Object::getClass).toList();
+
+            String sql = DynamicSqlBuilder.incrementSql(tableName, normalized.keySet());
+            return sqlExecutor.updateReturning(tableName, "incrementRow", sql, values, types)
+                    .flatMap(rows -> rows.isEmpty() ? Mono.error(rowNotFound(tableName, id)) : Mono.just(rows.get(0)));
+        }));
+    }
+
+    @Override
+    public Mono<Void> deleteById(String tableName, Long id) {
+        return invalidatingPages(tableName, findTable(tableName, "deleteById").flatMap(table -> {
+            String sql = String.format("DELETE FROM \"%s\" WHERE id = ?", tableName);
+            return sqlExecutor.update(tableName, "deleteById", sql, List.of(id), List.of(Long.class))
+                    .flatMap(rows -> rows == 0 ? Mono.error(rowNotFound(tableName, id)) : Mono.empty());
+        }));
+    }
+
+    /**
+     * Сбрасывает страницы таблицы в {@link PageResultCache} после завершения записи — уже после коммита,
+     * поэтому страница, прочитанная до него, не переживёт инвалидацию. Ошибка или отмена тоже сбрасывают:
+     * лишний промах дешевле устаревшей страницы.
+     */
+    private <T> Mono<T> invalidatingPages(String tableName, Mono<T> write) {
+        return write.doFinally(signal -> pageCache.invalidate(tableName));
+    }
+
+    private Mono<DynamicTableDefinition> findTable(String tableName, String operation) {
+        return Mono.fromCallable(() -> metrics
+                        .recordMetadataLookup(tableName, operation, () -> tableRepo.findWithColumnsByTableName(tableName))
+                        .orElseThrow(() -> new ResourceNotFoundException("Таблица '" + tableName + "' не найдена")))
+                .filter(table -> table.getStorageEngine() != StorageEngine.MEMORY)
+                .switchIfEmpty(Mono.error(() -> new IllegalArgumentException(
+                        "Таблица '" + tableName + "' хранится в памяти: используйте /api/v1/dynamic-tables/data")))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Строки архива по возрастанию id порциями по {@link #ARCHIVE_CHUNK_ROWS}: следующая порция читается,
+     * только когда подписчик её запросил.
+     */
+    private Flux<Map<String, Object>> archivedRows(String tableName, List<ArchiveSegment> segments, List<String> columns) {
+        return Flux.<List<Map<String, Object>>, Long>generate(() -> Long.MIN_VALUE, (afterId, sink) -> {
+                    List<Map<String, Object>> rows = archiveService.readArchivedRows(tableName, segments, afterId, ARCHIVE_CHUNK_ROWS, columns);
+                    if (rows.isEmpty()) {
+                        sink.complete();
+                        return afterId;
+                    }
+                    sink.next(rows);
+                    return DynamicDataServiceImpl.id(rows.get(rows.size() - 1));
+                })
+                .concatMapIterable(rows -> rows, 1)
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Сегмент из строки app_archive_segments: для чтения архива достаточно файла, диапазона id и числа строк.
+     */
+    private static ArchiveSegment segment(Readable row) {
+        ArchiveSegment segment = new ArchiveSegment();
+        segment.setFileName(row.get("file_name", String.class));
+        segment.setMinId(row.get("min_id", Long.class));
+        segment.setMaxId(row.get("max_id", Long.class));
+        segment.setRowCount(row.get("row_count", Integer.class));
+        return segment;
+    }
+
+    private static <T> Mono<T> blocking(Callable<T> call) {
+        return Mono.fromCallable(call).subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * Java-типы параметров для bindNull: драйверу R2DBC нужен тип даже для NULL.
+     */
+    private static List<Class<?>> columnTypes(DynamicTableDefinition table, List<String> columnNames) {
+        Map<String, String> typesByName = new HashMap<>();
+        for (DynamicColumnDefinition col : table.getColumns()) {
+            typesByName.put(col.getColumnName(), col.getColumnType());
+        }
+        return columnNames.stream()
+                .<Class<?>>map(name -> switch (typesByName.get(name).toUpperCase()) {
+                    case "INTEGER" -> Integer.class;
+                    case "BIGINT" -> Long.class;
+                    case "DECIMAL" -> BigDecimal.class;
+                    case "BOOLEAN" -> Boolean.class;
+                    default -> String.class;
+                })
+                .toList();
+    }
+
+    private record PageContent(List<Map<String, Object>> rows, long total) {
+    }
+
+    private static ResourceNotFoundException rowNotFound(String tableName, Long id) {
+        return new ResourceNotFoundException("Запись с id " + id + " не найдена в таблице '" + tableName + "'");
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.flexdb.config;
+
+import com.example.flexdb.dto.PageInfo;
+import com.example.flexdb.dto.PaginatedResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.AbstractJackson2HttpMessageConverter;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.mock.http.MockHttpInputMessage;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.math.BigDecimal;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class BinaryFormatsConfigTest {
+
+    private final BinaryFormatsConfig config = new BinaryFormatsConfig();
+
+    @Test
+    void cborRoundTrip() throws Exception {
+        assertRoundTrip(config.cborHttpMessageConverter(new Jackson2ObjectMapperBuilder()), MediaType.APPLICATION_CBOR);
+    }
+
+    @Test
+    void smileRoundTrip() throws Exception {
+        assertRoundTrip(config.smileHttpMessageConverter(new Jackson2ObjectMapperBuilder()),
+                new MediaType("application", "x-jackson-smile"));
+    }
+
+    private static void assertRoundTrip(AbstractJackson2HttpMessageConverter converter, MediaType mediaType) throws Exception {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", 7L);
+        row.put("qty_count", 3);
+        row.put("note_text", "Привет");
+        row.put("price_value", new BigDecimal("12.50"));
+        row.put("is_active", true);
+        row.put("empty_text", null);
+        PaginatedResponse page = new PaginatedResponse(List.of(row), new PageInfo(0, 20), 1, 1, true, true);
+
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        converter.write(page, mediaType, output);
+        assertThat(output.getHeaders().getContentType()).isEqualTo(mediaType);
+
+        MockHttpInputMessage input = new MockHttpInputMessage(output.getBodyAsBytes());
+        input.getHeaders().setContentType(mediaType);
+        @SuppressWarnings("unchecked")
+        Map<String, Object> read = (Map<String, Object>) converter.read(Map.class, input);
+
+        assertThat(read).containsEntry("totalElements", 1).containsEntry("last", true);
+        assertThat(read.get("pageable")).isEqualTo(Map.of("pageNumber", 0, "pageSize", 20));
+        @SuppressWarnings("unchecked")
+        Map<String, Object> readRow = ((List<Map<String, Object>>) read.get("content")).get(0);
+        assertThat(readRow).containsEntry("id", 7)
+                .containsEntry("qty_count", 3)
+                .containsEntry("note_text", "Привет")
+                .containsEntry("is_active", true)
+                .containsEntry("empty_text", null);
+        assertThat(new BigDecimal(readRow.get("price_value").toString())).isEqualByComparingTo("12.50");
+    }
+}
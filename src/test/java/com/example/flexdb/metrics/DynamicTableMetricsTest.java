@@ -0,0 +1,58 @@
+package com.example.flexdb.metrics;
+
+import com.example.flexdb.config.MetricsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DynamicTableMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private DynamicTableMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        MetricsProperties properties = new MetricsProperties();
+        properties.setMaxTableTags(2);
+        registry = new SimpleMeterRegistry();
+        metrics = new DynamicTableMetrics(registry, properties);
+    }
+
+    @Test
+    void onlyFirstFoundTablesGetOwnTag() {
+        metrics.recordMetadataLookup("orders_main", "getRowById", () -> Optional.of("found"));
+        metrics.recordMetadataLookup("order_items", "getRowById", () -> Optional.of("found"));
+        metrics.recordMetadataLookup("third_table", "getRowById", () -> Optional.of("found"));
+
+        assertThat(metrics.tableTag("orders_main")).isEqualTo("orders_main");
+        assertThat(metrics.tableTag("order_items")).isEqualTo("order_items");
+        assertThat(metrics.tableTag("third_table")).isEqualTo(DynamicTableMetrics.OTHER_TABLE);
+        assertThat(metrics.tableTag(null)).isEqualTo(DynamicTableMetrics.NO_TABLE);
+    }
+
+    @Test
+    void missingTableDoesNotTakeTagSlot() {
+        metrics.recordMetadataLookup("no_such_table", "getRowById", Optional::empty);
+
+        assertThat(metrics.tableTag("no_such_table")).isEqualTo(DynamicTableMetrics.OTHER_TABLE);
+        assertThat(registry.get("flexdb.data.phase").tag("table", DynamicTableMetrics.OTHER_TABLE).timer().count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void rowCountersAccumulatePerTableAndDirection() {
+        metrics.recordMetadataLookup("orders_main", "insertRow", () -> Optional.of("found"));
+        metrics.rowsWritten("orders_main", 3);
+        metrics.rowsWritten("orders_main", 2);
+        metrics.rowsRead("orders_main", 10);
+
+        assertThat(registry.get("flexdb.data.rows").tags("table", "orders_main", "direction", "written").counter().count())
+                .isEqualTo(5);
+        assertThat(registry.get("flexdb.data.rows").tags("table", "orders_main", "direction", "read").counter().count())
+                .isEqualTo(10);
+    }
+}
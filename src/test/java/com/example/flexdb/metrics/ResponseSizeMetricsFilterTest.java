@@ -0,0 +1,47 @@
+package com.example.flexdb.metrics;
+
+import com.example.flexdb.config.MetricsProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseSizeMetricsFilterTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ResponseSizeMetricsFilter filter =
+            new ResponseSizeMetricsFilter(new DynamicTableMetrics(registry, new MetricsProperties()));
+
+    @Test
+    void countsBytesWrittenThroughWriter() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+
+        // Writer не сброшен: последние символы доходят до счётчика только при завершении фильтра
+        filter.doFilter(new MockHttpServletRequest(), response, (req, res) -> {
+            res.setContentType("text/plain");
+            res.getWriter().print("привет");
+        });
+
+        assertThat(response.getContentAsString(StandardCharsets.UTF_8)).isEqualTo("привет");
+        assertThat(registry.get("flexdb.http.response.bytes").tag("content_type", "text/plain").summary().totalAmount())
+                .isEqualTo(12);
+    }
+
+    @Test
+    void countsBytesWrittenThroughOutputStream() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        filter.doFilter(new MockHttpServletRequest(), response, (req, res) -> {
+            res.setContentType("application/json");
+            res.getOutputStream().write(new byte[]{'{', '}'});
+        });
+
+        assertThat(registry.get("flexdb.http.response.bytes").tag("content_type", "application/json").summary().totalAmount())
+                .isEqualTo(2);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.flexdb.metrics;
+
+import com.example.flexdb.entity.DynamicTableDefinition;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ServiceObservationAspectTest {
+
+    @Test
+    void tableIsTakenFromTableNameParameter() {
+        MethodSignature signature = signature("fields", "tableName");
+
+        assertThat(ServiceObservationAspect.findTableName(signature, new Object[]{"note_text", "orders_main"}))
+                .isEqualTo("orders_main");
+    }
+
+    @Test
+    void otherStringArgumentsAreNotTables() {
+        // getTableSummaries(page, size, namePrefix, includeStats): префикс имени — не таблица
+        MethodSignature signature = signature("page", "size", "namePrefix", "includeStats");
+
+        assertThat(ServiceObservationAspect.findTableName(signature, new Object[]{0, 20, "ord", false})).isNull();
+    }
+
+    @Test
+    void tableIsTakenFromDefinitionArgument() {
+        DynamicTableDefinition table = new DynamicTableDefinition();
+        table.setTableName("events_log");
+
+        assertThat(ServiceObservationAspect.findTableName(signature("table", "id"), new Object[]{table, 5L}))
+                .isEqualTo("events_log");
+    }
+
+    private static MethodSignature signature(String... parameterNames) {
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.getParameterNames()).thenReturn(parameterNames);
+        return signature;
+    }
+}
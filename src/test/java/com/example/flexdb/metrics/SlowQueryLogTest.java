@@ -0,0 +1,111 @@
+package com.example.flexdb.metrics;
+
+import com.example.flexdb.config.MetricsProperties;
+import com.example.flexdb.config.SlowQueryProperties;
+import com.example.flexdb.dto.SlowQueryEntryDto;
+import com.example.flexdb.dto.SlowQueryReport;
+import com.example.flexdb.dto.SlowQueryStatsDto;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SlowQueryLogTest {
+
+    private static final long MS = 1_000_000L;
+
+    private SlowQueryProperties properties;
+    private SimpleMeterRegistry registry;
+    private SlowQueryLog slowQueryLog;
+
+    @BeforeEach
+    void setUp() {
+        properties = new SlowQueryProperties();
+        properties.setThreshold(Duration.ofMillis(100));
+        properties.setBufferSize(2);
+        properties.setMaxStatements(2);
+        registry = new SimpleMeterRegistry();
+        // EXPLAIN выключен, поэтому соединения к БД не открываются
+        slowQueryLog = new SlowQueryLog(properties, new DynamicTableMetrics(registry, new MetricsProperties()), new HikariDataSource());
+    }
+
+    @AfterEach
+    void tearDown() {
+        slowQueryLog.destroy();
+    }
+
+    @Test
+    void aggregatesCallsPerSqlShape() {
+        String sql = "SELECT * FROM \"orders_main\" WHERE id = ?";
+        slowQueryLog.record("orders_main", "getRowById", sql, new Object[]{1L}, 10 * MS, 1);
+        slowQueryLog.record("orders_main", "getRowById", sql, new Object[]{2L}, 150 * MS, 0);
+
+        SlowQueryReport report = slowQueryLog.report(10);
+
+        assertThat(report.getStatements()).hasSize(1);
+        SlowQueryStatsDto stats = report.getStatements().get(0);
+        assertThat(stats.getCalls()).isEqualTo(2);
+        assertThat(stats.getSlowCalls()).isEqualTo(1);
+        assertThat(stats.getTotalTimeMs()).isEqualTo(160.0);
+        assertThat(stats.getMaxTimeMs()).isEqualTo(150.0);
+        assertThat(stats.getRows()).isEqualTo(1);
+        assertThat(report.getRecent()).extracting(SlowQueryEntryDto::getDurationMs).containsExactly(150.0);
+    }
+
+    @Test
+    void recentBufferKeepsNewestSlowQueriesFirst() {
+        slowQueryLog.record("orders_main", "insertRow", "INSERT 1", new Object[0], 200 * MS, 1);
+        slowQueryLog.record("orders_main", "insertRow", "INSERT 2", new Object[0], 300 * MS, 1);
+        slowQueryLog.record("orders_main", "insertRow", "INSERT 3", new Object[0], 400 * MS, 1);
+
+        assertThat(slowQueryLog.report(10).getRecent())
+                .extracting(SlowQueryEntryDto::getSql)
+                .containsExactly("INSERT 3", "INSERT 2");
+        assertThat(registry.get("flexdb.data.slow.statements").counter().count()).isEqualTo(3.0);
+    }
+
+    @Test
+    void statementsBeyondLimitAreNotTracked() {
+        slowQueryLog.record("orders_main", "getRowById", "SELECT 1", new Object[0], MS, 1);
+        slowQueryLog.record("orders_main", "getRowById", "SELECT 2", new Object[0], 3 * MS, 1);
+        slowQueryLog.record("orders_main", "getRowById", "SELECT 3", new Object[0], 5 * MS, 1);
+
+        assertThat(slowQueryLog.report(10).getStatements())
+                .extracting(SlowQueryStatsDto::getSql)
+                .containsExactly("SELECT 2", "SELECT 1");
+    }
+
+    @Test
+    void analyzeOnlyBoundedNonLockingSelects() {
+        assertThat(SlowQueryLog.explainStatement("SELECT * FROM \"orders_main\" ORDER BY id ASC LIMIT ? OFFSET ?"))
+                .startsWith("EXPLAIN (ANALYZE, BUFFERS) ");
+        assertThat(SlowQueryLog.explainStatement("SELECT \"id\" FROM \"orders_main\" ORDER BY id ASC"))
+                .startsWith("EXPLAIN SELECT");
+        assertThat(SlowQueryLog.explainStatement("SELECT COUNT(*) FROM \"orders_main\""))
+                .startsWith("EXPLAIN SELECT");
+        assertThat(SlowQueryLog.explainStatement(
+                "SELECT * FROM \"events_log\" WHERE \"created_at\" < ? ORDER BY id LIMIT ? FOR UPDATE SKIP LOCKED"))
+                .startsWith("EXPLAIN SELECT");
+        // Колонка с именем ключевого слова не делает выборку ограниченной
+        assertThat(SlowQueryLog.explainStatement("SELECT \"limit\" FROM \"orders_main\" ORDER BY id ASC"))
+                .startsWith("EXPLAIN SELECT");
+        assertThat(SlowQueryLog.explainStatement("DELETE FROM \"orders_main\" WHERE id = ?"))
+                .isEqualTo("EXPLAIN DELETE FROM \"orders_main\" WHERE id = ?");
+        assertThat(SlowQueryLog.explainStatement("VACUUM \"orders_main\"")).isNull();
+    }
+
+    @Test
+    void disabledLogRecordsNothing() {
+        properties.setEnabled(false);
+        slowQueryLog.record("orders_main", "getRowById", "SELECT 1", new Object[0], 500 * MS, 1);
+
+        SlowQueryReport report = slowQueryLog.report(10);
+        assertThat(report.getStatements()).isEmpty();
+        assertThat(report.getRecent()).isEmpty();
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.flexdb.repository;
+
+import com.example.flexdb.config.ArchiveProperties;
+import com.example.flexdb.entity.DynamicColumnDefinition;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ArchiveSegmentStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private ArchiveSegmentStore store;
+
+    @BeforeEach
+    void setUp() {
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setDirectory(dir.toString());
+        properties.setCachedSegments(1);
+        store = new ArchiveSegmentStore(properties);
+        store.write("t/a.fxseg", columns(), List.of(Map.of("id", 1L, "note_text", "a")));
+        store.write("t/b.fxseg", columns(), List.of(Map.of("id", 2L, "note_text", "b")));
+    }
+
+    @Test
+    void evictedSegmentIsReleasedAfterLastReader() {
+        ArchiveSegmentStore.Lease first = store.open("t/a.fxseg");
+        ColumnarSegmentFile file = first.file();
+
+        // Вытеснение из LRU не закрывает файл, пока его читают
+        store.open("t/b.fxseg").close();
+        assertThat(file.rows(0, 1, List.of("note_text"))).containsExactly(Map.of("note_text", "a"));
+
+        first.close();
+        assertThatThrownBy(() -> file.rows(0, 1, List.of("id"))).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void cachedSegmentStaysOpenBetweenReaders() {
+        ColumnarSegmentFile file;
+        try (ArchiveSegmentStore.Lease lease = store.open("t/a.fxseg")) {
+            file = lease.file();
+        }
+
+        try (ArchiveSegmentStore.Lease lease = store.open("t/a.fxseg")) {
+            assertThat(lease.file()).isSameAs(file);
+            assertThat(file.rows(0, 1, List.of("id"))).containsExactly(Map.of("id", 1L));
+        }
+    }
+
+    @Test
+    void deletedSegmentIsReleasedImmediatelyWithoutReaders() {
+        ColumnarSegmentFile file;
+        try (ArchiveSegmentStore.Lease lease = store.open("t/a.fxseg")) {
+            file = lease.file();
+        }
+
+        store.delete("t/a.fxseg");
+
+        assertThatThrownBy(() -> file.rows(0, 1, List.of("id"))).isInstanceOf(IllegalStateException.class);
+        assertThat(dir.resolve("t/a.fxseg")).doesNotExist();
+    }
+
+    private static List<DynamicColumnDefinition> columns() {
+        return List.of(column("id", "BIGINT"), column("note_text", "TEXT"));
+    }
+
+    private static DynamicColumnDefinition column(String name, String type) {
+        DynamicColumnDefinition column = new DynamicColumnDefinition();
+        column.setColumnName(name);
+        column.setColumnType(type);
+        return column;
+    }
+}
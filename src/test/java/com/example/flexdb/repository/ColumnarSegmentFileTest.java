@@ -0,0 +1,186 @@
+package com.example.flexdb.repository;
+
+import com.example.flexdb.entity.DynamicColumnDefinition;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.math.BigDecimal;
+import java.nio.file.Path;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ColumnarSegmentFileTest {
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void rowsSurviveRoundTripInJdbcTypes() throws IOException {
+        Path file = dir.resolve("events.fxseg");
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_000_000);
+        ColumnarSegmentFile.write(file, columns(), List.of(
+                row(1L, 7, new BigDecimal("12.50"), true, "first", LocalDate.of(2024, 3, 1), createdAt),
+                row(2L, null, null, null, null, null, null)
+        ));
+
+        ColumnarSegmentFile segment = ColumnarSegmentFile.open(file);
+
+        assertThat(segment.rowCount()).isEqualTo(2);
+        List<Map<String, Object>> rows = segment.rows(0, 2, null);
+        assertThat(rows.get(0))
+                .containsEntry("id", 1L)
+                .containsEntry("qty_count", 7)
+                .containsEntry("unit_price", new BigDecimal("12.50"))
+                .containsEntry("is_paid", true)
+                .containsEntry("note_text", "first")
+                .containsEntry("event_date", Date.valueOf(LocalDate.of(2024, 3, 1)))
+                .containsEntry("created_at", Timestamp.valueOf(createdAt));
+        assertThat(rows.get(1)).containsEntry("id", 2L).containsEntry("qty_count", null).containsEntry("note_text", null);
+    }
+
+    @Test
+    void footerKeepsMinMaxAndNullCounts() throws IOException {
+        Path file = dir.resolve("stats.fxseg");
+        ColumnarSegmentFile.WriteResult written = ColumnarSegmentFile.write(file, columns(), List.of(
+                row(10L, 5, null, true, "beta", LocalDate.of(2024, 1, 2), null),
+                row(11L, -3, null, false, "alpha", LocalDate.of(2023, 12, 31), null),
+                row(12L, null, null, null, "x".repeat(300), null, null)
+        ));
+
+        Map<String, ColumnarSegmentFile.ColumnStats> stats = ColumnarSegmentFile.open(file).stats();
+        assertThat(written.columns()).isEqualTo(stats);
+
+        assertThat(stats.get("id")).isEqualTo(new ColumnarSegmentFile.ColumnStats("BIGINT", 0, "10", "12"));
+        assertThat(stats.get("qty_count")).isEqualTo(new ColumnarSegmentFile.ColumnStats("INTEGER", 1, "-3", "5"));
+        assertThat(stats.get("event_date")).isEqualTo(new ColumnarSegmentFile.ColumnStats("DATE", 1, "2023-12-31", "2024-01-02"));
+        // Слишком длинные значения и колонки из одних NULL остаются без min/max
+        assertThat(stats.get("note_text")).isEqualTo(new ColumnarSegmentFile.ColumnStats("TEXT", 0, null, null));
+        assertThat(stats.get("unit_price")).isEqualTo(new ColumnarSegmentFile.ColumnStats("DECIMAL", 3, null, null));
+        assertThat(stats.get("is_paid").min()).isNull();
+    }
+
+    @Test
+    void findsRowByIdWithBinarySearch() throws IOException {
+        Path file = dir.resolve("ids.fxseg");
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (long id = 100; id < 200; id += 2) {
+            rows.add(row(id, (int) id, null, null, "row " + id, null, null));
+        }
+        ColumnarSegmentFile.write(file, columns(), rows);
+
+        ColumnarSegmentFile segment = ColumnarSegmentFile.open(file);
+
+        int index = segment.indexOfId(150);
+        assertThat(segment.rows(index, index + 1, List.of("note_text"))).containsExactly(Map.of("note_text", "row 150"));
+        assertThat(segment.indexOfId(151)).isEqualTo(-1);
+        assertThat(segment.indexOfId(99)).isEqualTo(-1);
+        assertThat(segment.indexOfId(200)).isEqualTo(-1);
+    }
+
+    @Test
+    void firstIndexAfterPointsPastGivenId() throws IOException {
+        Path file = dir.resolve("after.fxseg");
+        ColumnarSegmentFile.write(file, columns(), List.of(
+                row(10L, 1, null, null, null, null, null),
+                row(20L, 2, null, null, null, null, null),
+                row(30L, 3, null, null, null, null, null)
+        ));
+
+        ColumnarSegmentFile segment = ColumnarSegmentFile.open(file);
+
+        assertThat(segment.firstIndexAfter(Long.MIN_VALUE)).isZero();
+        assertThat(segment.firstIndexAfter(10)).isEqualTo(1);
+        assertThat(segment.firstIndexAfter(25)).isEqualTo(2);
+        assertThat(segment.firstIndexAfter(30)).isEqualTo(3);
+        assertThat(segment.idAt(2)).isEqualTo(30L);
+    }
+
+    @Test
+    void closedSegmentRejectsReads() throws IOException {
+        Path file = dir.resolve("closed.fxseg");
+        ColumnarSegmentFile.write(file, columns(), List.of(row(1L, 1, null, null, null, null, null)));
+
+        ColumnarSegmentFile segment = ColumnarSegmentFile.open(file);
+        segment.close();
+
+        assertThatThrownBy(() -> segment.rows(0, 1, List.of("id"))).isInstanceOf(IllegalStateException.class);
+    }
+
+    @Test
+    void projectionDecodesOnlyRequestedColumns() throws IOException {
+        Path file = dir.resolve("pruned.fxseg");
+        // note_text — первый блок после заголовка (смещение 8)
+        List<DynamicColumnDefinition> columns = new ArrayList<>(columns());
+        columns.add(0, columns.remove(4));
+        ColumnarSegmentFile.write(file, columns, List.of(row(1L, 1, null, null, "text", null, null)));
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.seek(8);
+            raw.write(new byte[]{0x7f, 0x7f, 0x7f, 0x7f});
+        }
+
+        ColumnarSegmentFile segment = ColumnarSegmentFile.open(file);
+
+        Map<String, Object> projected = segment.rows(0, 1, List.of("id", "qty_count", "missing_col")).get(0);
+        assertThat(projected).containsOnlyKeys("id", "qty_count", "missing_col")
+                .containsEntry("id", 1L)
+                .containsEntry("qty_count", 1)
+                .containsEntry("missing_col", null);
+        assertThatThrownBy(() -> segment.rows(0, 1, List.of("note_text")))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("note_text");
+    }
+
+    @Test
+    void rejectsFileWithoutSegmentMarkers() throws IOException {
+        Path file = dir.resolve("broken.fxseg");
+        ColumnarSegmentFile.write(file, columns(), List.of(row(1L, 1, null, null, null, null, null)));
+        try (RandomAccessFile raw = new RandomAccessFile(file.toFile(), "rw")) {
+            raw.setLength(raw.length() - 2);
+        }
+
+        assertThatThrownBy(() -> ColumnarSegmentFile.open(file)).isInstanceOf(IOException.class);
+    }
+
+    private static List<DynamicColumnDefinition> columns() {
+        return List.of(
+                column("id", "BIGINT"),
+                column("qty_count", "INTEGER"),
+                column("unit_price", "DECIMAL"),
+                column("is_paid", "BOOLEAN"),
+                column("note_text", "TEXT"),
+                column("event_date", "DATE"),
+                column("created_at", "TIMESTAMP")
+        );
+    }
+
+    private static DynamicColumnDefinition column(String name, String type) {
+        DynamicColumnDefinition column = new DynamicColumnDefinition();
+        column.setColumnName(name);
+        column.setColumnType(type);
+        return column;
+    }
+
+    private static Map<String, Object> row(Long id, Integer qty, BigDecimal price, Boolean paid, String note,
+                                           LocalDate eventDate, LocalDateTime createdAt) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("qty_count", qty);
+        row.put("unit_price", price);
+        row.put("is_paid", paid);
+        row.put("note_text", note);
+        row.put("event_date", eventDate == null ? null : Date.valueOf(eventDate));
+        row.put("created_at", createdAt == null ? null : Timestamp.valueOf(createdAt));
+        return row;
+    }
+}
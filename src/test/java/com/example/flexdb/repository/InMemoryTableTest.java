@@ -0,0 +1,104 @@
+package com.example.flexdb.repository;
+
+import com.example.flexdb.entity.DynamicColumnDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class InMemoryTableTest {
+
+    @Test
+    void pageSkipsDeletedRowsInIdOrder() {
+        InMemoryTable table = table(100);
+        for (int i = 1; i <= 10; i++) {
+            table.insert(row(i, "row " + i));
+        }
+        table.delete(2);
+        table.delete(5);
+
+        assertThat(table.count()).isEqualTo(8);
+        assertThat(table.page(0, 3, null)).extracting(row -> row.get("id")).containsExactly(1L, 3L, 4L);
+        assertThat(table.page(3, 3, null)).extracting(row -> row.get("id")).containsExactly(6L, 7L, 8L);
+        assertThat(table.page(6, 3, null)).extracting(row -> row.get("id")).containsExactly(9L, 10L);
+        assertThat(table.page(8, 3, null)).isEmpty();
+    }
+
+    @Test
+    void projectionReturnsOnlyRequestedColumns() {
+        InMemoryTable table = table(100);
+        long id = table.insert(row(7, "seven"));
+
+        assertThat(table.page(0, 10, List.of("note_text"))).containsExactly(Map.of("note_text", "seven"));
+        assertThat(table.get(id, List.of("id", "qty_count")))
+                .hasValue(Map.of("id", id, "qty_count", 7));
+        assertThat(table.get(id, null).orElseThrow()).containsOnlyKeys("id", "qty_count", "note_text");
+    }
+
+    @Test
+    void forEachWithoutIdInProjectionReadsEveryChunk() {
+        InMemoryTable table = table(5000);
+        for (int i = 1; i <= 2500; i++) {
+            table.insert(row(i, null));
+        }
+        table.delete(1000);
+
+        List<Map<String, Object>> exported = new ArrayList<>();
+        table.forEach(List.of("qty_count"), exported::add);
+
+        assertThat(exported).hasSize(2499);
+        assertThat(exported).allSatisfy(row -> assertThat(row).containsOnlyKeys("qty_count"));
+        assertThat(exported.get(998)).containsEntry("qty_count", 999);
+        assertThat(exported.get(999)).containsEntry("qty_count", 1001);
+        assertThat(exported.get(2498)).containsEntry("qty_count", 2500);
+    }
+
+    @Test
+    void overflowingIncrementLeavesRowUnchanged() {
+        InMemoryTable table = table(10);
+        long id = table.insert(row(Integer.MAX_VALUE, "max"));
+
+        assertThatThrownBy(() -> table.increment(id, Map.of("qty_count", 1)))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("qty_count");
+        assertThat(table.get(id, List.of("qty_count"))).hasValue(Map.of("qty_count", Integer.MAX_VALUE));
+        assertThat(table.increment(id, Map.of("qty_count", -1)).orElseThrow())
+                .containsEntry("qty_count", Integer.MAX_VALUE - 1);
+    }
+
+    @Test
+    void insertBeyondLimitIsRejected() {
+        InMemoryTable table = table(1);
+        table.insert(row(1, "only"));
+
+        assertThatThrownBy(() -> table.insert(row(2, "extra"))).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static InMemoryTable table(int maxRows) {
+        return new InMemoryTable(List.of(
+                column("id", "BIGINT", true),
+                column("qty_count", "INTEGER", false),
+                column("note_text", "TEXT", false)
+        ), maxRows);
+    }
+
+    private static DynamicColumnDefinition column(String name, String type, boolean primaryKey) {
+        DynamicColumnDefinition column = new DynamicColumnDefinition();
+        column.setColumnName(name);
+        column.setColumnType(type);
+        column.setPrimaryKeyInternal(primaryKey);
+        return column;
+    }
+
+    private static Map<String, Object> row(int qty, String note) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("qty_count", qty);
+        row.put("note_text", note);
+        return row;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.flexdb.service.impl;
+
+import com.example.flexdb.config.ArchiveProperties;
+import com.example.flexdb.config.MetricsProperties;
+import com.example.flexdb.entity.ArchiveSegment;
+import com.example.flexdb.entity.DynamicColumnDefinition;
+import com.example.flexdb.metrics.DynamicTableMetrics;
+import com.example.flexdb.repository.ArchiveSegmentStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArchiveServiceImplTest {
+
+    @TempDir
+    Path dir;
+
+    private ArchiveServiceImpl archiveService;
+    private ArchiveSegmentStore segmentStore;
+
+    @BeforeEach
+    void setUp() {
+        ArchiveProperties properties = new ArchiveProperties();
+        properties.setDirectory(dir.toString());
+        segmentStore = new ArchiveSegmentStore(properties);
+        archiveService = new ArchiveServiceImpl(null, null, segmentStore, null, properties,
+                new DynamicTableMetrics(new SimpleMeterRegistry(), new MetricsProperties()), null, null, null);
+    }
+
+    @Test
+    void overlappingSegmentsAreMergedById() {
+        // Порции, отобранные по дате, пересекаются по id: у второй min id меньше max id первой
+        List<ArchiveSegment> segments = List.of(
+                segment("first.fxseg", 1, 3, 5, 9),
+                segment("second.fxseg", 2, 4, 6),
+                segment("third.fxseg", 20, 21)
+        );
+
+        assertThat(ids(archiveService.readArchivedRows("events", segments, Long.MIN_VALUE, 100, List.of("id"))))
+                .containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 9L, 20L, 21L);
+        assertThat(ids(archiveService.readArchivedRows("events", segments, 3, 4, List.of("id"))))
+                .containsExactly(4L, 5L, 6L, 9L);
+    }
+
+    @Test
+    void projectionKeepsRequestedColumnsInIdOrder() {
+        List<ArchiveSegment> segments = List.of(segment("a.fxseg", 1, 4), segment("b.fxseg", 2, 3));
+
+        List<Map<String, Object>> rows = archiveService.readArchivedRows("events", segments, 1, 2, List.of("note_text", "id"));
+
+        assertThat(rows).containsExactly(
+                Map.of("note_text", "row 2", "id", 2L),
+                Map.of("note_text", "row 3", "id", 3L));
+    }
+
+    @Test
+    void mergeWithTableRowsKeepsIdOrderAndLimit() {
+        List<Map<String, Object>> hot = List.of(Map.of("id", 2L), Map.of("id", 7L));
+        List<Map<String, Object>> archived = List.of(Map.of("id", 1L), Map.of("id", 5L), Map.of("id", 8L));
+
+        assertThat(ids(DynamicDataServiceImpl.mergeById(hot, archived, 4))).containsExactly(1L, 2L, 5L, 7L);
+    }
+
+    private ArchiveSegment segment(String fileName, long... ids) {
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (long id : ids) {
+            rows.add(Map.of("id", id, "note_text", "row " + id));
+        }
+        segmentStore.write(fileName, List.of(column("id", "BIGINT"), column("note_text", "TEXT")), rows);
+
+        ArchiveSegment segment = new ArchiveSegment();
+        segment.setFileName(fileName);
+        segment.setRowCount(ids.length);
+        segment.setMinId(ids[0]);
+        segment.setMaxId(ids[ids.length - 1]);
+        return segment;
+    }
+
+    private static List<Long> ids(List<Map<String, Object>> rows) {
+        return rows.stream().map(DynamicDataServiceImpl::id).toList();
+    }
+
+    private static DynamicColumnDefinition column(String name, String type) {
+        DynamicColumnDefinition column = new DynamicColumnDefinition();
+        column.setColumnName(name);
+        column.setColumnType(type);
+        return column;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.flexdb.service.impl;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ColumnIndexManagerTest {
+
+    @Test
+    void shortNameIsKeptReadable() {
+        assertThat(ColumnIndexManager.indexName("events_log", "created_at", "retention_idx"))
+                .isEqualTo("events_log_created_at_retention_idx");
+    }
+
+    @Test
+    void longNamesAreHashedWithoutCollisions() {
+        // "Aa" и "BB" дают одинаковый String.hashCode — на 32-битном хеше эти таблицы получили бы один индекс
+        String prefix = "x".repeat(60);
+        Set<String> names = new HashSet<>();
+        for (String tableName : new String[]{prefix + "Aa", prefix + "BB", prefix + "AaAa", prefix + "BBBB"}) {
+            String name = ColumnIndexManager.indexName(tableName, "created_at", "retention_idx");
+            assertThat(name).startsWith("retention_idx_").hasSizeLessThanOrEqualTo(63);
+            names.add(name);
+        }
+
+        assertThat(names).hasSize(4);
+        assertThat(ColumnIndexManager.indexName(prefix + "Aa", "created_at", "retention_idx"))
+                .isEqualTo(ColumnIndexManager.indexName(prefix + "Aa", "created_at", "retention_idx"));
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.flexdb.service.impl;
+
+import com.example.flexdb.dto.BatchOperationDto;
+import com.example.flexdb.dto.BatchRequest;
+import com.example.flexdb.dto.BatchResponse;
+import com.example.flexdb.entity.DynamicTableDefinition;
+import com.example.flexdb.enums.StorageEngine;
+import com.example.flexdb.exception.ResourceNotFoundException;
+import com.example.flexdb.repository.DynamicTableDefinitionRepository;
+import com.example.flexdb.service.DynamicDataService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class DynamicBatchServiceImplTest {
+
+    private DynamicDataService dataService;
+    private DynamicTableDefinitionRepository tableRepo;
+    private DynamicBatchServiceImpl batchService;
+
+    @BeforeEach
+    void setUp() {
+        dataService = mock(DynamicDataService.class);
+        tableRepo = mock(DynamicTableDefinitionRepository.class);
+        when(tableRepo.findByTableName(anyString())).thenReturn(Optional.empty());
+        batchService = new DynamicBatchServiceImpl(dataService, tableRepo);
+    }
+
+    @Test
+    void refResolvesToIdOfPreviousOperation() {
+        when(dataService.insertRow(eq("orders_main"), anyMap())).thenReturn(row(42L));
+        when(dataService.insertRow(eq("order_items"), anyMap())).thenReturn(row(7L));
+
+        BatchResponse response = batchService.executeBatch(batch(
+                operation("insert", "orders_main", null, Map.of("full_name", "a")),
+                operation("insert", "order_items", null, Map.of("order_id", Map.of("$ref", 0))),
+                operation("delete", "order_items", Map.of("$ref", 1), null)
+        ));
+
+        verify(dataService).insertRow("order_items", Map.of("order_id", 42L));
+        verify(dataService).deleteById("order_items", 7L);
+        assertThat(response.getResults()).extracting(result -> result.getResult().get("id"))
+                .containsExactly(42L, 7L, 7L);
+    }
+
+    @Test
+    void refMustPointToEarlierOperation() {
+        when(dataService.insertRow(eq("orders_main"), anyMap())).thenReturn(row(1L));
+
+        assertThatThrownBy(() -> batchService.executeBatch(batch(
+                operation("insert", "orders_main", null, Map.of("full_name", "a")),
+                operation("update", "orders_main", Map.of("$ref", 1), Map.of("full_name", "b"))
+        )))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Операция #1:");
+    }
+
+    @Test
+    void errorsCarryIndexOfFailingOperation() {
+        when(dataService.insertRow(eq("orders_main"), anyMap())).thenReturn(row(1L));
+        when(dataService.getRowById(eq("orders_main"), eq(5L), any())).thenThrow(new ResourceNotFoundException("нет записи"));
+        when(dataService.insertRow(eq("unique_items"), anyMap()))
+                .thenThrow(new DataIntegrityViolationException("duplicate key value violates unique constraint"));
+
+        assertThatThrownBy(() -> batchService.executeBatch(batch(
+                operation("insert", "orders_main", null, Map.of("full_name", "a")),
+                operation("get", "orders_main", 5, null)
+        )))
+                .isInstanceOf(ResourceNotFoundException.class)
+                .hasMessage("Операция #1: нет записи");
+
+        assertThatThrownBy(() -> batchService.executeBatch(batch(
+                operation("insert", "orders_main", null, Map.of("full_name", "a")),
+                operation("insert", "unique_items", null, Map.of("code_value", "x"))
+        )))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessage("Операция #1: duplicate key value violates unique constraint");
+    }
+
+    @Test
+    void transientDatabaseErrorIsNotTurnedIntoClientError() {
+        when(dataService.insertRow(eq("orders_main"), anyMap())).thenThrow(new QueryTimeoutException("timeout"));
+
+        assertThatThrownBy(() -> batchService.executeBatch(batch(
+                operation("insert", "orders_main", null, Map.of("full_name", "a"))
+        ))).isInstanceOf(QueryTimeoutException.class);
+    }
+
+    @Test
+    void memoryTableIsRejectedBeforeAnyOperationRuns() {
+        DynamicTableDefinition memory = new DynamicTableDefinition();
+        memory.setTableName("hot_sessions");
+        memory.setStorageEngine(StorageEngine.MEMORY);
+        when(tableRepo.findByTableName("hot_sessions")).thenReturn(Optional.of(memory));
+
+        assertThatThrownBy(() -> batchService.executeBatch(batch(
+                operation("insert", "orders_main", null, Map.of("full_name", "a")),
+                operation("insert", "hot_sessions", null, Map.of("user_id", 1))
+        )))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageStartingWith("Операция #1: таблица в памяти 'hot_sessions'");
+        verifyNoInteractions(dataService);
+    }
+
+    private static BatchRequest batch(BatchOperationDto... operations) {
+        BatchRequest request = new BatchRequest();
+        request.setOperations(List.of(operations));
+        return request;
+    }
+
+    private static BatchOperationDto operation(String op, String table, Object id, Map<String, Object> data) {
+        BatchOperationDto operation = new BatchOperationDto();
+        operation.setOp(op);
+        operation.setTable(table);
+        operation.setId(id);
+        operation.setData(data != null ? new HashMap<>(data) : null);
+        return operation;
+    }
+
+    private static Map<String, Object> row(long id) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", id);
+        return row;
+    }
+}
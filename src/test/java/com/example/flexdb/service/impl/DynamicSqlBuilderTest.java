@@ -0,0 +1,57 @@
+package com.example.flexdb.service.impl;
+
+import com.example.flexdb.entity.DynamicColumnDefinition;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DynamicSqlBuilderTest {
+
+    private static final List<DynamicColumnDefinition> COLUMNS = List.of(
+            column("id"), column("full_name"), column("age_user"));
+
+    @Test
+    void selectListWithoutFieldsSelectsAllColumns() {
+        assertThat(DynamicSqlBuilder.selectList(COLUMNS, null)).isEqualTo("*");
+        assertThat(DynamicSqlBuilder.selectList(COLUMNS, List.of())).isEqualTo("*");
+    }
+
+    @Test
+    void selectListQuotesKnownColumnsInRequestedOrder() {
+        assertThat(DynamicSqlBuilder.selectList(COLUMNS, List.of("age_user", "id")))
+                .isEqualTo("\"age_user\", \"id\"");
+    }
+
+    @Test
+    void selectedColumnsTrimsBlanksAndDuplicates() {
+        assertThat(DynamicSqlBuilder.selectedColumns(COLUMNS, List.of(" full_name", "", "full_name ", "id")))
+                .containsExactly("full_name", "id");
+    }
+
+    @Test
+    void unknownOrInjectedFieldIsRejected() {
+        assertThatThrownBy(() -> DynamicSqlBuilder.selectList(COLUMNS, List.of("missing_col")))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("missing_col");
+        assertThatThrownBy(() -> DynamicSqlBuilder.selectList(COLUMNS, List.of("id\" FROM pg_user --")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void insertAndUpdateBindParametersInColumnOrder() {
+        assertThat(DynamicSqlBuilder.insertSql("users_info", List.of("full_name", "age_user")))
+                .isEqualTo("INSERT INTO \"users_info\" (\"full_name\", \"age_user\") VALUES (?, ?) RETURNING id");
+        assertThat(DynamicSqlBuilder.updateSql("users_info", List.of("full_name")))
+                .isEqualTo("UPDATE \"users_info\" SET \"full_name\" = ? WHERE id = ?");
+    }
+
+    private static DynamicColumnDefinition column(String name) {
+        DynamicColumnDefinition column = new DynamicColumnDefinition();
+        column.setColumnName(name);
+        column.setColumnType("TEXT");
+        return column;
+    }
+}
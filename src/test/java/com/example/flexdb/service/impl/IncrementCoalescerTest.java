@@ -0,0 +1,142 @@
+package com.example.flexdb.service.impl;
+
+import com.example.flexdb.config.IncrementProperties;
+import com.example.flexdb.config.MetricsProperties;
+import com.example.flexdb.exception.IncrementTimeoutException;
+import com.example.flexdb.metrics.DynamicTableMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class IncrementCoalescerTest {
+
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private final List<Map<String, Number>> flushed = new CopyOnWriteArrayList<>();
+    private IncrementCoalescer coalescer;
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        coalescer.destroy();
+    }
+
+    @Test
+    void concurrentIncrementsOfOneRowAreWrittenByOneUpdate() throws Exception {
+        coalescer = coalescer(Duration.ofMillis(200), Duration.ofSeconds(5));
+        Function<Map<String, Number>, Map<String, Object>> flush = recordingFlush();
+
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Map<String, Object>>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(callers.submit(() -> {
+                start.await();
+                return coalescer.submit("counters", 1L, Map.of("hits", 2L), Set.of(), flush);
+            }));
+        }
+        start.countDown();
+
+        for (Future<Map<String, Object>> result : results) {
+            assertThat(result.get(5, TimeUnit.SECONDS)).containsEntry("hits", 6L);
+        }
+        assertThat(flushed).containsExactly(Map.of("hits", 6L));
+    }
+
+    @Test
+    void incrementThatWouldOverflowBatchIsWrittenSeparately() throws Exception {
+        coalescer = coalescer(Duration.ofMillis(500), Duration.ofSeconds(5));
+        Function<Map<String, Number>, Map<String, Object>> flush = recordingFlush();
+
+        Future<Map<String, Object>> first = callers.submit(() -> coalescer.submit("counters", 1L, Map.of("hits", Long.MAX_VALUE), Set.of(), flush));
+        Thread.sleep(100);
+
+        assertThat(coalescer.submit("counters", 1L, Map.of("hits", 1L), Set.of(), flush)).containsEntry("hits", 1L);
+        assertThat(first.get(5, TimeUnit.SECONDS)).containsEntry("hits", Long.MAX_VALUE);
+        assertThat(flushed).containsExactly(Map.of("hits", 1L), Map.of("hits", Long.MAX_VALUE));
+    }
+
+    @Test
+    void integerColumnSumIsCheckedAgainstIntRange() throws Exception {
+        coalescer = coalescer(Duration.ofMillis(500), Duration.ofSeconds(5));
+        Function<Map<String, Number>, Map<String, Object>> flush = recordingFlush();
+
+        Future<Map<String, Object>> first = callers.submit(() ->
+                coalescer.submit("counters", 1L, Map.of("hits", (long) Integer.MAX_VALUE), Set.of("hits"), flush));
+        Thread.sleep(100);
+
+        // Для BIGINT сумма поместилась бы, но колонка INTEGER — приращение уходит отдельным UPDATE
+        assertThat(coalescer.submit("counters", 1L, Map.of("hits", 1L), Set.of("hits"), flush)).containsEntry("hits", 1L);
+        assertThat(first.get(5, TimeUnit.SECONDS)).containsEntry("hits", (long) Integer.MAX_VALUE);
+        assertThat(flushed).containsExactly(Map.of("hits", 1L), Map.of("hits", (long) Integer.MAX_VALUE));
+    }
+
+    @Test
+    void withdrawnColumnIsLeftOutOfUpdate() throws Exception {
+        coalescer = coalescer(Duration.ofMillis(300), Duration.ofSeconds(5));
+        Function<Map<String, Number>, Map<String, Object>> flush = recordingFlush();
+
+        Future<Map<String, Object>> kept = callers.submit(() -> coalescer.submit("counters", 1L, Map.of("hits", 1L), Set.of(), flush));
+        Future<Map<String, Object>> withdrawn = callers.submit(() -> coalescer.submit("counters", 1L, Map.of("misses", 1L), Set.of(), flush));
+        Thread.sleep(100);
+        // Прерванное ожидание отзывает приращение так же, как таймаут
+        withdrawn.cancel(true);
+
+        assertThat(kept.get(5, TimeUnit.SECONDS)).containsOnlyKeys("hits");
+        assertThat(flushed).containsExactly(Map.of("hits", 1L));
+    }
+
+    @Test
+    void timedOutIncrementIsWithdrawnFromPendingBatch() throws Exception {
+        coalescer = coalescer(Duration.ofMillis(300), Duration.ofMillis(50));
+
+        assertThatThrownBy(() -> coalescer.submit("counters", 1L, Map.of("hits", 1L), Set.of(), recordingFlush()))
+                .isInstanceOfSatisfying(IncrementTimeoutException.class, e -> assertThat(e.isWithdrawn()).isTrue());
+
+        Thread.sleep(400);
+        assertThat(flushed).isEmpty();
+    }
+
+    @Test
+    void timeoutDuringUpdateReportsUnknownOutcome() {
+        coalescer = coalescer(Duration.ofMillis(1), Duration.ofMillis(100));
+        CountDownLatch release = new CountDownLatch(1);
+
+        try {
+            assertThatThrownBy(() -> coalescer.submit("counters", 1L, Map.of("hits", 1L), Set.of(), sums -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return Map.of();
+            })).isInstanceOfSatisfying(IncrementTimeoutException.class, e -> assertThat(e.isWithdrawn()).isFalse());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    private Function<Map<String, Number>, Map<String, Object>> recordingFlush() {
+        return sums -> {
+            flushed.add(Map.copyOf(sums));
+            return Map.copyOf(sums);
+        };
+    }
+
+    private static IncrementCoalescer coalescer(Duration window, Duration maxWait) {
+        IncrementProperties properties = new IncrementProperties();
+        properties.setCoalesce(true);
+        properties.setWindow(window);
+        properties.setMaxWait(maxWait);
+        return new IncrementCoalescer(properties, new DynamicTableMetrics(new SimpleMeterRegistry(), new MetricsProperties()));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.flexdb.service.impl;
+
+import com.example.flexdb.config.MetricsProperties;
+import com.example.flexdb.config.PageCacheProperties;
+import com.example.flexdb.dto.PageInfo;
+import com.example.flexdb.dto.PaginatedResponse;
+import com.example.flexdb.metrics.DynamicTableMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PageResultCacheTest {
+
+    private final AtomicInteger loads = new AtomicInteger();
+    private PageCacheProperties properties;
+    private PageResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        properties = new PageCacheProperties();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        cache = new PageResultCache(properties, new DynamicTableMetrics(registry, new MetricsProperties()), registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void repeatedRequestIsServedFromCache() {
+        PaginatedResponse first = page("orders_main", 0, List.of("full_name"));
+        PaginatedResponse second = page("orders_main", 0, List.of("full_name"));
+
+        assertThat(second).isSameAs(first);
+        assertThat(loads).hasValue(1);
+        // Другие параметры — другой ключ
+        page("orders_main", 0, List.of());
+        page("orders_main", 1, List.of("full_name"));
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void invalidationOutsideTransactionDropsPagesOfThatTableOnly() {
+        page("orders_main", 0, null);
+        page("users_info", 0, null);
+
+        cache.invalidate("orders_main");
+
+        page("orders_main", 0, null);
+        page("users_info", 0, null);
+        assertThat(loads).hasValue(3);
+    }
+
+    @Test
+    void invalidationInsideTransactionTakesEffectAfterCompletion() {
+        TransactionSynchronizationManager.initSynchronization();
+        page("orders_main", 0, null);
+
+        cache.invalidate("orders_main");
+        // До коммита читается ещё старая версия
+        page("orders_main", 0, null);
+        assertThat(loads).hasValue(1);
+
+        List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+        TransactionSynchronizationManager.clearSynchronization();
+        synchronizations.forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+
+        page("orders_main", 0, null);
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void disabledCacheAlwaysCallsLoader() {
+        properties.setEnabled(false);
+
+        page("orders_main", 0, null);
+        page("orders_main", 0, null);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    private PaginatedResponse page(String tableName, int page, List<String> fields) {
+        Supplier<PaginatedResponse> loader = () -> {
+            loads.incrementAndGet();
+            return new PaginatedResponse(List.of(Map.of("id", 1L)), new PageInfo(page, 20), 1, 1, true, true);
+        };
+        return cache.get(tableName, page, 20, fields, false, loader);
+    }
+}
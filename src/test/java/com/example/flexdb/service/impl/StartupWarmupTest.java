@@ -0,0 +1,70 @@
+package com.example.flexdb.service.impl;
+
+import com.example.flexdb.config.WarmupProperties;
+import com.example.flexdb.dto.PageInfo;
+import com.example.flexdb.dto.PaginatedResponse;
+import com.example.flexdb.repository.DynamicTableDefinitionRepository;
+import com.example.flexdb.service.DynamicDataService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class StartupWarmupTest {
+
+    private WarmupProperties properties;
+    private DynamicTableDefinitionRepository tableRepo;
+    private DynamicDataService dataService;
+    private StartupWarmup warmup;
+
+    @BeforeEach
+    void setUp() {
+        properties = new WarmupProperties();
+        properties.setEnabled(true);
+        properties.setMaxTables(2);
+        tableRepo = mock(DynamicTableDefinitionRepository.class);
+        dataService = mock(DynamicDataService.class);
+        warmup = new StartupWarmup(properties, tableRepo, dataService, new ObjectMapper());
+    }
+
+    @Test
+    void warmsOnlyFirstTablesInCreationOrder() {
+        when(tableRepo.findTableNames(PageRequest.of(0, 2))).thenReturn(List.of("orders_main", "users_info"));
+        when(dataService.getPaginatedData(anyString(), eq(0), anyInt(), any(), eq(false)))
+                .thenReturn(new PaginatedResponse(List.of(Map.of("id", 7L)), new PageInfo(0, 20), 1, 1, true, true));
+        // Ошибка одной таблицы не останавливает прогрев остальных
+        when(dataService.getRowById("orders_main", 7L, null)).thenThrow(new IllegalStateException("boom"));
+
+        warmup.run(null);
+
+        InOrder order = inOrder(dataService);
+        order.verify(dataService).getPaginatedData("orders_main", 0, properties.getPageSize(), null, false);
+        order.verify(dataService).getPaginatedData("users_info", 0, properties.getPageSize(), null, false);
+        verify(dataService).getRowById("users_info", 7L, null);
+        verify(tableRepo, never()).findAll();
+    }
+
+    @Test
+    void disabledWarmupReadsNothing() {
+        properties.setEnabled(false);
+
+        warmup.run(null);
+
+        verifyNoInteractions(tableRepo, dataService);
+    }
+}
@@ -0,0 +1,141 @@
+package com.example.flexdb.web;
+
+import com.example.flexdb.config.AdmissionProperties;
+import com.example.flexdb.config.MetricsProperties;
+import com.example.flexdb.dto.AdmissionLimitDto;
+import com.example.flexdb.dto.AdmissionLimiterDto;
+import com.example.flexdb.dto.AdmissionLimitsRequest;
+import com.example.flexdb.enums.OperationClass;
+import com.example.flexdb.exception.AdmissionRejectedException;
+import com.example.flexdb.metrics.DynamicTableMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AdmissionControlTest {
+
+    private AdmissionProperties properties;
+    private SimpleMeterRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        properties = new AdmissionProperties();
+        properties.setEnabled(true);
+        registry = new SimpleMeterRegistry();
+    }
+
+    @Test
+    void tokenBucketAllowsBurstThenRejectsWithRetryAfter() {
+        AdmissionControl admission = admission();
+        admission.updateTableLimits("orders_main", limits(OperationClass.POINT, new AdmissionLimitDto(0.5, 2, 0)));
+
+        admission.release(admission.admit("orders_main", OperationClass.POINT));
+        admission.release(admission.admit("orders_main", OperationClass.POINT));
+
+        assertThatThrownBy(() -> admission.admit("orders_main", OperationClass.POINT))
+                .isInstanceOfSatisfying(AdmissionRejectedException.class,
+                        e -> assertThat(e.getRetryAfterSeconds()).isEqualTo(2));
+        // Другой класс операций и другая таблица считаются отдельно
+        admission.release(admission.admit("orders_main", OperationClass.BULK));
+        admission.release(admission.admit("users_info", OperationClass.POINT));
+        assertThat(registry.get("flexdb.admission.rejected").tag("reason", "rate").counter().count()).isEqualTo(1.0);
+    }
+
+    @Test
+    void inFlightLimitIsFreedOnRelease() {
+        AdmissionControl admission = admission();
+        admission.updateDefaults(limits(OperationClass.BULK, new AdmissionLimitDto(0, 0, 1)));
+
+        AdmissionControl.Permit first = admission.admit("orders_main", OperationClass.BULK);
+        assertThatThrownBy(() -> admission.admit("orders_main", OperationClass.BULK))
+                .isInstanceOf(AdmissionRejectedException.class);
+
+        admission.release(first);
+        admission.release(admission.admit("orders_main", OperationClass.BULK));
+    }
+
+    @Test
+    void tableWithOwnLimitsIsTrackedBeyondMaxTrackedTables() {
+        properties.setMaxTrackedTables(1);
+        AdmissionControl admission = admission();
+        admission.release(admission.admit("users_info", OperationClass.POINT));
+        admission.release(admission.admit("users_info", OperationClass.BULK));
+        admission.updateTableLimits("orders_main", limits(OperationClass.POINT, new AdmissionLimitDto(0, 0, 1)));
+
+        AdmissionControl.Permit permit = admission.admit("orders_main", OperationClass.POINT);
+        assertThatThrownBy(() -> admission.admit("orders_main", OperationClass.POINT))
+                .isInstanceOf(AdmissionRejectedException.class);
+        admission.release(permit);
+
+        // Таблица без своих лимитов уже не помещается и уходит в общий счётчик
+        admission.release(admission.admit("events_log", OperationClass.POINT));
+        assertThat(admission.report().getLimiters())
+                .extracting(AdmissionLimiterDto::getTableName)
+                .containsExactly(DynamicTableMetrics.OTHER_TABLE, "orders_main", "users_info", "users_info");
+        assertThat(admission.report().getWarnings()).anyMatch(warning -> warning.contains("maxTrackedTables"));
+    }
+
+    @Test
+    void idleLimitersWithFullBucketAreEvicted() {
+        properties.setIdleEvictAfter(Duration.ZERO);
+        AdmissionControl admission = admission();
+        admission.updateTableLimits("orders_main", limits(OperationClass.POINT, new AdmissionLimitDto(0.001, 1, 0)));
+
+        admission.release(admission.admit("orders_main", OperationClass.POINT));
+        AdmissionControl.Permit running = admission.admit("users_info", OperationClass.POINT);
+        admission.release(admission.admit("events_log", OperationClass.POINT));
+
+        admission.evictIdleLimiters();
+
+        // orders_main ещё пополняет корзину, users_info выполняется — их состояние терять нельзя
+        assertThat(admission.report().getLimiters())
+                .extracting(AdmissionLimiterDto::getTableName)
+                .containsExactly("orders_main", "users_info");
+        admission.release(running);
+    }
+
+    @Test
+    void shedsBulkButNotPointAboveThreshold() {
+        AdmissionControl admission = admission();
+        AdmissionLimitsRequest request = new AdmissionLimitsRequest();
+        request.setShedBulkAboveInFlight(1);
+        admission.updateDefaults(request);
+
+        AdmissionControl.Permit running = admission.admit("orders_main", OperationClass.POINT);
+        assertThatThrownBy(() -> admission.admit("users_info", OperationClass.BULK))
+                .isInstanceOf(AdmissionRejectedException.class);
+        admission.release(admission.admit("users_info", OperationClass.POINT));
+        admission.release(running);
+    }
+
+    @Test
+    void reportWarnsWhenLimitsCannotTakeEffect() {
+        properties.setEnabled(false);
+        AdmissionControl admission = admission();
+
+        admission.updateTableLimits("orders_main", limits(OperationClass.BULK, new AdmissionLimitDto(0, 50, 0)));
+
+        assertThat(admission.report().getWarnings())
+                .anyMatch(warning -> warning.contains("flexdb.admission.enabled=false"))
+                .anyMatch(warning -> warning.contains("'orders_main'") && warning.contains("burst без rate"));
+    }
+
+    private AdmissionControl admission() {
+        return new AdmissionControl(properties, new DynamicTableMetrics(registry, new MetricsProperties()), registry);
+    }
+
+    private static AdmissionLimitsRequest limits(OperationClass operationClass, AdmissionLimitDto limit) {
+        AdmissionLimitsRequest request = new AdmissionLimitsRequest();
+        if (operationClass == OperationClass.POINT) {
+            request.setPoint(limit);
+        } else {
+            request.setBulk(limit);
+        }
+        return request;
+    }
+}
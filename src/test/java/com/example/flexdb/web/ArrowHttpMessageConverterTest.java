@@ -0,0 +1,121 @@
+package com.example.flexdb.web;
+
+import com.example.flexdb.dto.TypedRows;
+import com.example.flexdb.enums.SupportedColumnType;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.ipc.ArrowStreamReader;
+import org.apache.arrow.vector.types.DateUnit;
+import org.apache.arrow.vector.types.TimeUnit;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.MockHttpOutputMessage;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArrowHttpMessageConverterTest {
+
+    private final BufferAllocator allocator = new RootAllocator();
+
+    @AfterEach
+    void tearDown() {
+        allocator.close();
+    }
+
+    @Test
+    void roundTripKeepsColumnTypesValuesAndNulls() throws Exception {
+        Map<String, SupportedColumnType> columns = new LinkedHashMap<>();
+        columns.put("id", SupportedColumnType.BIGINT);
+        columns.put("qty_count", SupportedColumnType.INTEGER);
+        columns.put("note_text", SupportedColumnType.TEXT);
+        columns.put("price_value", SupportedColumnType.DECIMAL);
+        columns.put("is_active", SupportedColumnType.BOOLEAN);
+        columns.put("birth_date", SupportedColumnType.DATE);
+        columns.put("created_at", SupportedColumnType.TIMESTAMP);
+
+        Map<String, Object> first = new HashMap<>();
+        first.put("id", 1L);
+        first.put("qty_count", 42);
+        first.put("note_text", "Привет");
+        first.put("price_value", new BigDecimal("12.50"));
+        first.put("is_active", true);
+        first.put("birth_date", Date.valueOf(LocalDate.of(2024, 2, 29)));
+        first.put("created_at", Timestamp.valueOf(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000)));
+        Map<String, Object> second = new HashMap<>();
+        second.put("id", 2L);
+
+        MockHttpOutputMessage output = new MockHttpOutputMessage();
+        new ArrowHttpMessageConverter().write(
+                new TypedRows(columns, List.of(first, second), Map.of("flexdb.totalElements", "2")),
+                ArrowIpcWriter.ARROW_STREAM, output);
+
+        assertThat(output.getHeaders().getContentType()).isEqualTo(ArrowIpcWriter.ARROW_STREAM);
+        try (ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(output.getBodyAsBytes()), allocator)) {
+            Schema schema = reader.getVectorSchemaRoot().getSchema();
+            assertThat(schema.getCustomMetadata()).containsEntry("flexdb.totalElements", "2");
+            assertThat(schema.getFields()).extracting(field -> field.getName()).containsExactlyElementsOf(columns.keySet());
+            assertThat(schema.findField("id").getType()).isEqualTo(new ArrowType.Int(64, true));
+            assertThat(schema.findField("qty_count").getType()).isEqualTo(new ArrowType.Int(32, true));
+            assertThat(schema.findField("note_text").getType()).isEqualTo(ArrowType.Utf8.INSTANCE);
+            assertThat(schema.findField("price_value").getType()).isEqualTo(ArrowType.Utf8.INSTANCE);
+            assertThat(schema.findField("price_value").getMetadata()).containsEntry(ArrowIpcWriter.TYPE_METADATA_KEY, "DECIMAL");
+            assertThat(schema.findField("is_active").getType()).isEqualTo(ArrowType.Bool.INSTANCE);
+            assertThat(schema.findField("birth_date").getType()).isEqualTo(new ArrowType.Date(DateUnit.DAY));
+            assertThat(schema.findField("created_at").getType()).isEqualTo(new ArrowType.Timestamp(TimeUnit.MICROSECOND, null));
+
+            assertThat(reader.loadNextBatch()).isTrue();
+            VectorSchemaRoot root = reader.getVectorSchemaRoot();
+            assertThat(root.getRowCount()).isEqualTo(2);
+            assertThat(root.getVector("id").getObject(1)).isEqualTo(2L);
+            assertThat(root.getVector("qty_count").getObject(0)).isEqualTo(42);
+            assertThat(root.getVector("note_text").getObject(0).toString()).isEqualTo("Привет");
+            assertThat(root.getVector("price_value").getObject(0).toString()).isEqualTo("12.50");
+            assertThat(root.getVector("is_active").getObject(0)).isEqualTo(true);
+            assertThat(root.getVector("birth_date").getObject(0)).isEqualTo((int) LocalDate.of(2024, 2, 29).toEpochDay());
+            assertThat(root.getVector("created_at").getObject(0)).isEqualTo(LocalDateTime.of(2024, 3, 1, 12, 30, 15, 123_456_000));
+            for (String column : List.of("qty_count", "note_text", "price_value", "is_active", "birth_date", "created_at")) {
+                assertThat(root.getVector(column).isNull(1)).as(column).isTrue();
+            }
+            assertThat(reader.loadNextBatch()).isFalse();
+        }
+    }
+
+    @Test
+    void streamOfSeveralBatchesEndsWithErrorBatch() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ArrowIpcWriter writer = new ArrowIpcWriter(out, Map.of("id", SupportedColumnType.BIGINT));
+        writer.writeSchema(Map.of());
+        List<Map<String, Object>> batch = new ArrayList<>();
+        for (long id = 1; id <= 9; id++) {
+            batch.add(Map.of("id", id));
+        }
+        writer.writeBatch(batch);
+        writer.writeBatch(batch.subList(0, 3));
+        writer.writeError("boom");
+        writer.writeEnd();
+
+        try (ArrowStreamReader reader = new ArrowStreamReader(new ByteArrayInputStream(out.toByteArray()), allocator)) {
+            List<Integer> rowCounts = new ArrayList<>();
+            while (reader.loadNextBatch()) {
+                rowCounts.add(reader.getVectorSchemaRoot().getRowCount());
+            }
+            assertThat(rowCounts).containsExactly(9, 3, 0);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.flexdb.web;
+
+import com.example.flexdb.config.BulkheadProperties;
+import com.example.flexdb.enums.OperationClass;
+import com.example.flexdb.exception.BulkheadFullException;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.web.method.HandlerMethod;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BulkheadInterceptorTest {
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+    private HikariDataSource dataSource;
+    private SimpleMeterRegistry registry;
+    private BulkheadInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        // Пул не стартует: нужен только его размер
+        dataSource = new HikariDataSource();
+        dataSource.setMaximumPoolSize(4);
+
+        BulkheadProperties properties = new BulkheadProperties();
+        properties.setBulkShare(0.5);
+        properties.setMaxWait(Duration.ofMillis(10));
+        registry = new SimpleMeterRegistry();
+        interceptor = new BulkheadInterceptor(properties, dataSource, registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        dataSource.close();
+    }
+
+    @Test
+    void bulkPermitsAreShareOfPoolAndExcessIsRejected() throws Exception {
+        MockHttpServletRequest first = new MockHttpServletRequest();
+        MockHttpServletRequest second = new MockHttpServletRequest();
+        assertThat(interceptor.preHandle(first, response, handler("bulk"))).isTrue();
+        assertThat(interceptor.preHandle(second, response, handler("bulk"))).isTrue();
+
+        assertThatThrownBy(() -> interceptor.preHandle(new MockHttpServletRequest(), response, handler("bulk")))
+                .isInstanceOf(BulkheadFullException.class);
+        assertThat(registry.get("flexdb.bulkhead.rejected").tag("class", "bulk").counter().count()).isEqualTo(1);
+
+        // Точечные операции не зависят от занятого BULK-семафора
+        assertThat(interceptor.preHandle(new MockHttpServletRequest(), response, handler("point"))).isTrue();
+
+        interceptor.afterCompletion(first, response, handler("bulk"), null);
+        assertThat(interceptor.preHandle(new MockHttpServletRequest(), response, handler("bulk"))).isTrue();
+    }
+
+    @Test
+    void asyncRedispatchDoesNotTakeSecondPermit() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        interceptor.preHandle(request, response, handler("bulk"));
+        interceptor.preHandle(request, response, handler("bulk"));
+        interceptor.afterCompletion(request, response, handler("bulk"), null);
+        // Повторный afterCompletion не освобождает разрешение дважды
+        interceptor.afterCompletion(request, response, handler("bulk"), null);
+
+        assertThat(registry.get("flexdb.bulkhead.available").tag("class", "bulk").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    void handlersWithoutClassificationPassThrough() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            assertThat(interceptor.preHandle(new MockHttpServletRequest(), response, handler("unclassified"))).isTrue();
+        }
+        assertThat(interceptor.preHandle(new MockHttpServletRequest(), response, new Object())).isTrue();
+    }
+
+    private static HandlerMethod handler(String method) throws NoSuchMethodException {
+        return new HandlerMethod(new Handlers(), Handlers.class.getMethod(method));
+    }
+
+    static class Handlers {
+
+        @OperationClassification(OperationClass.POINT)
+        public void point() {
+        }
+
+        @OperationClassification(OperationClass.BULK)
+        public void bulk() {
+        }
+
+        public void unclassified() {
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.example.flexdb.web;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ResponseFormatTest {
+
+    @Test
+    void picksHighestQualityThenEarliestFormat() {
+        assertThat(ResponseFormat.negotiate(null)).isEqualTo(ResponseFormat.JSON);
+        assertThat(ResponseFormat.negotiate("*/*")).isEqualTo(ResponseFormat.JSON);
+        assertThat(ResponseFormat.negotiate("application/vnd.apache.arrow.stream")).isEqualTo(ResponseFormat.ARROW);
+        assertThat(ResponseFormat.negotiate("application/cbor, application/vnd.apache.arrow.stream")).isEqualTo(ResponseFormat.CBOR);
+        assertThat(ResponseFormat.negotiate("application/json;q=0.5, application/vnd.apache.arrow.stream")).isEqualTo(ResponseFormat.ARROW);
+        assertThat(ResponseFormat.negotiate("application/x-ndjson")).isEqualTo(ResponseFormat.JSON);
+        assertThat(ResponseFormat.negotiate("text/csv")).isNull();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.flexdb.web;
+
+import com.example.flexdb.config.ZstdCompressionProperties;
+import com.github.luben.zstd.ZstdInputStream;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ZstdCompressionFilterTest {
+
+    private static final String BODY = "{\"value\":\"" + "a".repeat(4096) + "\"}";
+
+    private final ZstdCompressionFilter filter = new ZstdCompressionFilter(new ZstdCompressionProperties());
+
+    @Test
+    void compressesStreamedBodyWhenClientAcceptsZstd() throws Exception {
+        MockHttpServletResponse response = execute("gzip, zstd", MediaType.APPLICATION_NDJSON_VALUE, -1);
+
+        assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isEqualTo("zstd");
+        assertThat(response.getHeader(HttpHeaders.VARY)).isEqualTo(HttpHeaders.ACCEPT_ENCODING);
+        assertThat(response.getContentAsByteArray().length).isLessThan(BODY.length());
+        assertThat(decompress(response.getContentAsByteArray())).isEqualTo(BODY);
+    }
+
+    @Test
+    void leavesResponseAloneWithoutZstdOrForShortAndForeignTypes() throws Exception {
+        MockHttpServletResponse gzipOnly = execute("gzip", MediaType.APPLICATION_JSON_VALUE, BODY.length());
+        MockHttpServletResponse disabled = execute("zstd;q=0", MediaType.APPLICATION_JSON_VALUE, BODY.length());
+        MockHttpServletResponse text = execute("zstd", MediaType.TEXT_PLAIN_VALUE, BODY.length());
+
+        for (MockHttpServletResponse response : new MockHttpServletResponse[]{gzipOnly, disabled, text}) {
+            assertThat(response.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+            assertThat(response.getContentAsString(StandardCharsets.UTF_8)).isEqualTo(BODY);
+            assertThat(response.getContentLength()).isEqualTo(BODY.length());
+        }
+
+        MockHttpServletResponse shortBody = execute("zstd", MediaType.APPLICATION_JSON_VALUE, 2, "{}");
+        assertThat(shortBody.getHeader(HttpHeaders.CONTENT_ENCODING)).isNull();
+        assertThat(shortBody.getContentLength()).isEqualTo(2);
+    }
+
+    private MockHttpServletResponse execute(String acceptEncoding, String contentType, int contentLength) throws Exception {
+        return execute(acceptEncoding, contentType, contentLength, BODY);
+    }
+
+    private MockHttpServletResponse execute(String acceptEncoding, String contentType, int contentLength, String body) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/v1/dynamic-tables/data/orders_main");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, acceptEncoding);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+
+        HttpServlet servlet = new HttpServlet() {
+            @Override
+            protected void doGet(HttpServletRequest req, HttpServletResponse resp) throws IOException {
+                resp.setContentType(contentType);
+                if (contentLength >= 0) {
+                    resp.setContentLength(contentLength);
+                }
+                // Две записи с flush между ними — как у потоковой выгрузки
+                int half = body.length() / 2;
+                resp.getOutputStream().write(body.substring(0, half).getBytes(StandardCharsets.UTF_8));
+                resp.getOutputStream().flush();
+                resp.getOutputStream().write(body.substring(half).getBytes(StandardCharsets.UTF_8));
+            }
+        };
+        filter.doFilter(request, response, new MockFilterChain(servlet));
+        return response;
+    }
+
+    private static String decompress(byte[] compressed) throws IOException {
+        try (ZstdInputStream in = new ZstdInputStream(new ByteArrayInputStream(compressed))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}